@@ -0,0 +1,10 @@
+package com.buyandsellstore.app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Runs @Scheduled background jobs such as the expired inventory reservation reaper
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,35 @@
+package com.buyandsellstore.app.dto;
+
+import java.util.List;
+
+// Catalog facet selections: values within a facet are OR-ed, facets are AND-ed; null means no restriction
+public class CatalogFilter {
+    private List<String> types;
+    private List<String> sellerIds;
+    private List<String> manufacturers;
+    private List<String> priceRanges;
+    private Integer minRating;
+    private Boolean inStock;
+
+    public CatalogFilter() {
+    }
+
+    // Getters and Setters
+    public List<String> getTypes() { return types; }
+    public void setTypes(List<String> types) { this.types = types; }
+
+    public List<String> getSellerIds() { return sellerIds; }
+    public void setSellerIds(List<String> sellerIds) { this.sellerIds = sellerIds; }
+
+    public List<String> getManufacturers() { return manufacturers; }
+    public void setManufacturers(List<String> manufacturers) { this.manufacturers = manufacturers; }
+
+    public List<String> getPriceRanges() { return priceRanges; }
+    public void setPriceRanges(List<String> priceRanges) { this.priceRanges = priceRanges; }
+
+    public Integer getMinRating() { return minRating; }
+    public void setMinRating(Integer minRating) { this.minRating = minRating; }
+
+    public Boolean getInStock() { return inStock; }
+    public void setInStock(Boolean inStock) { this.inStock = inStock; }
+}
@@ -0,0 +1,21 @@
+package com.buyandsellstore.app.dto;
+
+import java.util.List;
+
+// One page of a Relay-style connection: the edges plus where to continue from
+public class Connection<T> {
+    private List<Edge<T>> edges;
+    private PageInfo pageInfo;
+
+    public Connection(List<Edge<T>> edges, PageInfo pageInfo) {
+        this.edges = edges;
+        this.pageInfo = pageInfo;
+    }
+
+    // Getters and Setters
+    public List<Edge<T>> getEdges() { return edges; }
+    public void setEdges(List<Edge<T>> edges) { this.edges = edges; }
+
+    public PageInfo getPageInfo() { return pageInfo; }
+    public void setPageInfo(PageInfo pageInfo) { this.pageInfo = pageInfo; }
+}
@@ -0,0 +1,18 @@
+package com.buyandsellstore.app.dto;
+
+public class Edge<T> {
+    private String cursor; // Opaque; pass it back as "after" to continue after this node
+    private T node;
+
+    public Edge(String cursor, T node) {
+        this.cursor = cursor;
+        this.node = node;
+    }
+
+    // Getters and Setters
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+
+    public T getNode() { return node; }
+    public void setNode(T node) { this.node = node; }
+}
@@ -0,0 +1,38 @@
+package com.buyandsellstore.app.dto;
+
+/**
+ * A seller's sales in a trailing window. The window is counted in whole slots ending with the current partial
+ * one: one-second slots up to five minutes, one-minute slots beyond that. Up to one slot at the far edge is
+ * therefore left out, i.e. a window longer than five minutes can miss up to its oldest 59 seconds.
+ */
+public class LiveSales {
+    private String window;
+    private int windowSeconds;
+    private int orders;
+    private int units;
+    private double revenue;
+
+    public LiveSales(String window, int windowSeconds, int orders, int units, double revenue) {
+        this.window = window;
+        this.windowSeconds = windowSeconds;
+        this.orders = orders;
+        this.units = units;
+        this.revenue = revenue;
+    }
+
+    // Getters and Setters
+    public String getWindow() { return window; }
+    public void setWindow(String window) { this.window = window; }
+
+    public int getWindowSeconds() { return windowSeconds; }
+    public void setWindowSeconds(int windowSeconds) { this.windowSeconds = windowSeconds; }
+
+    public int getOrders() { return orders; }
+    public void setOrders(int orders) { this.orders = orders; }
+
+    public int getUnits() { return units; }
+    public void setUnits(int units) { this.units = units; }
+
+    public double getRevenue() { return revenue; }
+    public void setRevenue(double revenue) { this.revenue = revenue; }
+}
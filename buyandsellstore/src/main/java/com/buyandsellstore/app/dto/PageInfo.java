@@ -0,0 +1,18 @@
+package com.buyandsellstore.app.dto;
+
+public class PageInfo {
+    private boolean hasNextPage;
+    private String endCursor;
+
+    public PageInfo(boolean hasNextPage, String endCursor) {
+        this.hasNextPage = hasNextPage;
+        this.endCursor = endCursor;
+    }
+
+    // Getters and Setters
+    public boolean isHasNextPage() { return hasNextPage; }
+    public void setHasNextPage(boolean hasNextPage) { this.hasNextPage = hasNextPage; }
+
+    public String getEndCursor() { return endCursor; }
+    public void setEndCursor(String endCursor) { this.endCursor = endCursor; }
+}
@@ -0,0 +1,32 @@
+package com.buyandsellstore.app.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class SellerDashboard {
+    private Map<String, Object> salesAnalytics;
+    private List<Map<String, Object>> topProducts;
+    private Map<String, Object> salesByCategory;
+    private Map<String, Object> revenueOverTime;
+
+    public SellerDashboard(Map<String, Object> salesAnalytics, List<Map<String, Object>> topProducts,
+                           Map<String, Object> salesByCategory, Map<String, Object> revenueOverTime) {
+        this.salesAnalytics = salesAnalytics;
+        this.topProducts = topProducts;
+        this.salesByCategory = salesByCategory;
+        this.revenueOverTime = revenueOverTime;
+    }
+
+    // Getters and Setters
+    public Map<String, Object> getSalesAnalytics() { return salesAnalytics; }
+    public void setSalesAnalytics(Map<String, Object> salesAnalytics) { this.salesAnalytics = salesAnalytics; }
+
+    public List<Map<String, Object>> getTopProducts() { return topProducts; }
+    public void setTopProducts(List<Map<String, Object>> topProducts) { this.topProducts = topProducts; }
+
+    public Map<String, Object> getSalesByCategory() { return salesByCategory; }
+    public void setSalesByCategory(Map<String, Object> salesByCategory) { this.salesByCategory = salesByCategory; }
+
+    public Map<String, Object> getRevenueOverTime() { return revenueOverTime; }
+    public void setRevenueOverTime(Map<String, Object> revenueOverTime) { this.revenueOverTime = revenueOverTime; }
+}
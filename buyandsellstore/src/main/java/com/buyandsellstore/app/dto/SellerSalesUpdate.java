@@ -0,0 +1,53 @@
+package com.buyandsellstore.app.dto;
+
+import com.buyandsellstore.app.model.SoldItem;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * One new order as seen by a seller: the order's lines for that seller, their units and revenue,
+ * and the seller's all-time totals after the order was applied.
+ */
+public class SellerSalesUpdate {
+    private String sellerId;
+    private String orderId;
+    private Date createdAt;
+    private List<SoldItem> items;
+    private int units;
+    private double revenue;
+    private int totalBuyers;
+    private int totalPurchases;
+    private double totalRevenue;
+
+    public SellerSalesUpdate() {
+    }
+
+    // Getters and Setters
+    public String getSellerId() { return sellerId; }
+    public void setSellerId(String sellerId) { this.sellerId = sellerId; }
+
+    public String getOrderId() { return orderId; }
+    public void setOrderId(String orderId) { this.orderId = orderId; }
+
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+
+    public List<SoldItem> getItems() { return items; }
+    public void setItems(List<SoldItem> items) { this.items = items; }
+
+    public int getUnits() { return units; }
+    public void setUnits(int units) { this.units = units; }
+
+    public double getRevenue() { return revenue; }
+    public void setRevenue(double revenue) { this.revenue = revenue; }
+
+    public int getTotalBuyers() { return totalBuyers; }
+    public void setTotalBuyers(int totalBuyers) { this.totalBuyers = totalBuyers; }
+
+    public int getTotalPurchases() { return totalPurchases; }
+    public void setTotalPurchases(int totalPurchases) { this.totalPurchases = totalPurchases; }
+
+    public double getTotalRevenue() { return totalRevenue; }
+    public void setTotalRevenue(double totalRevenue) { this.totalRevenue = totalRevenue; }
+}
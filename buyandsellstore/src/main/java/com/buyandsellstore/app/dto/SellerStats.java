@@ -8,6 +8,7 @@ public class SellerStats {
     private int totalPurchases;
     private double totalRevenue;
     private List<Book> purchasedBooks; // ✅ changed type from String to Book
+    private List<String> purchasedBookIds; // resolved into purchasedBooks only when that field is selected
 
     public SellerStats(int totalBuyers, int totalPurchases, double totalRevenue, List<Book> purchasedBooks) {
         this.totalBuyers = totalBuyers;
@@ -16,6 +17,12 @@ public class SellerStats {
         this.purchasedBooks = purchasedBooks;
     }
 
+    public SellerStats(int totalBuyers, int totalPurchases, double totalRevenue) {
+        this.totalBuyers = totalBuyers;
+        this.totalPurchases = totalPurchases;
+        this.totalRevenue = totalRevenue;
+    }
+
     // Getters and Setters
     public int getTotalBuyers() { return totalBuyers; }
     public void setTotalBuyers(int totalBuyers) { this.totalBuyers = totalBuyers; }
@@ -28,4 +35,7 @@ public class SellerStats {
 
     public List<Book> getPurchasedBooks() { return purchasedBooks; }
     public void setPurchasedBooks(List<Book> purchasedBooks) { this.purchasedBooks = purchasedBooks; }
+
+    public List<String> getPurchasedBookIds() { return purchasedBookIds; }
+    public void setPurchasedBookIds(List<String> purchasedBookIds) { this.purchasedBookIds = purchasedBookIds; }
 }
@@ -1,12 +1,13 @@
 package com.buyandsellstore.app.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.Field;
-
-import java.util.List;
 
 @Document(collection = "books")
+// Keyset pagination indexes for the catalog sort orders (price descending walks the price index backwards)
+@CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}")
+@CompoundIndex(name = "ratings_id", def = "{'ratings': -1, '_id': -1}")
 public class Book {
 
     @Id
@@ -21,8 +22,13 @@ public class Book {
     private String sellerId;
 
     private int totalQuantity;
-    @Field("reviews") // MongoDB field for embedded reviews
-    private List<Review> reviews;
+
+    // Number of stockShards sub-counters holding the stock of a hot item; 0 when totalQuantity holds it all
+    private int stockShards;
+
+    // Summary of the item's reviews, which live in the reviews collection: ratings is ratingSum / reviewCount
+    private int reviewCount;
+    private double ratingSum;
     public Book(){
 
     }
@@ -46,16 +52,6 @@ public class Book {
         this.totalQuantity = totalQuantity;
     }
 
-    public Book(String title, String author, double price, String imageUrl, String description, String sellerId, List<Review> reviews) {
-        this.title = title;
-        this.author = author;
-        this.price = price;
-        this.imageUrl = imageUrl;
-        this.description = description;
-        this.sellerId = sellerId;
-        this.reviews = reviews;
-    }
-
     // Getters and Setters for all fields, including id
     public String getId() {
         return id;
@@ -113,12 +109,20 @@ public class Book {
         this.ratings = ratings;
     }
 
-    public List<Review> getReviews() {
-        return reviews;
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(int reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public double getRatingSum() {
+        return ratingSum;
     }
 
-    public void setReviews(List<Review> reviews) {
-        this.reviews = reviews;
+    public void setRatingSum(double ratingSum) {
+        this.ratingSum = ratingSum;
     }
 
     public String getSellerId() {
@@ -137,6 +141,14 @@ public class Book {
         this.totalQuantity = totalQuantity;
     }
 
+    public int getStockShards() {
+        return stockShards;
+    }
+
+    public void setStockShards(int stockShards) {
+        this.stockShards = stockShards;
+    }
+
     public String getType() {
         return type;
     }
@@ -158,7 +170,9 @@ public class Book {
                 ", ratings=" + ratings +
                 ", sellerId='" + sellerId + '\'' +
                 ", totalQuantity=" + totalQuantity +
-                ", reviews=" + reviews +
+                ", stockShards=" + stockShards +
+                ", reviewCount=" + reviewCount +
+                ", ratingSum=" + ratingSum +
                 '}';
     }
 }
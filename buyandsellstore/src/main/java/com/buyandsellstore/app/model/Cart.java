@@ -1,6 +1,7 @@
 package com.buyandsellstore.app.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
@@ -10,6 +11,7 @@ import java.util.List;
 public class Cart {
     @Id
     private String id; // Unique ID for the cart
+    @Indexed(unique = true) // One cart per user, so a racing upsert fails instead of creating a second cart
     private String userId; // Reference to the user owning the cart
     private List<CartItem> items = new ArrayList<>(); // List of items in the cart (books, home items, etc.)
 
@@ -1,12 +1,13 @@
 package com.buyandsellstore.app.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.Field;
-
-import java.util.List;
 
 @Document(collection = "homeItems")
+// Keyset pagination indexes for the catalog sort orders (price descending walks the price index backwards)
+@CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}")
+@CompoundIndex(name = "ratings_id", def = "{'ratings': -1, '_id': -1}")
 public class HomeItem {
 
     @Id
@@ -22,8 +23,12 @@ public class HomeItem {
 
     private int totalQuantity;
 
-    @Field("reviews") // MongoDB field for embedded reviews
-    private List<Review> reviews;
+    // Number of stockShards sub-counters holding the stock of a hot item; 0 when totalQuantity holds it all
+    private int stockShards;
+
+    // Summary of the item's reviews, which live in the reviews collection: ratings is ratingSum / reviewCount
+    private int reviewCount;
+    private double ratingSum;
 
     public HomeItem() {
     }
@@ -131,12 +136,28 @@ public class HomeItem {
         this.totalQuantity = totalQuantity;
     }
 
-    public List<Review> getReviews() {
-        return reviews;
+    public int getStockShards() {
+        return stockShards;
+    }
+
+    public void setStockShards(int stockShards) {
+        this.stockShards = stockShards;
+    }
+
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(int reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public double getRatingSum() {
+        return ratingSum;
     }
 
-    public void setReviews(List<Review> reviews) {
-        this.reviews = reviews;
+    public void setRatingSum(double ratingSum) {
+        this.ratingSum = ratingSum;
     }
 
     @Override
@@ -152,7 +173,9 @@ public class HomeItem {
                 ", ratings=" + ratings +
                 ", sellerId='" + sellerId + '\'' +
                 ", totalQuantity=" + totalQuantity +
-                ", reviews=" + reviews +
+                ", stockShards=" + stockShards +
+                ", reviewCount=" + reviewCount +
+                ", ratingSum=" + ratingSum +
                 '}';
     }
 }
@@ -1,12 +1,18 @@
 package com.buyandsellstore.app.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 import java.util.List;
 
 @Document(collection = "orders")
+// Multikey index: seller-side reads touch only the orders that contain that seller's items, and seller
+// pages come back in their (createdAt, _id) keyset order without an in-memory sort
+@CompoundIndex(name = "sellerIds_createdAt_id", def = "{'sellerIds': 1, 'createdAt': -1, '_id': -1}")
+// Serves the keyset-paginated order history of a user, newest first
+@CompoundIndex(name = "userId_createdAt_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
 public class Order {
     @Id
     private String id;
@@ -18,6 +24,7 @@ public class Order {
     private Payment payment;
     private Date createdAt;
     private String sellerId;
+    private List<String> sellerIds; // Distinct sellers of the items, written when the order is created
 
 
     public Order() {
@@ -118,4 +125,12 @@ public class Order {
     public void setSellerId(String sellerId) {
         this.sellerId = sellerId;
     }
+
+    public List<String> getSellerIds() {
+        return sellerIds;
+    }
+
+    public void setSellerIds(List<String> sellerIds) {
+        this.sellerIds = sellerIds;
+    }
 }
@@ -0,0 +1,93 @@
+package com.buyandsellstore.app.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Document(collection = "reservations")
+// One hold per user and item, so repeat adds extend the same hold
+@CompoundIndex(name = "user_item", def = "{'userId': 1, 'type': 1, 'itemId': 1}", unique = true)
+public class Reservation {
+    @Id
+    private String id;
+    private String userId;
+    private String type; // "book" or "home", as on cart items
+    private String itemId;
+    private int quantity; // Units taken from the item's totalQuantity and held for this user
+    @Indexed // The reaper scans holds by expiry
+    private Date expiresAt;
+
+    public Reservation() {
+    }
+
+    public Reservation(String userId, String type, String itemId, int quantity, Date expiresAt) {
+        this.userId = userId;
+        this.type = type;
+        this.itemId = itemId;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation{" +
+                "id='" + id + '\'' +
+                ", userId='" + userId + '\'' +
+                ", type='" + type + '\'' +
+                ", itemId='" + itemId + '\'' +
+                ", quantity=" + quantity +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
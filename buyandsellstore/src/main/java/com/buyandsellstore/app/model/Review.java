@@ -1,9 +1,47 @@
 package com.buyandsellstore.app.model;
 
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Document(collection = "reviews")
+// A product's reviews, newest first by (createdAt, id), are one index range scan per page
+@CompoundIndex(name = "product_createdAt_id", def = "{'productType': 1, 'productId': 1, 'createdAt': -1, '_id': -1}")
 public class Review {
+    @Id
+    private String id;
+    private String productType; // "book" or "home", as on cart items
+    private String productId;
     private String reviewer;
     private String comment;
     private double rating;
+    private Date createdAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getProductType() {
+        return productType;
+    }
+
+    public void setProductType(String productType) {
+        this.productType = productType;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
 
     public String getReviewer() {
         return reviewer;
@@ -29,12 +67,24 @@ public class Review {
         this.rating = rating;
     }
 
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
     @Override
     public String toString() {
         return "Review{" +
-                "reviewer='" + reviewer + '\'' +
+                "id='" + id + '\'' +
+                ", productType='" + productType + '\'' +
+                ", productId='" + productId + '\'' +
+                ", reviewer='" + reviewer + '\'' +
                 ", comment='" + comment + '\'' +
                 ", rating=" + rating +
+                ", createdAt=" + createdAt +
                 '}';
     }
 }
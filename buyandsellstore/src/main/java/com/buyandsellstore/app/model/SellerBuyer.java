@@ -0,0 +1,52 @@
+package com.buyandsellstore.app.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Marks that a user has bought from a seller at least once, so SellerRollup.totalBuyers is only bumped for new buyers
+@Document(collection = "seller_rollup_buyers")
+public class SellerBuyer {
+    @Id
+    private String id; // sellerId + ":" + userId
+    @Indexed
+    private String sellerId;
+    private String userId;
+
+    public SellerBuyer() {
+    }
+
+    public SellerBuyer(String sellerId, String userId) {
+        this.id = idFor(sellerId, userId);
+        this.sellerId = sellerId;
+        this.userId = userId;
+    }
+
+    public static String idFor(String sellerId, String userId) {
+        return sellerId + ":" + userId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getSellerId() {
+        return sellerId;
+    }
+
+    public void setSellerId(String sellerId) {
+        this.sellerId = sellerId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+}
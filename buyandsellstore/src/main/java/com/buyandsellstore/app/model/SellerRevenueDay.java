@@ -0,0 +1,110 @@
+package com.buyandsellstore.app.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Revenue of one seller on one calendar day; weekly/monthly series are summed from these buckets
+@Document(collection = "seller_revenue_days")
+@CompoundIndex(name = "seller_day", def = "{'sellerId': 1, 'day': 1}")
+public class SellerRevenueDay {
+    @Id
+    private String id; // sellerId + ":" + day
+    private String sellerId;
+    private String day; // ISO date (yyyy-MM-dd), so buckets sort and range-match as strings
+    private double revenue;
+    private int units;
+    private int orders;
+    private Map<String, Integer> buyerSketch = new HashMap<>(); // HyperLogLog registers of the day's buyers, index -> value
+    private Map<String, Long> orderValueSketch = new HashMap<>(); // QuantileSketch of the seller's revenue per order, bucket -> count
+    private Map<String, Long> basketSizeSketch = new HashMap<>(); // QuantileSketch of the seller's units per order, bucket -> count
+
+    public SellerRevenueDay() {
+    }
+
+    public SellerRevenueDay(String sellerId, String day, double revenue) {
+        this.id = idFor(sellerId, day);
+        this.sellerId = sellerId;
+        this.day = day;
+        this.revenue = revenue;
+    }
+
+    public static String idFor(String sellerId, String day) {
+        return sellerId + ":" + day;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getSellerId() {
+        return sellerId;
+    }
+
+    public void setSellerId(String sellerId) {
+        this.sellerId = sellerId;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+
+    public int getUnits() {
+        return units;
+    }
+
+    public void setUnits(int units) {
+        this.units = units;
+    }
+
+    public int getOrders() {
+        return orders;
+    }
+
+    public void setOrders(int orders) {
+        this.orders = orders;
+    }
+
+    public Map<String, Integer> getBuyerSketch() {
+        return buyerSketch;
+    }
+
+    public void setBuyerSketch(Map<String, Integer> buyerSketch) {
+        this.buyerSketch = buyerSketch;
+    }
+
+    public Map<String, Long> getOrderValueSketch() {
+        return orderValueSketch;
+    }
+
+    public void setOrderValueSketch(Map<String, Long> orderValueSketch) {
+        this.orderValueSketch = orderValueSketch;
+    }
+
+    public Map<String, Long> getBasketSizeSketch() {
+        return basketSizeSketch;
+    }
+
+    public void setBasketSizeSketch(Map<String, Long> basketSizeSketch) {
+        this.basketSizeSketch = basketSizeSketch;
+    }
+}
@@ -0,0 +1,159 @@
+package com.buyandsellstore.app.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+// All-time sales totals for one seller, kept up to date by OrderService.createOrder
+@Document(collection = "seller_rollups")
+public class SellerRollup {
+    @Id
+    private String id; // The seller id
+    private int totalBuyers;
+    private int totalPurchases;
+    private double totalRevenue;
+    private Map<String, ItemTotals> items = new HashMap<>(); // Keyed by itemId
+    private Map<String, CategoryTotals> categories = new HashMap<>(); // Keyed by category name ("books", "home")
+    private Date updatedAt;
+
+    public SellerRollup() {
+    }
+
+    public SellerRollup(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public int getTotalBuyers() {
+        return totalBuyers;
+    }
+
+    public void setTotalBuyers(int totalBuyers) {
+        this.totalBuyers = totalBuyers;
+    }
+
+    public int getTotalPurchases() {
+        return totalPurchases;
+    }
+
+    public void setTotalPurchases(int totalPurchases) {
+        this.totalPurchases = totalPurchases;
+    }
+
+    public double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public void setTotalRevenue(double totalRevenue) {
+        this.totalRevenue = totalRevenue;
+    }
+
+    public Map<String, ItemTotals> getItems() {
+        return items;
+    }
+
+    public void setItems(Map<String, ItemTotals> items) {
+        this.items = items;
+    }
+
+    public Map<String, CategoryTotals> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<String, CategoryTotals> categories) {
+        this.categories = categories;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public static class ItemTotals {
+        private String name;
+        private String type;
+        private String imageUrl;
+        private int quantity;
+        private double revenue;
+
+        public ItemTotals() {
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getImageUrl() {
+            return imageUrl;
+        }
+
+        public void setImageUrl(String imageUrl) {
+            this.imageUrl = imageUrl;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        public double getRevenue() {
+            return revenue;
+        }
+
+        public void setRevenue(double revenue) {
+            this.revenue = revenue;
+        }
+    }
+
+    public static class CategoryTotals {
+        private int count;
+        private double revenue;
+
+        public CategoryTotals() {
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public double getRevenue() {
+            return revenue;
+        }
+
+        public void setRevenue(double revenue) {
+            this.revenue = revenue;
+        }
+    }
+}
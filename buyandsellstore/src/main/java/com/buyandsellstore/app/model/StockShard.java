@@ -0,0 +1,68 @@
+package com.buyandsellstore.app.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "stockShards")
+// All shards of one item, fullest first when a take falls through or gathers, and for the summed display read
+@CompoundIndex(name = "type_itemId", def = "{'type': 1, 'itemId': 1}")
+public class StockShard {
+    @Id
+    private String id; // "type:itemId:shard"
+    private String type; // "book" or "home", as on cart items
+    private String itemId;
+    private int shard;
+    private int quantity;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(int shard) {
+        this.shard = shard;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    @Override
+    public String toString() {
+        return "StockShard{" +
+                "id='" + id + '\'' +
+                ", type='" + type + '\'' +
+                ", itemId='" + itemId + '\'' +
+                ", shard=" + shard +
+                ", quantity=" + quantity +
+                '}';
+    }
+}
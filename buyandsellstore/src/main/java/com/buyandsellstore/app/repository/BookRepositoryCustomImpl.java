@@ -0,0 +1,28 @@
+package com.buyandsellstore.app.repository;
+
+import com.buyandsellstore.app.model.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Book> findPage(CatalogSort sort, Double sortValue, String id, int limit) {
+        return CatalogPageQuery.findPage(mongoTemplate, Book.class, sort, sortValue, id, limit);
+    }
+
+    @Override
+    public Book decrementStock(String id, int quantity) {
+        return CatalogStockUpdate.decrementStock(mongoTemplate, Book.class, id, quantity);
+    }
+
+    @Override
+    public Book incrementStock(String id, int quantity) {
+        return CatalogStockUpdate.incrementStock(mongoTemplate, Book.class, id, quantity);
+    }
+}
@@ -0,0 +1,21 @@
+package com.buyandsellstore.app.repository;
+
+import com.buyandsellstore.app.model.CartItem;
+
+// Single-statement changes to one line of a user's cart; lines are matched on exact (type, itemId)
+public interface CartRepositoryCustom {
+    // $inc the line's quantity by one; false when the cart has no such line
+    boolean incrementQuantity(String userId, String type, String itemId);
+
+    // $push the item as a new line, creating the cart if needed; false when the line already exists
+    boolean pushItem(String userId, CartItem item);
+
+    // Takes one off the line's quantity while more than one is left; false otherwise
+    boolean decrementQuantity(String userId, String type, String itemId);
+
+    // $pull the line; false when the cart has no such line
+    boolean pullItem(String userId, String type, String itemId);
+
+    // Deletes the user's cart if it has no lines left
+    boolean deleteIfEmpty(String userId);
+}
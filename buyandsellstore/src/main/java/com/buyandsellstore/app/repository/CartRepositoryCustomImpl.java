@@ -0,0 +1,61 @@
+package com.buyandsellstore.app.repository;
+
+import com.buyandsellstore.app.model.Cart;
+import com.buyandsellstore.app.model.CartItem;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class CartRepositoryCustomImpl implements CartRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean incrementQuantity(String userId, String type, String itemId) {
+        Query line = query(where("userId").is(userId).and("items").elemMatch(item(type, itemId)));
+        return mongoTemplate.updateFirst(line, new Update().inc("items.$.quantity", 1), Cart.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean pushItem(String userId, CartItem item) {
+        // Matches the user's cart only while it lacks the line; with no match the upsert creates the cart, and
+        // the unique userId index turns that into a duplicate key error when the cart exists with the line
+        Query withoutLine = query(where("userId").is(userId).and("items").not().elemMatch(item(item.getType(), item.getItemId())));
+        try {
+            mongoTemplate.upsert(withoutLine, new Update().push("items", item), Cart.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean decrementQuantity(String userId, String type, String itemId) {
+        Query line = query(where("userId").is(userId).and("items").elemMatch(item(type, itemId).and("quantity").gt(1)));
+        return mongoTemplate.updateFirst(line, new Update().inc("items.$.quantity", -1), Cart.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean pullItem(String userId, String type, String itemId) {
+        Query line = query(where("userId").is(userId).and("items").elemMatch(item(type, itemId)));
+        Update pull = new Update().pull("items", new Document("itemId", itemId).append("type", type));
+        return mongoTemplate.updateFirst(line, pull, Cart.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean deleteIfEmpty(String userId) {
+        return mongoTemplate.remove(query(where("userId").is(userId).and("items").size(0)), Cart.class).getDeletedCount() > 0;
+    }
+
+    private static Criteria item(String type, String itemId) {
+        return where("itemId").is(itemId).and("type").is(type);
+    }
+}
@@ -0,0 +1,21 @@
+package com.buyandsellstore.app.repository;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+// Keyset page of a catalog collection, shared by the book and home item repositories
+final class CatalogPageQuery {
+
+    private CatalogPageQuery() {
+    }
+
+    static <T> List<T> findPage(MongoTemplate mongoTemplate, Class<T> type, CatalogSort sort,
+                                Double sortValue, String id, int limit) {
+        Query query = id != null ? Query.query(sort.after(sortValue != null ? sortValue : 0.0, id)) : new Query(new Criteria());
+        query.with(sort.toSort()).limit(limit);
+        return mongoTemplate.find(query, type);
+    }
+}
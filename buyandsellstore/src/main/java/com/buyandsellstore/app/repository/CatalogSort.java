@@ -0,0 +1,46 @@
+package com.buyandsellstore.app.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Orders a catalog listing can be paged in. Each is a (field, _id) key with _id as the tie-breaker,
+ * backed by the matching compound index on books and homeItems; NEWEST is _id alone, since ObjectIds
+ * increase with creation time.
+ */
+public enum CatalogSort {
+    NEWEST(null, Sort.Direction.DESC),
+    PRICE_ASC("price", Sort.Direction.ASC),
+    PRICE_DESC("price", Sort.Direction.DESC),
+    RATINGS("ratings", Sort.Direction.DESC);
+
+    private final String field;
+    private final Sort.Direction direction;
+
+    CatalogSort(String field, Sort.Direction direction) {
+        this.field = field;
+        this.direction = direction;
+    }
+
+    // The sort key value of an item with this price and rating (0 for NEWEST, which sorts on _id only)
+    public double sortValue(double price, double ratings) {
+        if (field == null) return 0.0;
+        return "price".equals(field) ? price : ratings;
+    }
+
+    Sort toSort() {
+        return field == null ? Sort.by(direction, "_id") : Sort.by(direction, field, "_id");
+    }
+
+    // Everything strictly after (sortValue, id) in this order
+    Criteria after(double sortValue, String id) {
+        boolean ascending = direction == Sort.Direction.ASC;
+        Criteria idAfter = ascending ? Criteria.where("_id").gt(id) : Criteria.where("_id").lt(id);
+        if (field == null) {
+            return idAfter;
+        }
+        Criteria valueAfter = ascending ? Criteria.where(field).gt(sortValue) : Criteria.where(field).lt(sortValue);
+        Criteria sameValue = new Criteria().andOperator(Criteria.where(field).is(sortValue), idAfter);
+        return new Criteria().orOperator(valueAfter, sameValue);
+    }
+}
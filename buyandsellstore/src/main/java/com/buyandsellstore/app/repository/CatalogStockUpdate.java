@@ -0,0 +1,29 @@
+package com.buyandsellstore.app.repository;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// Single-statement stock changes on a catalog collection, shared by the book and home item repositories
+final class CatalogStockUpdate {
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private CatalogStockUpdate() {
+    }
+
+    // Takes quantity units only while at least that many are left; the updated item, or null when missing or short
+    static <T> T decrementStock(MongoTemplate mongoTemplate, Class<T> type, String id, int quantity) {
+        return mongoTemplate.findAndModify(query(where("_id").is(id).and("totalQuantity").gte(quantity)),
+                new Update().inc("totalQuantity", -quantity), RETURN_NEW, type);
+    }
+
+    // The updated item, or null when missing
+    static <T> T incrementStock(MongoTemplate mongoTemplate, Class<T> type, String id, int quantity) {
+        return mongoTemplate.findAndModify(query(where("_id").is(id)),
+                new Update().inc("totalQuantity", quantity), RETURN_NEW, type);
+    }
+}
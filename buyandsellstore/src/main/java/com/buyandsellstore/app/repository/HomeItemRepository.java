@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface HomeItemRepository extends MongoRepository<HomeItem, String> {
+public interface HomeItemRepository extends MongoRepository<HomeItem, String>, HomeItemRepositoryCustom {
 
     HomeItem findByType(String type);
     HomeItem findByManufacturer(String manufacturer);
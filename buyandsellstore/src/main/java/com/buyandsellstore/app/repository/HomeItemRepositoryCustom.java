@@ -0,0 +1,16 @@
+package com.buyandsellstore.app.repository;
+
+import com.buyandsellstore.app.model.HomeItem;
+
+import java.util.List;
+
+public interface HomeItemRepositoryCustom {
+    // Up to limit items in the given order, starting right after (sortValue, id) when id is set.
+    List<HomeItem> findPage(CatalogSort sort, Double sortValue, String id, int limit);
+
+    // Atomically takes quantity units of stock if that many are left; the updated item, or null when missing or short.
+    HomeItem decrementStock(String id, int quantity);
+
+    // Atomically adds quantity units of stock; the updated item, or null when missing.
+    HomeItem incrementStock(String id, int quantity);
+}
@@ -0,0 +1,28 @@
+package com.buyandsellstore.app.repository;
+
+import com.buyandsellstore.app.model.HomeItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+public class HomeItemRepositoryCustomImpl implements HomeItemRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<HomeItem> findPage(CatalogSort sort, Double sortValue, String id, int limit) {
+        return CatalogPageQuery.findPage(mongoTemplate, HomeItem.class, sort, sortValue, id, limit);
+    }
+
+    @Override
+    public HomeItem decrementStock(String id, int quantity) {
+        return CatalogStockUpdate.decrementStock(mongoTemplate, HomeItem.class, id, quantity);
+    }
+
+    @Override
+    public HomeItem incrementStock(String id, int quantity) {
+        return CatalogStockUpdate.incrementStock(mongoTemplate, HomeItem.class, id, quantity);
+    }
+}
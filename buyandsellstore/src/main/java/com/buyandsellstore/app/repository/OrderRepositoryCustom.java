@@ -0,0 +1,28 @@
+package com.buyandsellstore.app.repository;
+
+import com.buyandsellstore.app.model.Order;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface OrderRepositoryCustom {
+    // Streams the seller's orders (optionally only those created after createdAfter) one at a time through a
+    // database cursor. Each order carries only userId, createdAt and the seller's own items.
+    default void forEachSellerOrder(String sellerId, Date createdAfter, Consumer<Order> consumer) {
+        forEachSellerOrder(sellerId, createdAfter, null, consumer);
+    }
+
+    // Same, limited to createdAfter < createdAt <= createdUntil (either bound may be null for open-ended)
+    void forEachSellerOrder(String sellerId, Date createdAfter, Date createdUntil, Consumer<Order> consumer);
+
+    // Up to limit of the seller's orders, newest first by (createdAt, id), carrying only the seller's own items.
+    // With a key, starts right after it, or at it when includeKey is set.
+    List<Order> findSellerOrdersPage(String sellerId, Date createdAt, String orderId, boolean includeKey, int limit);
+
+    // Up to limit of the user's orders, newest first by (createdAt, id), starting right after the key if given
+    List<Order> findUserOrdersPage(String userId, Date createdAt, String orderId, int limit);
+
+    // Fills in sellerIds on orders written before the field existed; returns how many were updated
+    long backfillSellerIds();
+}
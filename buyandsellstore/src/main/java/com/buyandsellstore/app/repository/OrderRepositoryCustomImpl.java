@@ -0,0 +1,104 @@
+package com.buyandsellstore.app.repository;
+
+import com.buyandsellstore.app.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    // Orders pulled per cursor round-trip; memory stays bounded by this batch, not by the collection size
+    private static final int CURSOR_BATCH_SIZE = 500;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id"));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void forEachSellerOrder(String sellerId, Date createdAfter, Date createdUntil, Consumer<Order> consumer) {
+        Criteria criteria = Criteria.where("sellerIds").is(sellerId);
+        if (createdAfter != null || createdUntil != null) {
+            Criteria createdAt = criteria.and("createdAt");
+            if (createdAfter != null) createdAt.gt(createdAfter);
+            if (createdUntil != null) createdAt.lte(createdUntil);
+        }
+
+        Aggregation aggregation = newAggregation(
+                match(criteria),
+                project("userId", "createdAt")
+                        .and(ArrayOperators.Filter.filter("items").as("item")
+                                .by(ComparisonOperators.valueOf("item.sellerId").equalToValue(sellerId)))
+                        .as("items"))
+                .withOptions(AggregationOptions.builder().cursorBatchSize(CURSOR_BATCH_SIZE).build());
+
+        try (Stream<Order> orders = mongoTemplate.aggregateStream(aggregation, Order.class, Order.class)) {
+            orders.forEach(consumer);
+        }
+    }
+
+    @Override
+    public List<Order> findSellerOrdersPage(String sellerId, Date createdAt, String orderId, boolean includeKey, int limit) {
+        Criteria criteria = Criteria.where("sellerIds").is(sellerId);
+        if (createdAt != null) {
+            criteria = new Criteria().andOperator(criteria, startingAt(createdAt, orderId, includeKey));
+        }
+
+        Aggregation aggregation = newAggregation(
+                match(criteria),
+                sort(NEWEST_FIRST),
+                limit(limit),
+                project("userId", "createdAt")
+                        .and(ArrayOperators.Filter.filter("items").as("item")
+                                .by(ComparisonOperators.valueOf("item.sellerId").equalToValue(sellerId)))
+                        .as("items"));
+        return mongoTemplate.aggregate(aggregation, Order.class, Order.class).getMappedResults();
+    }
+
+    @Override
+    public List<Order> findUserOrdersPage(String userId, Date createdAt, String orderId, int limit) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (createdAt != null) {
+            criteria = new Criteria().andOperator(criteria, startingAt(createdAt, orderId, false));
+        }
+        return mongoTemplate.find(query(criteria).with(NEWEST_FIRST).limit(limit), Order.class);
+    }
+
+    // Range condition on the (createdAt, _id) descending key, so pages are index range scans rather than skips
+    private Criteria startingAt(Date createdAt, String orderId, boolean includeKey) {
+        Criteria sameTime = Criteria.where("createdAt").is(createdAt);
+        sameTime = includeKey ? sameTime.and("_id").lte(orderId) : sameTime.and("_id").lt(orderId);
+        return new Criteria().orOperator(Criteria.where("createdAt").lt(createdAt), sameTime);
+    }
+
+    @Override
+    public long backfillSellerIds() {
+        // Pipeline update, so the distinct non-null items.sellerId values are computed server-side
+        AggregationExpression distinctSellerIds = context -> new Document("$setUnion", List.of(
+                new Document("$filter", new Document("input", "$items.sellerId")
+                        .append("as", "sellerId")
+                        .append("cond", new Document("$ne", Arrays.asList("$$sellerId", null))))));
+        AggregationUpdate update = AggregationUpdate.update().set("sellerIds").toValue(distinctSellerIds);
+
+        return mongoTemplate.updateMulti(query(where("sellerIds").exists(false)), update, Order.class)
+                .getModifiedCount();
+    }
+}
@@ -0,0 +1,10 @@
+package com.buyandsellstore.app.repository;
+
+import com.buyandsellstore.app.model.Reservation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReservationRepository extends MongoRepository<Reservation, String>, ReservationRepositoryCustom {
+    Reservation findByUserIdAndTypeAndItemId(String userId, String type, String itemId);
+}
@@ -0,0 +1,24 @@
+package com.buyandsellstore.app.repository;
+
+import com.buyandsellstore.app.model.Reservation;
+
+import java.util.Date;
+import java.util.List;
+
+// Single-statement changes to inventory holds; holds are matched on exact (userId, type, itemId)
+public interface ReservationRepositoryCustom {
+    // Adds quantity units to the user's hold on the item, creating it if needed, and moves its expiry to expiresAt
+    void hold(String userId, String type, String itemId, int quantity, Date expiresAt);
+
+    // Takes one unit off the user's hold while it has one and has not expired at now; false otherwise
+    boolean releaseOne(String userId, String type, String itemId, Date now);
+
+    // Removes and returns the user's hold on the item, expired or not; null when there is none
+    Reservation claim(String userId, String type, String itemId);
+
+    // Up to limit holds that expired before now, oldest expiry first
+    List<Reservation> findExpired(Date now, int limit);
+
+    // Removes and returns the hold if it is still expired at now; null when it was claimed or extended meanwhile
+    Reservation claimExpired(String id, Date now);
+}
@@ -0,0 +1,54 @@
+package com.buyandsellstore.app.repository;
+
+import com.buyandsellstore.app.model.Reservation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class ReservationRepositoryCustomImpl implements ReservationRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void hold(String userId, String type, String itemId, int quantity, Date expiresAt) {
+        // Equality on every field of the unique user_item index, so the server retries a racing upsert itself
+        mongoTemplate.upsert(query(holdOf(userId, type, itemId)),
+                new Update().inc("quantity", quantity).set("expiresAt", expiresAt), Reservation.class);
+    }
+
+    @Override
+    public boolean releaseOne(String userId, String type, String itemId, Date now) {
+        Query live = query(holdOf(userId, type, itemId).and("quantity").gt(0).and("expiresAt").gt(now));
+        return mongoTemplate.updateFirst(live, new Update().inc("quantity", -1), Reservation.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public Reservation claim(String userId, String type, String itemId) {
+        return mongoTemplate.findAndRemove(query(holdOf(userId, type, itemId)), Reservation.class);
+    }
+
+    @Override
+    public List<Reservation> findExpired(Date now, int limit) {
+        Query expired = query(where("expiresAt").lte(now)).with(Sort.by("expiresAt")).limit(limit);
+        return mongoTemplate.find(expired, Reservation.class);
+    }
+
+    @Override
+    public Reservation claimExpired(String id, Date now) {
+        return mongoTemplate.findAndRemove(query(where("_id").is(id).and("expiresAt").lte(now)), Reservation.class);
+    }
+
+    private static Criteria holdOf(String userId, String type, String itemId) {
+        return where("userId").is(userId).and("type").is(type).and("itemId").is(itemId);
+    }
+}
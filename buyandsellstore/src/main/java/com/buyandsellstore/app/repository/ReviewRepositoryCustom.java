@@ -0,0 +1,11 @@
+package com.buyandsellstore.app.repository;
+
+import com.buyandsellstore.app.model.Review;
+
+import java.util.Date;
+import java.util.List;
+
+public interface ReviewRepositoryCustom {
+    // Up to limit of a product's reviews, newest first by (createdAt, id), starting right after the key if given
+    List<Review> findProductReviewsPage(String productType, String productId, Date createdAt, String reviewId, int limit);
+}
@@ -0,0 +1,32 @@
+package com.buyandsellstore.app.repository;
+
+import com.buyandsellstore.app.model.Review;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class ReviewRepositoryCustomImpl implements ReviewRepositoryCustom {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id"));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Review> findProductReviewsPage(String productType, String productId, Date createdAt, String reviewId, int limit) {
+        Criteria criteria = Criteria.where("productType").is(productType).and("productId").is(productId);
+        if (createdAt != null) {
+            // Range condition on the (createdAt, _id) descending key, so pages are index range scans rather than skips
+            Criteria sameTime = Criteria.where("createdAt").is(createdAt).and("_id").lt(reviewId);
+            criteria = new Criteria().andOperator(criteria,
+                    new Criteria().orOperator(Criteria.where("createdAt").lt(createdAt), sameTime));
+        }
+        return mongoTemplate.find(query(criteria).with(NEWEST_FIRST).limit(limit), Review.class);
+    }
+}
@@ -1,17 +1,21 @@
 package com.buyandsellstore.app.resolver;
 
+import com.buyandsellstore.app.dto.Connection;
 import com.buyandsellstore.app.dto.UploadBookResponse;
 import com.buyandsellstore.app.model.Book;
 import com.buyandsellstore.app.repository.BookRepository;
 import com.buyandsellstore.app.model.Review;
+import com.buyandsellstore.app.repository.CatalogSort;
 import com.buyandsellstore.app.service.BookService;
+import com.buyandsellstore.app.service.ReviewService;
+import com.buyandsellstore.app.service.StockShardService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Controller
@@ -20,12 +24,38 @@ public class BookResolver {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private StockShardService stockShardService;
+
     // Queries
     @QueryMapping
     public List<Book> books() {
         return bookService.getAllBooks();
     }
 
+    // Keyset-paginated books
+    @QueryMapping
+    public Connection<Book> booksConnection(@Argument Integer first, @Argument String after, @Argument CatalogSort sortBy) {
+        return bookService.getBooksConnection(first, after, sortBy);
+    }
+
+    // Reviews are paged from the reviews collection, and only when the query selects them
+    @SchemaMapping(typeName = "Book", field = "reviews")
+    public Connection<Review> reviews(Book book, @Argument Integer first, @Argument String after) {
+        return reviewService.getReviews(ReviewService.BOOK, book.getId(), first, after);
+    }
+
+    // A hot item's stock lives in its shards, so its displayed stock is their sum
+    @SchemaMapping(typeName = "Book", field = "totalQuantity")
+    public int totalQuantity(Book book) {
+        return book.getStockShards() > 0
+                ? book.getTotalQuantity() + stockShardService.available(StockShardService.BOOK, book.getId())
+                : book.getTotalQuantity();
+    }
+
     @QueryMapping
     public Book book(@Argument String id) {
         return bookService.getBookById(id);
@@ -65,7 +95,6 @@ public class BookResolver {
         }
 
         Book book = new Book(title, author, price, imageUrl, description, sellerId, totalQuantity);
-        book.setReviews(new ArrayList<>());
         return new UploadBookResponse(true, "Upload successful!", bookService.save(book));
     }
 }
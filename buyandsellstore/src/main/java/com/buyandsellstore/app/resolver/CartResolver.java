@@ -1,12 +1,12 @@
 package com.buyandsellstore.app.resolver;
 
 import com.buyandsellstore.app.dto.ResponseMessage;
-import com.buyandsellstore.app.model.Book;
 import com.buyandsellstore.app.model.CartItem;
-import com.buyandsellstore.app.model.HomeItem;
 import com.buyandsellstore.app.service.BookService;
 import com.buyandsellstore.app.service.CartService;
 import com.buyandsellstore.app.service.HomeItemService;
+import com.buyandsellstore.app.service.ReservationService;
+import com.buyandsellstore.app.service.StockShardService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
@@ -26,6 +26,12 @@ public class CartResolver {
     @Autowired
     private HomeItemService homeItemService;
 
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private StockShardService stockShardService;
+
     @QueryMapping(name = "cartItems")
     public List<CartItem> getCartItems(@Argument(name = "id") String userId) {
         // Retrieve cart items for the user
@@ -47,34 +53,56 @@ public class CartResolver {
         }
         switch (type.toLowerCase()) {
             case "book":
-                Book book = bookService.getBookById(itemId);
-                if (book == null) {
-                    return new ResponseMessage(false, "Book not found.");
-                }
-                if (book.getTotalQuantity() <= 0) {
-                    return new ResponseMessage(false, "Item not available anymore!");
+                // The stock check and decrement are one update, so concurrent buyers cannot both take the last unit
+                if (bookService.takeStock(itemId) == null) {
+                    return bookService.getBookForUpdate(itemId) == null
+                            ? new ResponseMessage(false, "Book not found.")
+                            : new ResponseMessage(false, "Item not available anymore!");
                 }
-                cartService.addToCart(userId, itemId, type);
-                book.setTotalQuantity(book.getTotalQuantity() - 1);
-                bookService.save(book);
-                return new ResponseMessage(true, "Book added to the cart!");
+                return holdAndAdd(userId, itemId, type, "Book added to the cart!");
             case "home":
-                HomeItem homeItem = homeItemService.getHomeItemById(itemId);
-                if (homeItem == null) {
-                    return new ResponseMessage(false, "Home item not found.");
+                if (homeItemService.takeStock(itemId) == null) {
+                    return homeItemService.getHomeItemForUpdate(itemId) == null
+                            ? new ResponseMessage(false, "Home item not found.")
+                            : new ResponseMessage(false, "Item not available anymore!");
                 }
-                if (homeItem.getTotalQuantity() <= 0) {
-                    return new ResponseMessage(false, "Item not available anymore!");
-                }
-                cartService.addToCart(userId, itemId, type);
-                homeItem.setTotalQuantity(homeItem.getTotalQuantity() - 1);
-                homeItemService.save(homeItem);
-                return new ResponseMessage(true, "Home item added to the cart!");
+                return holdAndAdd(userId, itemId, type, "Home item added to the cart!");
             default:
                 return new ResponseMessage(false, "Unsupported item type: " + type);
         }
     }
 
+    // Holds the unit just taken and adds it to the cart; when the cart update fails the unit goes back to stock
+    private ResponseMessage holdAndAdd(String userId, String itemId, String type, String addedMessage) {
+        reservationService.hold(userId, type, itemId);
+        ResponseMessage added = cartService.addToCart(userId, itemId, type);
+        if (added == null || !added.isSuccess()) {
+            reservationService.release(userId, type, itemId);
+            return new ResponseMessage(false, added != null ? added.getMessage() : "Failed to add item to cart.");
+        }
+        return new ResponseMessage(true, addedMessage);
+    }
+
+    // Opt-in sharded stock for a hot item: shards sub-counters, or 0 to keep it all in totalQuantity again
+    @MutationMapping
+    public ResponseMessage setStockShards(
+            @Argument String type,
+            @Argument String itemId,
+            @Argument int shards
+    ) {
+        String itemType = type == null ? "" : type.toLowerCase();
+        if (!itemType.equals(StockShardService.BOOK) && !itemType.equals(StockShardService.HOME_ITEM)) {
+            return new ResponseMessage(false, "Unsupported item type: " + type);
+        }
+        if (shards < 0 || shards > StockShardService.MAX_SHARDS) {
+            return new ResponseMessage(false, "Shards must be between 0 and " + StockShardService.MAX_SHARDS + ".");
+        }
+        if (!stockShardService.setShards(itemType, itemId, shards)) {
+            return new ResponseMessage(false, "Item not found.");
+        }
+        return new ResponseMessage(true, shards > 0 ? "Stock split over " + shards + " shards." : "Stock unsharded.");
+    }
+
 //    @MutationMapping
 //    public ResponseMessage removeFromCart(
 //            @Argument String userId,
@@ -102,19 +130,12 @@ public class CartResolver {
 
         switch (type.toLowerCase()) {
             case "book":
-                Book book = bookService.getBookById(itemId);
-                if (book != null) {
-                    book.setTotalQuantity(book.getTotalQuantity() + 1);
-                    bookService.save(book);
-                }
+                // Only a live hold goes back here; an expired one is given back by the reaper
+                reservationService.release(userId, type, itemId);
                 return new ResponseMessage(true, "Book removed from cart!.");
 
             case "home":
-                HomeItem homeItem = homeItemService.getHomeItemById(itemId);
-                if (homeItem != null) {
-                    homeItem.setTotalQuantity(homeItem.getTotalQuantity() + 1);
-                    homeItemService.save(homeItem);
-                }
+                reservationService.release(userId, type, itemId);
                 return new ResponseMessage(true, "Home item removed from cart!");
 
             default:
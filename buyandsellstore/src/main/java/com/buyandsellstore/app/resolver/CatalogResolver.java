@@ -0,0 +1,35 @@
+package com.buyandsellstore.app.resolver;
+
+import com.buyandsellstore.app.dto.CatalogFilter;
+import com.buyandsellstore.app.dto.Connection;
+import com.buyandsellstore.app.service.CatalogSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.Map;
+
+@Controller
+public class CatalogResolver {
+
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+
+    @QueryMapping
+    public Connection<Object> searchCatalog(@Argument String query, @Argument String type, @Argument Integer first,
+                                            @Argument String after) {
+        return catalogSearchService.searchCatalog(query, type, first, after);
+    }
+
+    @QueryMapping
+    public Map<String, Object> catalogFacets(@Argument CatalogFilter filter) {
+        return catalogSearchService.getCatalogFacets(filter);
+    }
+
+    @QueryMapping
+    public Connection<Object> filterCatalog(@Argument CatalogFilter filter, @Argument Integer first,
+                                            @Argument String after) {
+        return catalogSearchService.filterCatalog(filter, first, after);
+    }
+}
@@ -1,16 +1,20 @@
 package com.buyandsellstore.app.resolver;
 
+import com.buyandsellstore.app.dto.Connection;
 import com.buyandsellstore.app.dto.UploadHomeItemResponse;
 import com.buyandsellstore.app.model.HomeItem;
 import com.buyandsellstore.app.model.Review;
+import com.buyandsellstore.app.repository.CatalogSort;
 import com.buyandsellstore.app.service.HomeItemService;
+import com.buyandsellstore.app.service.ReviewService;
+import com.buyandsellstore.app.service.StockShardService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Controller
@@ -19,6 +23,12 @@ public class HomeItemResolver {
     @Autowired
     private HomeItemService homeItemService;
 
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private StockShardService stockShardService;
+
     @MutationMapping
     public UploadHomeItemResponse uploadHomeItem(
             @Argument String title,
@@ -43,7 +53,6 @@ public class HomeItemResolver {
         }
 
         HomeItem homeItem = new HomeItem(title, type, description, price, imageUrl, manufacturer, sellerId, totalQuantity);
-        homeItem.setReviews(new ArrayList<>());
         return new UploadHomeItemResponse(true, "Upload successful", homeItemService.save(homeItem));
     }
 
@@ -52,6 +61,26 @@ public class HomeItemResolver {
         return homeItemService.getAllHomeItems();
     }
 
+    // Keyset-paginated homeItems
+    @QueryMapping
+    public Connection<HomeItem> homeItemsConnection(@Argument Integer first, @Argument String after, @Argument CatalogSort sortBy) {
+        return homeItemService.getHomeItemsConnection(first, after, sortBy);
+    }
+
+    // Reviews are paged from the reviews collection, and only when the query selects them
+    @SchemaMapping(typeName = "HomeItem", field = "reviews")
+    public Connection<Review> reviews(HomeItem homeItem, @Argument Integer first, @Argument String after) {
+        return reviewService.getReviews(ReviewService.HOME_ITEM, homeItem.getId(), first, after);
+    }
+
+    // A hot item's stock lives in its shards, so its displayed stock is their sum
+    @SchemaMapping(typeName = "HomeItem", field = "totalQuantity")
+    public int totalQuantity(HomeItem homeItem) {
+        return homeItem.getStockShards() > 0
+                ? homeItem.getTotalQuantity() + stockShardService.available(StockShardService.HOME_ITEM, homeItem.getId())
+                : homeItem.getTotalQuantity();
+    }
+
     @QueryMapping
     public HomeItem homeItem(@Argument String id) {
         return homeItemService.getHomeItemById(id);
@@ -1,5 +1,6 @@
 package com.buyandsellstore.app.resolver;
 
+import com.buyandsellstore.app.dto.Connection;
 import com.buyandsellstore.app.dto.OrderResponse;
 import com.buyandsellstore.app.model.*;
 import com.buyandsellstore.app.service.OrderService;
@@ -39,4 +40,14 @@ public class OrderResolver {
         return orderService.getSoldItemsBySellerId(sellerId);
     }
 
+    @QueryMapping
+    public Connection<Order> ordersConnection(@Argument String userId, @Argument Integer first, @Argument String after) {
+        return orderService.getOrdersConnection(userId, first, after);
+    }
+
+    @QueryMapping
+    public Connection<SoldItem> soldItemsConnection(@Argument String sellerId, @Argument Integer first, @Argument String after) {
+        return orderService.getSoldItemsConnection(sellerId, first, after);
+    }
+
 }
@@ -1,73 +1,130 @@
 package com.buyandsellstore.app.resolver;
 
+import com.buyandsellstore.app.dto.LiveSales;
+import com.buyandsellstore.app.dto.SellerDashboard;
+import com.buyandsellstore.app.dto.SellerSalesUpdate;
 import com.buyandsellstore.app.dto.SellerStats;
 import com.buyandsellstore.app.model.Book;
-import com.buyandsellstore.app.model.CartItem;
-import com.buyandsellstore.app.model.HomeItem;
-import com.buyandsellstore.app.model.Order;
-import com.buyandsellstore.app.model.SoldItem;
+import com.buyandsellstore.app.model.SellerRollup;
 import com.buyandsellstore.app.repository.BookRepository;
-import com.buyandsellstore.app.repository.HomeItemRepository;
-import com.buyandsellstore.app.repository.OrderRepository;
 import com.buyandsellstore.app.service.SellerAnalyticsService;
+import com.buyandsellstore.app.service.SellerLiveSalesService;
+import com.buyandsellstore.app.service.SellerRollupService;
+import com.buyandsellstore.app.service.SellerSalesAccumulator;
+import com.buyandsellstore.app.service.SellerSalesUpdateService;
+
+import graphql.language.Field;
+import graphql.schema.DataFetchingEnvironment;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
 
 import java.util.*;
 
 @Controller
 public class SellerResolver {
 
-    @Autowired
-    private OrderRepository orderRepository;
+    private static final Set<String> SHARED_SCAN_FIELDS =
+            Set.of("getSellerSalesAnalytics", "getTopSellingProducts", "getSalesByCategory");
 
     @Autowired
     private BookRepository bookRepository;
     
-    @Autowired
-    private HomeItemRepository homeItemRepository;
-    
     @Autowired
     private SellerAnalyticsService sellerAnalyticsService;
 
+    @Autowired
+    private SellerRollupService sellerRollupService;
+
+    @Autowired
+    private SellerLiveSalesService sellerLiveSalesService;
+
+    @Autowired
+    private SellerSalesUpdateService sellerSalesUpdateService;
+
     @QueryMapping(name = "getSellerStatistics")
     public SellerStats getSellerStatistics(@Argument String sellerId) {
-        List<Order> allOrders = orderRepository.findAll();
+        SellerRollup rollup = sellerRollupService.getRollup(sellerId);
 
-        int totalPurchases = 0;
-        double totalRevenue = 0.0;
-        Set<String> uniqueBuyers = new HashSet<>();
-        List<Book> purchasedBooks = new ArrayList<>();
+        // The rollup holds each sold item once, so these ids are already distinct
+        List<String> bookIds = new ArrayList<>();
+        rollup.getItems().forEach((itemId, totals) -> {
+            if ("book".equalsIgnoreCase(totals.getType())) {
+                bookIds.add(itemId);
+            }
+        });
 
-        for (Order order : allOrders) {
-            boolean buyerAdded = false;
+        SellerStats stats = new SellerStats(rollup.getTotalBuyers(), rollup.getTotalPurchases(), rollup.getTotalRevenue());
+        stats.setPurchasedBookIds(bookIds);
+        return stats;
+    }
 
-            for (CartItem item : order.getItems()) {
-                if (sellerId.equals(item.getSellerId())) {
-                    totalPurchases += item.getQuantity();
-                    totalRevenue += item.getQuantity() * item.getPrice();
+    /*Loads purchasedBooks only when the field is selected, with one findAllById for every
+    SellerStats in the request (e.g. several aliased sellers), whatever their sales volume.
+    */
+    @BatchMapping(typeName = "SellerStats", field = "purchasedBooks")
+    public Map<SellerStats, List<Book>> purchasedBooks(List<SellerStats> statsList) {
+        Set<String> bookIds = new LinkedHashSet<>();
+        for (SellerStats stats : statsList) {
+            if (stats.getPurchasedBooks() == null && stats.getPurchasedBookIds() != null) {
+                bookIds.addAll(stats.getPurchasedBookIds());
+            }
+        }
 
-                    if ("book".equalsIgnoreCase(item.getType())) {
-                        bookRepository.findById(item.getItemId()).ifPresent(purchasedBooks::add);
-                    }
+        Map<String, Book> booksById = new HashMap<>();
+        if (!bookIds.isEmpty()) {
+            for (Book book : bookRepository.findAllById(bookIds)) {
+                booksById.put(book.getId(), book);
+            }
+        }
 
-                    if (!buyerAdded) {
-                        uniqueBuyers.add(order.getUserId());
-                        buyerAdded = true;
+        Map<SellerStats, List<Book>> result = new IdentityHashMap<>();
+        for (SellerStats stats : statsList) {
+            if (stats.getPurchasedBooks() != null) {
+                result.put(stats, stats.getPurchasedBooks());
+                continue;
+            }
+            List<Book> books = new ArrayList<>();
+            if (stats.getPurchasedBookIds() != null) {
+                for (String bookId : stats.getPurchasedBookIds()) {
+                    Book book = booksById.get(bookId);
+                    if (book != null) {
+                        books.add(book); // books deleted from the catalog since the sale are skipped
                     }
                 }
             }
+            result.put(stats, books);
         }
-
-        return new SellerStats(uniqueBuyers.size(), totalPurchases, totalRevenue, purchasedBooks);
+        return result;
     }
     
+    @QueryMapping(name = "sellerDashboard")
+    public SellerDashboard sellerDashboard(
+            @Argument String sellerId,
+            @Argument String timeFrame,
+            @Argument String groupBy,
+            @Argument String metric,
+            @Argument Integer limit,
+            @Argument Boolean exact) {
+        return sellerAnalyticsService.getSellerDashboard(sellerId, timeFrame, groupBy, metric, limit, exact);
+    }
+
     @QueryMapping(name = "getSellerSalesAnalytics") 
-    public Map<String, Object> getSellerSalesAnalytics(@Argument String sellerId, @Argument String timeFrame) {
-        return sellerAnalyticsService.getSellerSalesAnalytics(sellerId, timeFrame);
+    public Map<String, Object> getSellerSalesAnalytics(
+            @Argument String sellerId,
+            @Argument String timeFrame,
+            @Argument Boolean exact,
+            DataFetchingEnvironment env) {
+        SellerSalesAccumulator sales = Boolean.TRUE.equals(exact) ? null : sharedSellerSales(env, sellerId, timeFrame);
+        if (sales != null) {
+            return sales.salesAnalytics();
+        }
+        return sellerAnalyticsService.getSellerSalesAnalytics(sellerId, timeFrame, exact);
     }
     
     @QueryMapping(name = "getTopSellingProducts")
@@ -75,12 +132,24 @@ public class SellerResolver {
             @Argument String sellerId, 
             @Argument String timeFrame,
             @Argument String metric,
-            @Argument Integer limit) {
+            @Argument Integer limit,
+            DataFetchingEnvironment env) {
+        SellerSalesAccumulator sales = sharedSellerSales(env, sellerId, timeFrame);
+        if (sales != null) {
+            return sales.topProducts(metric, limit);
+        }
         return sellerAnalyticsService.getTopSellingProducts(sellerId, timeFrame, metric, limit);
     }
     
     @QueryMapping(name = "getSalesByCategory")
-    public Map<String, Object> getSalesByCategory(@Argument String sellerId, @Argument String timeFrame) {
+    public Map<String, Object> getSalesByCategory(
+            @Argument String sellerId,
+            @Argument String timeFrame,
+            DataFetchingEnvironment env) {
+        SellerSalesAccumulator sales = sharedSellerSales(env, sellerId, timeFrame);
+        if (sales != null) {
+            return sales.salesByCategory();
+        }
         return sellerAnalyticsService.getSalesByCategory(sellerId, timeFrame);
     }
     
@@ -91,4 +160,38 @@ public class SellerResolver {
             @Argument String groupBy) {
         return sellerAnalyticsService.getRevenueOverTime(sellerId, timeFrame, groupBy);
     }
-}
\ No newline at end of file
+
+    @QueryMapping(name = "getOrderValueDistribution")
+    public Map<String, Object> getOrderValueDistribution(@Argument String sellerId, @Argument String timeFrame) {
+        return sellerAnalyticsService.getOrderValueDistribution(sellerId, timeFrame);
+    }
+
+    @QueryMapping(name = "getSellerLiveSales")
+    public LiveSales getSellerLiveSales(@Argument String sellerId, @Argument String window) {
+        return sellerLiveSalesService.getLiveSales(sellerId, window);
+    }
+
+    // Pushes each new order's lines and the updated totals, so dashboards need not poll the analytics queries
+    @SubscriptionMapping(name = "sellerSalesUpdated")
+    public Flux<SellerSalesUpdate> sellerSalesUpdated(@Argument String sellerId) {
+        return sellerSalesUpdateService.subscribe(sellerId);
+    }
+
+    /*When a request asks for more than one of the scan-based analytics fields, they share one
+    scan of the seller's orders, memoized in the request's GraphQL context.
+    Returns null when the field is requested on its own.
+    */
+    private SellerSalesAccumulator sharedSellerSales(DataFetchingEnvironment env, String sellerId, String timeFrame) {
+        long analyticsFields = env.getOperationDefinition().getSelectionSet().getSelectionsOfType(Field.class).stream()
+                .filter(field -> SHARED_SCAN_FIELDS.contains(field.getName()))
+                .count();
+        if (analyticsFields < 2) {
+            return null;
+        }
+
+        // The shared scan uses the estimated buyer count; an exact one is computed on its own (see getSellerSalesAnalytics)
+        String key = "sellerSales:" + sellerId + ":" + (timeFrame == null ? "all" : timeFrame.toLowerCase());
+        return env.getGraphQlContext().computeIfAbsent(key,
+                k -> sellerAnalyticsService.getSellerSales(sellerId, timeFrame, false));
+    }
+}
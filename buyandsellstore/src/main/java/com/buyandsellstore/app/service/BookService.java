@@ -1,12 +1,13 @@
 package com.buyandsellstore.app.service;
 
+import com.buyandsellstore.app.dto.Connection;
 import com.buyandsellstore.app.model.Book;
 import com.buyandsellstore.app.model.Review;
 import com.buyandsellstore.app.repository.BookRepository;
+import com.buyandsellstore.app.repository.CatalogSort;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -15,11 +16,44 @@ public class BookService {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private StockShardService stockShardService;
+
     public List<Book> getAllBooks() {
         return bookRepository.findAll();
     }
 
+    /**
+     * One page of the catalog in the given order (newest first by default), continuing after the cursor.
+     */
+    public Connection<Book> getBooksConnection(Integer first, String after, CatalogSort sortBy) {
+        CatalogSort sort = sortBy != null ? sortBy : CatalogSort.NEWEST;
+        int pageSize = CatalogCursor.pageSize(first);
+        CatalogCursor cursor = CatalogCursor.decode(after, sort);
+
+        List<Book> page = cursor == null
+                ? bookRepository.findPage(sort, null, null, pageSize + 1)
+                : bookRepository.findPage(sort, cursor.getSortValue(), cursor.getId(), pageSize + 1);
+        return CatalogCursor.connection(page, pageSize, sort, Book::getId,
+                book -> sort.sortValue(book.getPrice(), book.getRatings()));
+    }
+
+    // Served from the product cache; the result is shared and must not be modified
     public Book getBookById(String id) {
+        return productCache.get(ProductCache.BOOK, id, () -> bookRepository.findById(id).orElse(null));
+    }
+
+    // Read straight from the database, for callers that need the stored state rather than a cached copy
+    public Book getBookForUpdate(String id) {
         return bookRepository.findById(id).orElse(null);
     }
 
@@ -27,48 +61,70 @@ public class BookService {
         return bookRepository.findByTitleAndSellerId(title,  sellerId);
     }
 
+    // Reviews live in the reviews collection; each change moves the book's rating totals in place
+
     // Add a review to a book
     public Book addReview(String bookId, Review newReview) {
-        Book book = bookRepository.findById(bookId).orElse(null);
-        if (book != null) {
-            List<Review> reviews = book.getReviews();
-            if (reviews == null) reviews = new ArrayList<>();
-            reviews.add(newReview);
-            book.setReviews(reviews);
-            bookRepository.save(book);
+        if (getBookById(bookId) == null) {
+            return null;
         }
-        return book;
+        reviewService.addReview(ReviewService.BOOK, bookId, newReview);
+        return getBookById(bookId);
     }
 
     // Update a review by reviewer name
     public Book updateReview(String bookId, String reviewer, Review updatedReview) {
-        Book book = bookRepository.findById(bookId).orElse(null);
-        if (book != null && book.getReviews() != null) {
-            for (Review review : book.getReviews()) {
-                if (review.getReviewer().equalsIgnoreCase(reviewer)) {
-                    review.setComment(updatedReview.getComment());
-                    review.setRating(updatedReview.getRating());
-                    break;
-                }
-            }
-            bookRepository.save(book);
-        }
-        return book;
+        reviewService.updateReview(ReviewService.BOOK, bookId, reviewer, updatedReview);
+        return getBookById(bookId);
     }
 
     // Delete a review by reviewer name
     public Book deleteReview(String bookId, String reviewer) {
-        Book book = bookRepository.findById(bookId).orElse(null);
-        if (book != null && book.getReviews() != null) {
-            book.getReviews().removeIf(review -> review.getReviewer().equalsIgnoreCase(reviewer));
-            bookRepository.save(book);
+        reviewService.deleteReviews(ReviewService.BOOK, bookId, reviewer);
+        return getBookById(bookId);
+    }
+
+    // Takes one unit of stock in a single conditional update; null when the item is missing or sold out
+    public Book takeStock(String id) {
+        return takeStock(id, 1);
+    }
+
+    // Takes quantity units in a single conditional update; null when the item is missing or has fewer left
+    public Book takeStock(String id, int quantity) {
+        // A hot item's stock is spread over shards; its totalQuantity is 0 unless units landed there while unsharding
+        Book book = getBookById(id);
+        if (book != null && book.getStockShards() > 0
+                && stockShardService.take(StockShardService.BOOK, id, book.getStockShards(), quantity)) {
+            return book;
+        }
+        Book updated = bookRepository.decrementStock(id, quantity);
+        if (updated != null) {
+            productCache.evict(ProductCache.BOOK, id);
+            catalogSearchService.indexBook(updated);
         }
-        return book;
+        return updated;
     }
 
+    // Puts quantity units back in a single update; null when the item is missing
+    public Book returnStock(String id, int quantity) {
+        Book book = getBookById(id);
+        if (book != null && book.getStockShards() > 0) {
+            stockShardService.release(StockShardService.BOOK, id, book.getStockShards(), quantity);
+            return book;
+        }
+        Book updated = bookRepository.incrementStock(id, quantity);
+        if (updated != null) {
+            productCache.evict(ProductCache.BOOK, id);
+            catalogSearchService.indexBook(updated);
+        }
+        return updated;
+    }
 
     public Book save(Book book){
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        productCache.evict(ProductCache.BOOK, saved.getId());
+        catalogSearchService.indexBook(saved);
+        return saved;
     }
 
     public List<Book> getBooksBySellerID(String sellerId){
@@ -3,14 +3,13 @@ package com.buyandsellstore.app.service;
 import com.buyandsellstore.app.dto.ResponseMessage;
 import com.buyandsellstore.app.model.Cart;
 import com.buyandsellstore.app.model.CartItem;
-import com.buyandsellstore.app.repository.BookRepository;
 import com.buyandsellstore.app.repository.CartRepository;
-import com.buyandsellstore.app.repository.HomeItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
@@ -19,73 +18,65 @@ public class CartService {
     private CartRepository cartRepository;
 
     @Autowired
-    private BookRepository bookRepository; // For fetching book details if the type is 'book'
+    private BookService bookService; // For fetching book details if the type is 'book'
 
     @Autowired
-    private HomeItemRepository homeItemRepository; // For fetching book details if the type is 'book'
+    private HomeItemService homeItemService;
 
-    public ResponseMessage addToCart(String userId, String itemId, String type) {
-        // Fetch the existing cart for the user
-        Optional<Cart> optionalCart = cartRepository.findByUserId(userId);
+    // Attempts at the $inc-then-$push sequence; a retry only happens when a concurrent add of the same user wins
+    private static final int ADD_ATTEMPTS = 3;
 
-        Cart cart;
-        if (optionalCart.isPresent()) {
-            cart = optionalCart.get();
-        } else {
-            // Create a new cart if it doesn't exist
-            cart = new Cart();
-            cart.setUserId(userId);
+    /**
+     * Adds one of the item to the user's cart. A repeat add is a single $inc on the matching line; a new line
+     * is $push-ed, creating the cart if needed. Nothing reads or rewrites the whole cart.
+     */
+    public ResponseMessage addToCart(String userId, String itemId, String type) {
+        String lineType = normalizeType(type);
+        String lineItemId = normalizeItemId(itemId);
+        for (int attempt = 0; attempt < ADD_ATTEMPTS; attempt++) {
+            if (cartRepository.incrementQuantity(userId, lineType, lineItemId)
+                    || cartRepository.pushItem(userId, newCartItem(lineItemId, lineType))) {
+                return new ResponseMessage(true, "Item added to cart successfully.");
+            }
         }
+        return new ResponseMessage(false, "Failed to add item to cart.");
+    }
 
-        // Check if the item already exists in the cart
-        boolean itemExists = cart.getItems().stream()
-                .anyMatch(cartItem -> cartItem.getItemId().equals(itemId) && cartItem.getType().equalsIgnoreCase(type));
-
-        if (itemExists) {
-            // Update the quantity of the existing item
-            cart.getItems().forEach(cartItem -> {
-                if (cartItem.getItemId().equals(itemId) && cartItem.getType().equalsIgnoreCase(type)) {
-                    cartItem.setQuantity(cartItem.getQuantity() + 1); // Increment quantity
-                }
+    private CartItem newCartItem(String itemId, String type) {
+        CartItem cartItem = new CartItem();
+        cartItem.setItemId(itemId);
+        cartItem.setType(type);
+        cartItem.setQuantity(1);
+
+        if ("book".equals(type)) {
+            // Fetch book details
+            Optional.ofNullable(bookService.getBookById(itemId)).ifPresent(book -> {
+                cartItem.setName(book.getTitle());
+                cartItem.setPrice(book.getPrice());
+                cartItem.setImageUrl(book.getImageUrl());
+            });
+        } else if ("home".equals(type)) {
+            Optional.ofNullable(homeItemService.getHomeItemById(itemId)).ifPresent(homeItem -> {
+                cartItem.setName(homeItem.getTitle());
+                cartItem.setPrice(homeItem.getPrice());
+                cartItem.setImageUrl(homeItem.getImageUrl());
             });
         } else {
-            // Create a new CartItem
-            CartItem cartItem = new CartItem();
-            cartItem.setItemId(itemId);
-            cartItem.setType(type);
-
-            if ("book".equalsIgnoreCase(type)) {
-                // Fetch book details
-                bookRepository.findById(itemId).ifPresent(book -> {
-                    cartItem.setName(book.getTitle());
-                    cartItem.setPrice(book.getPrice());
-                    cartItem.setQuantity(1); // Default to 1
-                    cartItem.setImageUrl(book.getImageUrl()); // Default to 1
-                });
-            } else if ("home".equalsIgnoreCase(type)) {
-                homeItemRepository.findById(itemId).ifPresent(homeItem -> {
-                    cartItem.setName(homeItem.getTitle());
-                    cartItem.setPrice(homeItem.getPrice());
-                    cartItem.setQuantity(1); // Default to 1
-                    cartItem.setImageUrl(homeItem.getImageUrl()); // Default to 1
-                });
-            }else {
-                // For other types, add custom logic here
-                cartItem.setName("Unknown Item");
-                cartItem.setPrice(0.0);
-                cartItem.setQuantity(1);
-            }
-
-            // Add the new item to the cart
-            cart.getItems().add(cartItem);
+            // For other types, add custom logic here
+            cartItem.setName("Unknown Item");
+            cartItem.setPrice(0.0);
         }
+        return cartItem;
+    }
 
-        // Save the updated cart
-        cartRepository.save(cart);
-
-        return new ResponseMessage(true, "Item added to cart successfully.");
+    // Cart lines are keyed by (type, itemId) in this form, so "Book" and "book " land on the same line
+    static String normalizeType(String type) {
+        return type != null ? type.trim().toLowerCase(Locale.ROOT) : null;
     }
 
+    static String normalizeItemId(String itemId) {
+        return itemId != null ? itemId.trim() : null;
+    }
 
     public List<CartItem> getAllCartItemsForUser(String userId) {
         // Check if the cart for the user exists
@@ -93,52 +84,32 @@ public class CartService {
         return cart.map(Cart::getItems).orElse(new ArrayList<>());
     }
 
+    /**
+     * Takes one of the item out of the user's cart: a single $inc while more than one is left, otherwise a
+     * $pull of the line, after which an empty cart is deleted.
+     */
     public ResponseMessage removeFromCart(String userId, String itemId, String type) {
-
-        Optional<Cart> optionalCart = cartRepository.findByUserId(userId);
-
-        if (optionalCart.isEmpty()) {
-            return new ResponseMessage(false, "Cart not found for the user.");
-        }
-
-        Cart cart = optionalCart.get();
-
         // this is because we call this type of remove query from frontend only when we want to delete the entire cart
         if (itemId == null && type == null) {
-            cartRepository.delete(cart);
+            if (cartRepository.deleteByUserId(userId) == 0) {
+                return new ResponseMessage(false, "Cart not found for the user.");
+            }
             return new ResponseMessage(true, "Entire cart deleted successfully.");
         }
 
-        boolean itemFound = false;
-
-        // Iterate through items to find the matching one
-        for (CartItem cartItem : cart.getItems()) {
-            if (cartItem.getItemId().equals(itemId) && cartItem.getType().equalsIgnoreCase(type)) {
-                itemFound = true;
-
-                // Reduce quantity by 1
-                cartItem.setQuantity(cartItem.getQuantity() - 1);
-
-                // If quantity becomes zero, remove the item
-                if (cartItem.getQuantity() <= 0) {
-                    cart.getItems().remove(cartItem);
-                }
-                break;
-            }
+        String lineType = normalizeType(type);
+        String lineItemId = normalizeItemId(itemId);
+        if (cartRepository.decrementQuantity(userId, lineType, lineItemId)) {
+            return new ResponseMessage(true, "Item quantity reduced successfully.");
         }
-
-        if (!itemFound) {
+        if (!cartRepository.pullItem(userId, lineType, lineItemId)) {
             return new ResponseMessage(false, "Item not found in the cart.");
         }
 
         // If the cart becomes empty after removal, delete the cart
-        if (cart.getItems().isEmpty()) {
-            cartRepository.delete(cart);
+        if (cartRepository.deleteIfEmpty(userId)) {
             return new ResponseMessage(true, "Cart deleted as it became empty.");
         }
-
-        // Save the updated cart
-        cartRepository.save(cart);
         return new ResponseMessage(true, "Item quantity reduced successfully.");
     }
 }
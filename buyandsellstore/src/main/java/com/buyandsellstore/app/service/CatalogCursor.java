@@ -0,0 +1,79 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.dto.Connection;
+import com.buyandsellstore.app.dto.Edge;
+import com.buyandsellstore.app.dto.PageInfo;
+import com.buyandsellstore.app.repository.CatalogSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Keyset position in a catalog listing: the sort it belongs to and the (sort value, id) of the last item
+ * returned. A cursor is only valid for the sort it was issued under.
+ */
+final class CatalogCursor {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final CatalogSort sort;
+    private final double sortValue;
+    private final String id;
+
+    CatalogCursor(CatalogSort sort, double sortValue, String id) {
+        this.sort = sort;
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    double getSortValue() {
+        return sortValue;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String encode() {
+        String key = sort.name() + ":" + sortValue + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null for a null/empty cursor (first page)
+    static CatalogCursor decode(String cursor, CatalogSort sort) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split(":", 3);
+            if (!sort.name().equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor belongs to sort " + parts[0] + ", not " + sort);
+            }
+            return new CatalogCursor(sort, Double.parseDouble(parts[1]), parts[2]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    static int pageSize(Integer first) {
+        if (first == null) return DEFAULT_PAGE_SIZE;
+        return Math.max(1, Math.min(first, MAX_PAGE_SIZE));
+    }
+
+    // Builds the page from up to pageSize + 1 items; the extra one only tells that there is a next page
+    static <T> Connection<T> connection(List<T> items, int pageSize, CatalogSort sort,
+                                        Function<T, String> id, ToDoubleFunction<T> sortValue) {
+        List<Edge<T>> edges = new ArrayList<>();
+        for (T item : items.subList(0, Math.min(pageSize, items.size()))) {
+            edges.add(new Edge<>(new CatalogCursor(sort, sortValue.applyAsDouble(item), id.apply(item)).encode(), item));
+        }
+        String endCursor = edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor();
+        return new Connection<>(edges, new PageInfo(items.size() > pageSize, endCursor));
+    }
+}
@@ -0,0 +1,282 @@
+package com.buyandsellstore.app.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index over the catalog. Every item gets a fixed slot, and every facet value keeps a
+ * bitset of the slots that carry it, so a filter is answered by OR-ing the selected values of each facet
+ * and AND-ing the facets together. Each facet also records the value ordinal of every slot, which lets
+ * the counts for all of a facet's values be taken in a single pass over the matching slots.
+ *
+ * Items hold at most one value per facet. Re-indexing an item moves its slot between value bitsets, so
+ * counts follow saves and stock changes without a rebuild.
+ */
+final class CatalogFacetIndex {
+
+    static final String TYPE = "type";
+    static final String SELLER = "seller";
+    static final String MANUFACTURER = "manufacturer";
+    static final String PRICE = "price";
+    static final String RATING = "rating";
+    static final String AVAILABILITY = "availability";
+
+    static final List<String> FACETS = List.of(TYPE, SELLER, MANUFACTURER, PRICE, RATING, AVAILABILITY);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, Facet> facets = new LinkedHashMap<>();
+
+    CatalogFacetIndex() {
+        for (String name : FACETS) {
+            facets.put(name, new Facet());
+        }
+    }
+
+    /**
+     * Adds or updates an item. values maps facet name to the item's value; a missing or null value leaves
+     * the item out of that facet. The type facet is always the item type.
+     */
+    void index(String type, String id, Map<String, String> values) {
+        String key = type + ":" + id;
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(key);
+            if (slot == null) {
+                slot = keys.size();
+                keys.add(key);
+                slots.put(key, slot);
+            }
+            live.set(slot);
+            for (Map.Entry<String, Facet> facet : facets.entrySet()) {
+                String value = TYPE.equals(facet.getKey()) ? type : values.get(facet.getKey());
+                facet.getValue().set(slot, value);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Slots are never reused, so a removed item only leaves an unset slot behind
+    void remove(String type, String id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.remove(type + ":" + id);
+            if (slot != null) {
+                live.clear(slot);
+                for (Facet facet : facets.values()) {
+                    facet.set(slot, null);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The number of items matching the filter, and per facet the number of items carrying each value.
+     * A facet's own selection is left out of its counts, so selecting one seller still shows how many
+     * items the other sellers would add. Values with no items are omitted.
+     */
+    Counts counts(Map<String, ? extends Collection<String>> selected) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> selections = selections(selected);
+            BitSet matches = intersect(selections, null);
+
+            Map<String, Map<String, Integer>> byFacet = new LinkedHashMap<>();
+            List<Facet> unselected = new ArrayList<>();
+            for (Map.Entry<String, Facet> facet : facets.entrySet()) {
+                if (selections.containsKey(facet.getKey())) {
+                    byFacet.put(facet.getKey(), facet.getValue().count(intersect(selections, facet.getKey())));
+                } else {
+                    unselected.add(facet.getValue());
+                    byFacet.put(facet.getKey(), null);
+                }
+            }
+
+            // Facets without a selection all count over the same matches, so they share one pass
+            int[][] tallies = new int[unselected.size()][];
+            for (int f = 0; f < tallies.length; f++) {
+                tallies[f] = new int[unselected.get(f).values.size()];
+            }
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                for (int f = 0; f < tallies.length; f++) {
+                    int ordinal = unselected.get(f).slotOrdinals[slot];
+                    if (ordinal >= 0) {
+                        tallies[f][ordinal]++;
+                    }
+                }
+            }
+            int f = 0;
+            for (Map.Entry<String, Map<String, Integer>> facet : byFacet.entrySet()) {
+                if (facet.getValue() == null) {
+                    Facet unselectedFacet = unselected.get(f);
+                    facet.setValue(unselectedFacet.toCounts(tallies[f++]));
+                }
+            }
+            return new Counts(matches.cardinality(), byFacet);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Up to limit matching items after the given slot (-1 for the first page), in the order they were indexed
+    List<Match> filter(Map<String, ? extends Collection<String>> selected, int afterSlot, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = intersect(selections(selected), null);
+            List<Match> page = new ArrayList<>(Math.min(limit, 128));
+            for (int slot = matches.nextSetBit(afterSlot + 1); slot >= 0 && page.size() < limit;
+                 slot = matches.nextSetBit(slot + 1)) {
+                page.add(new Match(slot, keys.get(slot)));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Per selected facet, the items carrying any of its selected values
+    private Map<String, BitSet> selections(Map<String, ? extends Collection<String>> selected) {
+        Map<String, BitSet> selections = new HashMap<>();
+        for (Map.Entry<String, Facet> facet : facets.entrySet()) {
+            Collection<String> values = selected != null ? selected.get(facet.getKey()) : null;
+            if (values == null || values.isEmpty()) {
+                continue;
+            }
+            BitSet any = new BitSet();
+            for (String value : values) {
+                Integer ordinal = facet.getValue().ordinals.get(value);
+                if (ordinal != null) {
+                    any.or(facet.getValue().members.get(ordinal));
+                }
+            }
+            selections.put(facet.getKey(), any);
+        }
+        return selections;
+    }
+
+    private BitSet intersect(Map<String, BitSet> selections, String excludedFacet) {
+        BitSet result = (BitSet) live.clone();
+        for (Map.Entry<String, BitSet> selection : selections.entrySet()) {
+            if (!selection.getKey().equals(excludedFacet)) {
+                result.and(selection.getValue());
+            }
+        }
+        return result;
+    }
+
+    // One facet: a bitset of slots per value, and the value ordinal of each slot (-1 for none)
+    private static final class Facet {
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<BitSet> members = new ArrayList<>();
+        private int[] slotOrdinals = new int[0];
+
+        void set(int slot, String value) {
+            if (slot >= slotOrdinals.length) {
+                int oldLength = slotOrdinals.length;
+                slotOrdinals = Arrays.copyOf(slotOrdinals, Math.max(16, Math.max(slot + 1, oldLength * 2)));
+                Arrays.fill(slotOrdinals, oldLength, slotOrdinals.length, -1);
+            }
+            int ordinal = value == null ? -1 : ordinals.computeIfAbsent(value, v -> {
+                values.add(v);
+                members.add(new BitSet());
+                return values.size() - 1;
+            });
+            int previous = slotOrdinals[slot];
+            if (previous == ordinal) {
+                return;
+            }
+            if (previous >= 0) {
+                members.get(previous).clear(slot);
+            }
+            if (ordinal >= 0) {
+                members.get(ordinal).set(slot);
+            }
+            slotOrdinals[slot] = ordinal;
+        }
+
+        Map<String, Integer> count(BitSet matches) {
+            int[] tally = new int[values.size()];
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                int ordinal = slotOrdinals[slot];
+                if (ordinal >= 0) {
+                    tally[ordinal]++;
+                }
+            }
+            return toCounts(tally);
+        }
+
+        Map<String, Integer> toCounts(int[] tally) {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (int ordinal = 0; ordinal < tally.length; ordinal++) {
+                if (tally[ordinal] > 0) {
+                    counts.put(values.get(ordinal), tally[ordinal]);
+                }
+            }
+            return counts;
+        }
+    }
+
+    static final class Counts {
+        private final int total;
+        private final Map<String, Map<String, Integer>> byFacet;
+
+        Counts(int total, Map<String, Map<String, Integer>> byFacet) {
+            this.total = total;
+            this.byFacet = byFacet;
+        }
+
+        int getTotal() {
+            return total;
+        }
+
+        // Facet name -> value -> item count, in FACETS order
+        Map<String, Map<String, Integer>> getByFacet() {
+            return byFacet;
+        }
+    }
+
+    static final class Match {
+        private final int slot;
+        private final String key;
+
+        Match(int slot, String key) {
+            this.slot = slot;
+            this.key = key;
+        }
+
+        int getSlot() {
+            return slot;
+        }
+
+        String getType() {
+            return key.substring(0, key.indexOf(':'));
+        }
+
+        String getId() {
+            return key.substring(key.indexOf(':') + 1);
+        }
+    }
+}
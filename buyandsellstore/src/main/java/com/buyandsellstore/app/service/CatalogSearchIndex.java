@@ -0,0 +1,489 @@
+package com.buyandsellstore.app.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over catalog text with BM25 ranking. Every indexed item gets an increasing
+ * internal doc number, so each posting list is a pair of growable int arrays (doc, term frequency)
+ * kept in doc order by appending. Re-indexing an item retires its old doc number and appends a new one;
+ * retired docs are skipped on search and dropped by compaction once they make up a fifth of the index.
+ *
+ * Queries OR their terms and walk the posting lists together in doc order, keeping only the best hits
+ * in a bounded heap, so a search allocates nothing per matching document. MaxScore pruning skips most
+ * postings of common words once the heap holds hits they cannot beat.
+ */
+final class CatalogSearchIndex {
+
+    static final String BOOK = ProductCache.BOOK;
+    static final String HOME_ITEM = ProductCache.HOME_ITEM;
+
+    // Postings per block-max entry; blocks that cannot beat the current top hits are skipped whole
+    private static final int BLOCK_SIZE = 128;
+
+    // Standard BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Score bounds are padded by this factor so rounding can never prune a doc that ties the threshold
+    private static final double BOUND_SLACK = 1 + 1e-9;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<String, Integer> docByKey = new HashMap<>(); // "type:id" -> live doc number
+
+    // Per doc number
+    private String[] keys = new String[1024];
+    private int[] lengths = new int[1024];
+    private long[] textHashes = new long[1024];
+    private final BitSet retired = new BitSet();
+
+    private int minLength = Integer.MAX_VALUE; // shortest doc ever indexed; bounds BM25 term scores from above
+    private int docCount; // doc numbers handed out, live or retired
+    private int liveCount;
+    private long liveLength;
+
+    /**
+     * Indexes (or re-indexes) one item. Title words count twice, so a title match ranks above the same
+     * word in a description. Unchanged text is not re-indexed, so stock updates cost one hash.
+     */
+    void index(String type, String id, String title, String... otherFields) {
+        String key = type + ":" + id;
+        List<String> tokens = new ArrayList<>();
+        List<String> titleTokens = tokenize(title);
+        tokens.addAll(titleTokens);
+        tokens.addAll(titleTokens);
+        for (String field : otherFields) {
+            tokens.addAll(tokenize(field));
+        }
+        long textHash = HyperLogLog.hash(String.join(" ", tokens));
+
+        lock.writeLock().lock();
+        try {
+            Integer current = docByKey.get(key);
+            if (current != null && textHashes[current] == textHash) {
+                return;
+            }
+            if (current != null) {
+                retire(current);
+            }
+            addDoc(key, tokens, textHash);
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String type, String id) {
+        lock.writeLock().lock();
+        try {
+            Integer current = docByKey.remove(type + ":" + id);
+            if (current != null) {
+                retire(current);
+                maybeCompact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docByKey.clear();
+            retired.clear();
+            keys = new String[1024];
+            lengths = new int[1024];
+            textHashes = new long[1024];
+            minLength = Integer.MAX_VALUE;
+            docCount = 0;
+            liveCount = 0;
+            liveLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The best limit hits for the query, best first, optionally only of one type ("book" or "home").
+     * With an after hit, returns only hits ranked strictly below it (by score, then key), which is how
+     * search results are paged.
+     */
+    List<Hit> search(String query, String type, Hit after, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String typePrefix = type != null ? type + ":" : null;
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return List.of();
+            }
+            double averageLength = (double) liveLength / liveCount;
+
+            double minLengthNorm = K1 * (1 - B + B * minLength / averageLength);
+            int listCount = 0;
+            PostingList[] lists = new PostingList[terms.size()];
+            double[] idfs = new double[terms.size()];
+            double[] upperBounds = new double[terms.size()];
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null || list.size == 0) {
+                    continue;
+                }
+                // df counts retired docs until the next compaction, which keeps the drift under 20%
+                double df = Math.min(list.size, liveCount);
+                double idf = Math.log(1 + (liveCount - df + 0.5) / (df + 0.5));
+                double upperBound = BOUND_SLACK * idf * list.maxFreq * (K1 + 1) / (list.maxFreq + minLengthNorm);
+
+                // Insertion sort by upper bound, lowest first
+                int at = listCount++;
+                while (at > 0 && upperBounds[at - 1] > upperBound) {
+                    lists[at] = lists[at - 1];
+                    idfs[at] = idfs[at - 1];
+                    upperBounds[at] = upperBounds[at - 1];
+                    at--;
+                }
+                lists[at] = list;
+                idfs[at] = idf;
+                upperBounds[at] = upperBound;
+            }
+            if (listCount == 0) {
+                return List.of();
+            }
+            // boundUpTo[i]: the most lists 0..i can add to a score together
+            double[] boundUpTo = new double[listCount];
+            for (int i = 0; i < listCount; i++) {
+                boundUpTo[i] = upperBounds[i] + (i > 0 ? boundUpTo[i - 1] : 0);
+            }
+
+            /*MaxScore: once the heap is full, lists whose combined upper bound is below the worst kept score
+            cannot lift a doc into the results on their own. Only docs from the other ("essential") lists are
+            visited, and the low-bound lists are probed for those docs by galloping search.
+            */
+            int[] positions = new int[listCount];
+            int[] boundedBlock = new int[listCount];
+            double[] blockBound = new double[listCount];
+            Arrays.fill(boundedBlock, -1);
+            int blockCheckedUntil = -1; // a failed block check holds until this doc or a higher threshold
+            double blockCheckedAt = Double.NEGATIVE_INFINITY;
+            int firstEssential = 0;
+            double threshold = Double.NEGATIVE_INFINITY;
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Hit.WORST_FIRST);
+            while (true) {
+                int doc = Integer.MAX_VALUE;
+                for (int i = firstEssential; i < listCount; i++) {
+                    if (positions[i] < lists[i].size) {
+                        doc = Math.min(doc, lists[i].docs[positions[i]]);
+                    }
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                // Block-max: no doc before the earliest block end among the essential lists can beat the
+                // threshold if the current blocks of the lists that have a doc before it cannot reach it together
+                if (threshold > Double.NEGATIVE_INFINITY && (doc >= blockCheckedUntil || threshold > blockCheckedAt)) {
+                    int skipTo = Integer.MAX_VALUE;
+                    for (int i = firstEssential; i < listCount; i++) {
+                        if (positions[i] < lists[i].size) {
+                            skipTo = Math.min(skipTo, lists[i].blockLastDoc(positions[i]) + 1);
+                        }
+                    }
+                    double bound = firstEssential > 0 ? boundUpTo[firstEssential - 1] : 0;
+                    for (int i = firstEssential; i < listCount; i++) {
+                        PostingList list = lists[i];
+                        if (positions[i] < list.size && list.docs[positions[i]] < skipTo) {
+                            int block = positions[i] / BLOCK_SIZE;
+                            if (boundedBlock[i] != block) {
+                                boundedBlock[i] = block;
+                                double norm = K1 * (1 - B + B * list.blockMinLength[block] / averageLength);
+                                int tf = list.blockMaxFreq[block];
+                                blockBound[i] = BOUND_SLACK * idfs[i] * tf * (K1 + 1) / (tf + norm);
+                            }
+                            bound += blockBound[i];
+                        }
+                    }
+                    if (bound < threshold) {
+                        for (int i = firstEssential; i < listCount; i++) {
+                            positions[i] = lists[i].advance(positions[i], skipTo);
+                        }
+                        continue;
+                    }
+                    blockCheckedUntil = skipTo;
+                    blockCheckedAt = threshold;
+                }
+
+                double lengthNorm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                double score = 0;
+                for (int i = firstEssential; i < listCount; i++) {
+                    PostingList list = lists[i];
+                    if (positions[i] < list.size && list.docs[positions[i]] == doc) {
+                        int tf = list.freqs[positions[i]++];
+                        score += idfs[i] * tf * (K1 + 1) / (tf + lengthNorm);
+                    }
+                }
+                boolean candidate = true;
+                for (int i = firstEssential - 1; i >= 0; i--) {
+                    if (score + boundUpTo[i] < threshold) {
+                        candidate = false;
+                        break;
+                    }
+                    PostingList list = lists[i];
+                    positions[i] = list.advance(positions[i], doc);
+                    if (positions[i] < list.size && list.docs[positions[i]] == doc) {
+                        int tf = list.freqs[positions[i]];
+                        score += idfs[i] * tf * (K1 + 1) / (tf + lengthNorm);
+                    }
+                }
+
+                if (!candidate || score < threshold || retired.get(doc)
+                        || (typePrefix != null && !keys[doc].startsWith(typePrefix))
+                        || (after != null && !Hit.ranksBelow(score, keys[doc], after))) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(new Hit(keys[doc], score));
+                } else if (Hit.ranksBelow(best.peek().score, best.peek().key, score, keys[doc])) {
+                    best.poll();
+                    best.add(new Hit(keys[doc], score));
+                }
+                if (best.size() == limit) {
+                    threshold = best.peek().score;
+                    while (firstEssential < listCount && boundUpTo[firstEssential] < threshold) {
+                        firstEssential++;
+                    }
+                }
+            }
+
+            Hit[] hits = best.toArray(new Hit[0]);
+            Arrays.sort(hits, Hit.WORST_FIRST.reversed());
+            return Arrays.asList(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lower-cased runs of letters and digits
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void addDoc(String key, List<String> tokens, long textHash) {
+        int doc = docCount++;
+        if (doc == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            textHashes = Arrays.copyOf(textHashes, capacity);
+        }
+        keys[doc] = key;
+        lengths[doc] = tokens.size();
+        minLength = Math.min(minLength, tokens.size());
+        textHashes[doc] = textHash;
+        docByKey.put(key, doc);
+        liveCount++;
+        liveLength += tokens.size();
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new PostingList()).add(doc, tf, tokens.size()));
+    }
+
+    private void retire(int doc) {
+        retired.set(doc);
+        liveCount--;
+        liveLength -= lengths[doc];
+    }
+
+    // Drops retired docs and renumbers the rest in the same order, so posting lists stay sorted
+    private void maybeCompact() {
+        int retiredCount = docCount - liveCount;
+        if (retiredCount < 1024 || retiredCount * 5 < docCount) {
+            return;
+        }
+
+        int[] renumbered = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (retired.get(doc)) {
+                renumbered[doc] = -1;
+            } else {
+                renumbered[doc] = next;
+                keys[next] = keys[doc];
+                lengths[next] = lengths[doc];
+                textHashes[next] = textHashes[doc];
+                next++;
+            }
+        }
+        Arrays.fill(keys, next, docCount, null);
+        docCount = next;
+        retired.clear();
+
+        postings.values().removeIf(list -> list.renumber(renumbered, lengths) == 0);
+        docByKey.replaceAll((key, doc) -> renumbered[doc]);
+    }
+
+    // Docs containing a term, in doc order, with the term's frequency in each
+    private static final class PostingList {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+        private int maxFreq; // never lowered, so it stays an upper bound after docs are retired
+        // Per block of BLOCK_SIZE postings: the highest frequency and the shortest doc in it
+        private int[] blockMaxFreq = new int[1];
+        private int[] blockMinLength = new int[1];
+
+        void add(int doc, int freq, int length) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            addToBlock(size, freq, length);
+            size++;
+            maxFreq = Math.max(maxFreq, freq);
+        }
+
+        private void addToBlock(int position, int freq, int length) {
+            int block = position / BLOCK_SIZE;
+            if (block == blockMaxFreq.length) {
+                blockMaxFreq = Arrays.copyOf(blockMaxFreq, block * 2);
+                blockMinLength = Arrays.copyOf(blockMinLength, block * 2);
+            }
+            if (position % BLOCK_SIZE == 0) {
+                blockMaxFreq[block] = freq;
+                blockMinLength[block] = length;
+            } else {
+                blockMaxFreq[block] = Math.max(blockMaxFreq[block], freq);
+                blockMinLength[block] = Math.min(blockMinLength[block], length);
+            }
+        }
+
+        // The last doc of the block holding the given position
+        int blockLastDoc(int position) {
+            return docs[Math.min((position / BLOCK_SIZE + 1) * BLOCK_SIZE, size) - 1];
+        }
+
+        // The first position at or after from whose doc is >= target (size when there is none)
+        int advance(int from, int target) {
+            if (from >= size || docs[from] >= target) {
+                return from;
+            }
+            // Gallop to bracket the target, then binary search inside the bracket
+            int low = from;
+            int step = 1;
+            int high = from + step;
+            while (high < size && docs[high] < target) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            high = Math.min(high, size);
+            while (low + 1 < high) {
+                int middle = (low + high) >>> 1;
+                if (docs[middle] < target) {
+                    low = middle;
+                } else {
+                    high = middle;
+                }
+            }
+            return high;
+        }
+
+        // Applies a compaction's doc renumbering (-1 = dropped); returns the remaining size
+        int renumber(int[] renumbered, int[] lengths) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    freqs[kept] = freqs[i];
+                    addToBlock(kept, freqs[i], lengths[doc]);
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+
+    // One search result: the item's "type:id" key and its BM25 score
+    static final class Hit {
+        // Heap order: the lowest ranked hit first (lower score, then the larger key)
+        static final Comparator<Hit> WORST_FIRST = (a, b) -> {
+            if (a.score != b.score) return Double.compare(a.score, b.score);
+            return b.key.compareTo(a.key);
+        };
+
+        private final String key;
+        private final double score;
+
+        Hit(String key, double score) {
+            this.key = key;
+            this.score = score;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        double getScore() {
+            return score;
+        }
+
+        String getType() {
+            return key.substring(0, key.indexOf(':'));
+        }
+
+        String getId() {
+            return key.substring(key.indexOf(':') + 1);
+        }
+
+        // Whether (score, key) is ranked strictly below the given hit: lower score, or same score and larger key
+        static boolean ranksBelow(double score, String key, Hit other) {
+            return ranksBelow(score, key, other.score, other.key);
+        }
+
+        static boolean ranksBelow(double score, String key, double otherScore, String otherKey) {
+            if (score != otherScore) return score < otherScore;
+            return key.compareTo(otherKey) > 0;
+        }
+    }
+}
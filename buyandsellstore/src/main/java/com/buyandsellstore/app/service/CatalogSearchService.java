@@ -0,0 +1,355 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.dto.CatalogFilter;
+import com.buyandsellstore.app.dto.Connection;
+import com.buyandsellstore.app.dto.Edge;
+import com.buyandsellstore.app.dto.PageInfo;
+import com.buyandsellstore.app.model.Book;
+import com.buyandsellstore.app.model.HomeItem;
+import com.buyandsellstore.app.model.StockShard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Full-text search over books (title, author, description) and home items (title, manufacturer,
+ * description), ranked with BM25 by an in-process inverted index, and faceted filtering by type, seller,
+ * manufacturer, price range, rating and availability over an in-process facet index. Both indexes are
+ * built from Mongo when the app starts and kept current by BookService.save and HomeItemService.save.
+ */
+@Service
+public class CatalogSearchService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${catalog.search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    // Price facet ranges: PRICE_RANGES[i] covers prices below PRICE_BOUNDS[i], the last range is open-ended
+    static final double[] PRICE_BOUNDS = {10, 25, 50, 100, 250};
+    static final List<String> PRICE_RANGES = List.of("0-10", "10-25", "25-50", "50-100", "100-250", "250+");
+
+    // Seller and manufacturer facets list at most this many values, most items first
+    static final int MAX_FACET_VALUES = 50;
+
+    private final CatalogSearchIndex index = new CatalogSearchIndex();
+    private final CatalogFacetIndex facetIndex = new CatalogFacetIndex();
+
+    public void indexBook(Book book) {
+        if (book != null && book.getId() != null) {
+            index.index(CatalogSearchIndex.BOOK, book.getId(), book.getTitle(), book.getAuthor(), book.getDescription());
+            facetIndex.index(CatalogSearchIndex.BOOK, book.getId(), facetValues(book.getSellerId(), null,
+                    book.getPrice(), book.getRatings(), indexedQuantity(ProductCache.BOOK, book.getId(), book.getTotalQuantity(), book.getStockShards())));
+        }
+    }
+
+    public void indexHomeItem(HomeItem homeItem) {
+        if (homeItem != null && homeItem.getId() != null) {
+            index.index(CatalogSearchIndex.HOME_ITEM, homeItem.getId(), homeItem.getTitle(),
+                    homeItem.getManufacturer(), homeItem.getDescription());
+            facetIndex.index(CatalogSearchIndex.HOME_ITEM, homeItem.getId(), facetValues(homeItem.getSellerId(),
+                    homeItem.getManufacturer(), homeItem.getPrice(), homeItem.getRatings(),
+                    indexedQuantity(ProductCache.HOME_ITEM, homeItem.getId(), homeItem.getTotalQuantity(),
+                            homeItem.getStockShards())));
+        }
+    }
+
+    // Builds the index in the background so startup does not wait on it; searches see items as they are added
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        Thread rebuild = new Thread(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                int items = rebuild();
+                System.out.println("Indexed " + items + " catalog items for search in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, "catalog-search-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    // Streams the text and facet fields of every book and home item into the indexes; returns the index size
+    public int rebuild() {
+        Query bookFields = new Query();
+        bookFields.fields().include("title", "author", "description", "sellerId", "price", "ratings", "totalQuantity",
+                "stockShards");
+        try (Stream<Book> books = mongoTemplate.stream(bookFields, Book.class)) {
+            books.forEach(this::indexBook);
+        }
+
+        Query homeItemFields = new Query();
+        homeItemFields.fields().include("title", "manufacturer", "description", "sellerId", "price", "ratings",
+                "totalQuantity", "stockShards");
+        try (Stream<HomeItem> homeItems = mongoTemplate.stream(homeItemFields, HomeItem.class)) {
+            homeItems.forEach(this::indexHomeItem);
+        }
+        return index.size();
+    }
+
+    /**
+     * One page of matches for the query, best first. type narrows the search to "book" or "home";
+     * nodes are Book or HomeItem documents.
+     */
+    public Connection<Object> searchCatalog(String query, String type, Integer first, String after) {
+        int pageSize = CatalogCursor.pageSize(first);
+        List<CatalogSearchIndex.Hit> hits = index.search(query, indexType(type), decodeCursor(after), pageSize + 1);
+        List<CatalogSearchIndex.Hit> page = hits.subList(0, Math.min(pageSize, hits.size()));
+
+        List<String> bookIds = new ArrayList<>();
+        List<String> homeItemIds = new ArrayList<>();
+        for (CatalogSearchIndex.Hit hit : page) {
+            (CatalogSearchIndex.BOOK.equals(hit.getType()) ? bookIds : homeItemIds).add(hit.getId());
+        }
+        Map<String, Object> items = findItems(bookIds, homeItemIds);
+
+        List<Edge<Object>> edges = new ArrayList<>();
+        String endCursor = null;
+        for (CatalogSearchIndex.Hit hit : page) {
+            endCursor = encodeCursor(hit);
+            Object item = items.get(hit.getKey());
+            if (item != null) { // removed from the catalog since it was indexed
+                edges.add(new Edge<>(endCursor, item));
+            }
+        }
+        return new Connection<>(edges, new PageInfo(hits.size() > pageSize, endCursor));
+    }
+
+    /**
+     * The number of items matching the filter and, per facet, how many items each value holds. A facet's
+     * own selection does not narrow its counts, so the other values of a filtered facet keep their counts.
+     */
+    public Map<String, Object> getCatalogFacets(CatalogFilter filter) {
+        CatalogFacetIndex.Counts counts = facetIndex.counts(selections(filter));
+        Map<String, Map<String, Integer>> byFacet = counts.getByFacet();
+
+        Map<String, Object> facets = new LinkedHashMap<>();
+        facets.put("total", counts.getTotal());
+        facets.put("type", byCount(byFacet.get(CatalogFacetIndex.TYPE), Integer.MAX_VALUE));
+        facets.put("seller", byCount(byFacet.get(CatalogFacetIndex.SELLER), MAX_FACET_VALUES));
+        facets.put("manufacturer", byCount(byFacet.get(CatalogFacetIndex.MANUFACTURER), MAX_FACET_VALUES));
+
+        List<Map<String, Object>> price = new ArrayList<>();
+        Map<String, Integer> priceCounts = byFacet.get(CatalogFacetIndex.PRICE);
+        for (String range : PRICE_RANGES) {
+            if (priceCounts.containsKey(range)) {
+                price.add(facetCount(range, priceCounts.get(range)));
+            }
+        }
+        facets.put("price", price);
+
+        // Ratings are indexed by whole star and reported cumulatively as "4+" down to "1+"
+        List<Map<String, Object>> rating = new ArrayList<>();
+        Map<String, Integer> ratingCounts = byFacet.get(CatalogFacetIndex.RATING);
+        int atLeast = ratingCounts.getOrDefault("5", 0);
+        for (int stars = 4; stars >= 1; stars--) {
+            atLeast += ratingCounts.getOrDefault(String.valueOf(stars), 0);
+            if (atLeast > 0) {
+                rating.add(facetCount(stars + "+", atLeast));
+            }
+        }
+        facets.put("rating", rating);
+        facets.put("availability", byCount(byFacet.get(CatalogFacetIndex.AVAILABILITY), Integer.MAX_VALUE));
+        return facets;
+    }
+
+    /**
+     * One page of the items matching the filter, in the order they were indexed. Nodes are Book or HomeItem
+     * documents.
+     */
+    public Connection<Object> filterCatalog(CatalogFilter filter, Integer first, String after) {
+        int pageSize = CatalogCursor.pageSize(first);
+        List<CatalogFacetIndex.Match> matches = facetIndex.filter(selections(filter), decodeSlot(after), pageSize + 1);
+        List<CatalogFacetIndex.Match> page = matches.subList(0, Math.min(pageSize, matches.size()));
+
+        List<String> bookIds = new ArrayList<>();
+        List<String> homeItemIds = new ArrayList<>();
+        for (CatalogFacetIndex.Match match : page) {
+            (CatalogSearchIndex.BOOK.equals(match.getType()) ? bookIds : homeItemIds).add(match.getId());
+        }
+        Map<String, Object> items = findItems(bookIds, homeItemIds);
+
+        List<Edge<Object>> edges = new ArrayList<>();
+        String endCursor = null;
+        for (CatalogFacetIndex.Match match : page) {
+            endCursor = encodeSlot(match.getSlot());
+            Object item = items.get(match.getType() + ":" + match.getId());
+            if (item != null) {
+                edges.add(new Edge<>(endCursor, item));
+            }
+        }
+        return new Connection<>(edges, new PageInfo(matches.size() > pageSize, endCursor));
+    }
+
+    // Catalog items by "type:id" key
+    private Map<String, Object> findItems(List<String> bookIds, List<String> homeItemIds) {
+        Map<String, Object> items = new HashMap<>();
+        for (Book book : findByIds(bookIds, Book.class)) {
+            items.put(CatalogSearchIndex.BOOK + ":" + book.getId(), book);
+        }
+        for (HomeItem homeItem : findByIds(homeItemIds, HomeItem.class)) {
+            items.put(CatalogSearchIndex.HOME_ITEM + ":" + homeItem.getId(), homeItem);
+        }
+        return items;
+    }
+
+    private <T> List<T> findByIds(Collection<String> ids, Class<T> type) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return mongoTemplate.find(query(where("_id").in(ids)), type);
+    }
+
+    static Map<String, String> facetValues(String sellerId, String manufacturer, double price, double ratings,
+                                           int totalQuantity) {
+        Map<String, String> values = new HashMap<>();
+        values.put(CatalogFacetIndex.SELLER, sellerId);
+        values.put(CatalogFacetIndex.MANUFACTURER, manufacturer == null || manufacturer.isBlank() ? null : manufacturer);
+        values.put(CatalogFacetIndex.PRICE, priceRange(price));
+        values.put(CatalogFacetIndex.RATING, String.valueOf((int) Math.floor(Math.max(0, Math.min(5, ratings)))));
+        values.put(CatalogFacetIndex.AVAILABILITY, totalQuantity > 0 ? "inStock" : "outOfStock");
+        return values;
+    }
+
+    // A sharded item's stock is the sum of its shards; StockShardService reindexes it when a take or gather
+    // empties a shard or a release lands on an empty one
+    private int indexedQuantity(String type, String itemId, int totalQuantity, int stockShards) {
+        if (stockShards == 0) {
+            return totalQuantity;
+        }
+        Query shards = query(where("type").is(type).and("itemId").is(itemId));
+        return totalQuantity + mongoTemplate.find(shards, StockShard.class).stream().mapToInt(StockShard::getQuantity).sum();
+    }
+
+    static String priceRange(double price) {
+        int range = 0;
+        while (range < PRICE_BOUNDS.length && price >= PRICE_BOUNDS[range]) {
+            range++;
+        }
+        return PRICE_RANGES.get(range);
+    }
+
+    // The filter as selected values per facet, in the form the facet index stores them
+    private static Map<String, List<String>> selections(CatalogFilter filter) {
+        Map<String, List<String>> selections = new HashMap<>();
+        if (filter == null) {
+            return selections;
+        }
+        if (filter.getTypes() != null) {
+            List<String> types = new ArrayList<>();
+            for (String type : filter.getTypes()) {
+                types.add(indexType(type));
+            }
+            selections.put(CatalogFacetIndex.TYPE, types);
+        }
+        selections.put(CatalogFacetIndex.SELLER, filter.getSellerIds());
+        selections.put(CatalogFacetIndex.MANUFACTURER, filter.getManufacturers());
+        if (filter.getPriceRanges() != null) {
+            for (String range : filter.getPriceRanges()) {
+                if (!PRICE_RANGES.contains(range)) {
+                    throw new IllegalArgumentException("Invalid price range: " + range + " (expected one of " + PRICE_RANGES + ")");
+                }
+            }
+            selections.put(CatalogFacetIndex.PRICE, filter.getPriceRanges());
+        }
+        if (filter.getMinRating() != null && filter.getMinRating() > 0) {
+            if (filter.getMinRating() > 5) {
+                throw new IllegalArgumentException("Invalid minRating: " + filter.getMinRating() + " (expected 0 to 5)");
+            }
+            List<String> stars = new ArrayList<>();
+            for (int rating = filter.getMinRating(); rating <= 5; rating++) {
+                stars.add(String.valueOf(rating));
+            }
+            selections.put(CatalogFacetIndex.RATING, stars);
+        }
+        if (filter.getInStock() != null) {
+            selections.put(CatalogFacetIndex.AVAILABILITY, List.of(filter.getInStock() ? "inStock" : "outOfStock"));
+        }
+        return selections;
+    }
+
+    // Facet values with the most items first, ties by value
+    private static List<Map<String, Object>> byCount(Map<String, Integer> counts, int limit) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Map<String, Object>> values = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            values.add(facetCount(entry.getKey(), entry.getValue()));
+        }
+        return values;
+    }
+
+    private static Map<String, Object> facetCount(String value, int count) {
+        Map<String, Object> facetCount = new HashMap<>();
+        facetCount.put("value", value);
+        facetCount.put("count", count);
+        return facetCount;
+    }
+
+    private static String indexType(String type) {
+        if (type == null || type.isBlank()) return null;
+        if (CatalogSearchIndex.BOOK.equalsIgnoreCase(type)) return CatalogSearchIndex.BOOK;
+        if (CatalogSearchIndex.HOME_ITEM.equalsIgnoreCase(type)) return CatalogSearchIndex.HOME_ITEM;
+        throw new IllegalArgumentException("Invalid type: " + type + " (expected book or home)");
+    }
+
+    // A search cursor is the last hit's (score, key); the next page holds the hits ranked below it
+    private static String encodeCursor(CatalogSearchIndex.Hit hit) {
+        String key = hit.getScore() + ":" + hit.getKey();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CatalogSearchIndex.Hit decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.indexOf(':');
+            return new CatalogSearchIndex.Hit(key.substring(separator + 1), Double.parseDouble(key.substring(0, separator)));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    // A filter cursor is the last item's slot in the facet index
+    private static String encodeSlot(int slot) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(slot).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeSlot(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
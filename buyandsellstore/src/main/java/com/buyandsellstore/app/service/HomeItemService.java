@@ -1,12 +1,13 @@
 package com.buyandsellstore.app.service;
 
+import com.buyandsellstore.app.dto.Connection;
 import com.buyandsellstore.app.model.HomeItem;
 import com.buyandsellstore.app.model.Review;
+import com.buyandsellstore.app.repository.CatalogSort;
 import com.buyandsellstore.app.repository.HomeItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -15,11 +16,44 @@ public class HomeItemService {
     @Autowired
     private HomeItemRepository homeItemRepository;
 
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private StockShardService stockShardService;
+
     public List<HomeItem> getAllHomeItems() {
         return homeItemRepository.findAll();
     }
 
+    /**
+     * One page of the catalog in the given order (newest first by default), continuing after the cursor.
+     */
+    public Connection<HomeItem> getHomeItemsConnection(Integer first, String after, CatalogSort sortBy) {
+        CatalogSort sort = sortBy != null ? sortBy : CatalogSort.NEWEST;
+        int pageSize = CatalogCursor.pageSize(first);
+        CatalogCursor cursor = CatalogCursor.decode(after, sort);
+
+        List<HomeItem> page = cursor == null
+                ? homeItemRepository.findPage(sort, null, null, pageSize + 1)
+                : homeItemRepository.findPage(sort, cursor.getSortValue(), cursor.getId(), pageSize + 1);
+        return CatalogCursor.connection(page, pageSize, sort, HomeItem::getId,
+                homeItem -> sort.sortValue(homeItem.getPrice(), homeItem.getRatings()));
+    }
+
+    // Served from the product cache; the result is shared and must not be modified
     public HomeItem getHomeItemById(String id) {
+        return productCache.get(ProductCache.HOME_ITEM, id, () -> homeItemRepository.findById(id).orElse(null));
+    }
+
+    // Read straight from the database, for callers that need the stored state rather than a cached copy
+    public HomeItem getHomeItemForUpdate(String id) {
         return homeItemRepository.findById(id).orElse(null);
     }
     
@@ -39,82 +73,69 @@ public class HomeItemService {
         return homeItemRepository.findByManufacturer(manufacturer);
     }
 
+    // Takes one unit of stock in a single conditional update; null when the item is missing or sold out
+    public HomeItem takeStock(String id) {
+        return takeStock(id, 1);
+    }
+
+    // Takes quantity units in a single conditional update; null when the item is missing or has fewer left
+    public HomeItem takeStock(String id, int quantity) {
+        // A hot item's stock is spread over shards; its totalQuantity is 0 unless units landed there while unsharding
+        HomeItem homeItem = getHomeItemById(id);
+        if (homeItem != null && homeItem.getStockShards() > 0
+                && stockShardService.take(StockShardService.HOME_ITEM, id, homeItem.getStockShards(), quantity)) {
+            return homeItem;
+        }
+        HomeItem updated = homeItemRepository.decrementStock(id, quantity);
+        if (updated != null) {
+            productCache.evict(ProductCache.HOME_ITEM, id);
+            catalogSearchService.indexHomeItem(updated);
+        }
+        return updated;
+    }
+
+    // Puts quantity units back in a single update; null when the item is missing
+    public HomeItem returnStock(String id, int quantity) {
+        HomeItem homeItem = getHomeItemById(id);
+        if (homeItem != null && homeItem.getStockShards() > 0) {
+            stockShardService.release(StockShardService.HOME_ITEM, id, homeItem.getStockShards(), quantity);
+            return homeItem;
+        }
+        HomeItem updated = homeItemRepository.incrementStock(id, quantity);
+        if (updated != null) {
+            productCache.evict(ProductCache.HOME_ITEM, id);
+            catalogSearchService.indexHomeItem(updated);
+        }
+        return updated;
+    }
+
     public HomeItem save(HomeItem homeItem) {
-        return homeItemRepository.save(homeItem);
+        HomeItem saved = homeItemRepository.save(homeItem);
+        productCache.evict(ProductCache.HOME_ITEM, saved.getId());
+        catalogSearchService.indexHomeItem(saved);
+        return saved;
     }
     
-    // New methods for review management
-    
+    // Reviews live in the reviews collection; each change moves the home item's rating totals in place
+
     // Add a review to a home item
     public HomeItem addReview(String homeItemId, Review newReview) {
-        HomeItem homeItem = homeItemRepository.findById(homeItemId).orElse(null);
-        if (homeItem != null) {
-            List<Review> reviews = homeItem.getReviews();
-            if (reviews == null) reviews = new ArrayList<>();
-            reviews.add(newReview);
-            homeItem.setReviews(reviews);
-            
-            // Update ratings average
-            double totalRating = 0;
-            for (Review review : reviews) {
-                totalRating += review.getRating();
-            }
-            double averageRating = totalRating / reviews.size();
-            homeItem.setRatings(averageRating);
-            
-            homeItemRepository.save(homeItem);
+        if (getHomeItemById(homeItemId) == null) {
+            return null;
         }
-        return homeItem;
+        reviewService.addReview(ReviewService.HOME_ITEM, homeItemId, newReview);
+        return getHomeItemById(homeItemId);
     }
 
     // Update a review by reviewer name
     public HomeItem updateReview(String homeItemId, String reviewer, Review updatedReview) {
-        HomeItem homeItem = homeItemRepository.findById(homeItemId).orElse(null);
-        if (homeItem != null && homeItem.getReviews() != null) {
-            for (Review review : homeItem.getReviews()) {
-                if (review.getReviewer().equalsIgnoreCase(reviewer)) {
-                    review.setComment(updatedReview.getComment());
-                    review.setRating(updatedReview.getRating());
-                    break;
-                }
-            }
-            
-            // Update ratings average
-            List<Review> reviews = homeItem.getReviews();
-            double totalRating = 0;
-            for (Review review : reviews) {
-                totalRating += review.getRating();
-            }
-            double averageRating = totalRating / reviews.size();
-            homeItem.setRatings(averageRating);
-            
-            homeItemRepository.save(homeItem);
-        }
-        return homeItem;
+        reviewService.updateReview(ReviewService.HOME_ITEM, homeItemId, reviewer, updatedReview);
+        return getHomeItemById(homeItemId);
     }
 
     // Delete a review by reviewer name
     public HomeItem deleteReview(String homeItemId, String reviewer) {
-        HomeItem homeItem = homeItemRepository.findById(homeItemId).orElse(null);
-        if (homeItem != null && homeItem.getReviews() != null) {
-            homeItem.getReviews().removeIf(review -> review.getReviewer().equalsIgnoreCase(reviewer));
-            
-            // Update ratings average if there are still reviews
-            List<Review> reviews = homeItem.getReviews();
-            if (!reviews.isEmpty()) {
-                double totalRating = 0;
-                for (Review review : reviews) {
-                    totalRating += review.getRating();
-                }
-                double averageRating = totalRating / reviews.size();
-                homeItem.setRatings(averageRating);
-            } else {
-                // If no reviews are left, reset ratings to 0
-                homeItem.setRatings(0.0);
-            }
-            
-            homeItemRepository.save(homeItem);
-        }
-        return homeItem;
+        reviewService.deleteReviews(ReviewService.HOME_ITEM, homeItemId, reviewer);
+        return getHomeItemById(homeItemId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,179 @@
+package com.buyandsellstore.app.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded in-memory cache: least recently used entries are dropped once maxEntries is reached,
+ * and entries older than the time-to-live are treated as absent. Keeps hit/miss/eviction counts so
+ * the cache can be sized from its metrics. An optional listener hears about every key dropped for size or
+ * age; it runs under the cache's lock and must not call back into the cache.
+ */
+public class LruTtlCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Consumer<K> onEvicted;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LruTtlCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis, key -> { });
+    }
+
+    public LruTtlCache(int maxEntries, long ttlMillis, Consumer<K> onEvicted) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis, onEvicted);
+    }
+
+    LruTtlCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        this(maxEntries, ttlMillis, clock, key -> { });
+    }
+
+    LruTtlCache(int maxEntries, long ttlMillis, LongSupplier clock, Consumer<K> onEvicted) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.onEvicted = onEvicted;
+        // Access order, so iteration starts at the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruTtlCache.this.maxEntries) {
+                    evictions.increment();
+                    LruTtlCache.this.onEvicted.accept(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // The cached value, or null when absent or expired
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt <= clock.getAsLong()) {
+            entries.remove(key);
+            evictions.increment();
+            onEvicted.accept(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong() + ttlMillis));
+        puts.increment();
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    // Removes every entry whose key matches; returns how many were removed
+    public synchronized int invalidateIf(Predicate<K> keyFilter) {
+        int removed = 0;
+        for (Iterator<K> keys = entries.keySet().iterator(); keys.hasNext(); ) {
+            if (keyFilter.test(keys.next())) {
+                keys.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Publishes the hit/miss/size/eviction/put counts as the Micrometer cache metrics of the given cache name
+    public MeterBinder meterBinder(String name) {
+        return new CacheMetrics<>(this, name);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    // Entries dropped for size or age; explicit invalidations are not counted
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class CacheMetrics<K, V> extends CacheMeterBinder<LruTtlCache<K, V>> {
+
+        CacheMetrics(LruTtlCache<K, V> cache, String name) {
+            super(cache, name, Tags.empty());
+        }
+
+        @Override
+        protected Long size() {
+            return (long) getCache().size();
+        }
+
+        @Override
+        protected long hitCount() {
+            return getCache().getHitCount();
+        }
+
+        @Override
+        protected Long missCount() {
+            return getCache().getMissCount();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            return getCache().getEvictionCount();
+        }
+
+        @Override
+        protected long putCount() {
+            return getCache().getPutCount();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.Order;
+
+import java.util.List;
+
+/**
+ * Published by OrderService after an order is saved and the seller rollups are updated, for
+ * components that react to new sales (e.g. dropping cached seller analytics).
+ */
+public class OrderCreatedEvent {
+
+    private final Order order;
+
+    public OrderCreatedEvent(Order order) {
+        this.order = order;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    // The sellers whose sales changed with this order
+    public List<String> getSellerIds() {
+        return order.getSellerIds() != null ? order.getSellerIds() : List.of();
+    }
+}
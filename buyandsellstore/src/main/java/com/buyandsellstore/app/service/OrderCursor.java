@@ -0,0 +1,55 @@
+package com.buyandsellstore.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Keyset position in an order listing sorted by (createdAt, id) descending. Sold item listings also
+ * record which of the order's lines was last returned, since a page may end in the middle of an order.
+ * Encoded as an opaque URL-safe string for GraphQL clients.
+ */
+final class OrderCursor {
+
+    private final Date createdAt;
+    private final String orderId;
+    private final int line;
+
+    OrderCursor(Date createdAt, String orderId, int line) {
+        this.createdAt = createdAt;
+        this.orderId = orderId;
+        this.line = line;
+    }
+
+    Date getCreatedAt() {
+        return createdAt;
+    }
+
+    String getOrderId() {
+        return orderId;
+    }
+
+    int getLine() {
+        return line;
+    }
+
+    String encode() {
+        long millis = createdAt != null ? createdAt.getTime() : 0L;
+        String key = millis + ":" + line + ":" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null for a null/empty cursor (first page)
+    static OrderCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split(":", 3);
+            return new OrderCursor(new Date(Long.parseLong(parts[0])), parts[2], Integer.parseInt(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
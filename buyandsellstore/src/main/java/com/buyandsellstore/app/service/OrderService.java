@@ -1,69 +1,67 @@
 package com.buyandsellstore.app.service;
 
+import com.buyandsellstore.app.dto.Connection;
+import com.buyandsellstore.app.dto.Edge;
 import com.buyandsellstore.app.dto.OrderResponse;
+import com.buyandsellstore.app.dto.PageInfo;
 import com.buyandsellstore.app.model.*;
 import com.buyandsellstore.app.repository.CartRepository;
-import com.buyandsellstore.app.repository.HomeItemRepository;
 import com.buyandsellstore.app.repository.OrderRepository;
-import com.buyandsellstore.app.repository.BookRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import com.buyandsellstore.app.dto.SellerStats;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.ArrayList;
 import java.util.Collections;
 
 import com.buyandsellstore.app.model.Book;
 
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class OrderService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private OrderRepository orderRepository;
 
     public SellerStats getSellerStats(String sellerId) {
-        List<Order> allOrders = orderRepository.findAll();
-
-        Set<String> uniqueBuyers = new HashSet<>();
-        int totalPurchases = 0;
-        double totalRevenue = 0.0;
-        List<String> purchasedBooks = new ArrayList<>();
+        return sellerAnalyticsCache.get(sellerId, "sellerStats", List.of(), () -> {
+            // All-time totals, buyers included, are kept in the seller's rollup; no orders or buyer ids are loaded
+            SellerRollup rollup = sellerRollupService.getRollup(sellerId);
+            return new SellerStats(rollup.getTotalBuyers(), rollup.getTotalPurchases(), rollup.getTotalRevenue());
+        });
+    }
 
-        for (Order order : allOrders) {
-            boolean sellerInOrder = false;
+    @Autowired
+    private BookService bookService; // Make sure this exists or inject BookRepository
 
-            for (CartItem item : order.getItems()) {
-                if (sellerId.equals(item.getSellerId())) {
-                    totalPurchases += item.getQuantity();
-                    totalRevenue += item.getQuantity() * item.getPrice();
-                    purchasedBooks.add(item.getProductName());
-                    sellerInOrder = true;
-                }
-            }
+    @Autowired
+    private HomeItemService homeItemService; // Needed to look up sellerId from home items
 
-            if (sellerInOrder) {
-                uniqueBuyers.add(order.getUserId());
-            }
-        }
+    @Autowired
+    private CartService cartService;
 
-        return new SellerStats(uniqueBuyers.size(), totalPurchases, totalRevenue, new ArrayList<Book>());
-    }
+    @Autowired
+    private ReservationService reservationService;
 
     @Autowired
-    private BookService bookService; // Make sure this exists or inject BookRepository
+    private SellerRollupService sellerRollupService;
 
     @Autowired
-    private BookRepository bookRepository; // Needed to look up sellerId from books
+    private SellerRevenueCubeService sellerRevenueCubeService;
 
     @Autowired
-    private HomeItemRepository homeItemRepository; // Needed to look up sellerId from books
+    private SellerAnalyticsCache sellerAnalyticsCache;
 
     @Autowired
-    private CartService cartService;
+    private ApplicationEventPublisher eventPublisher;
 
     public OrderResponse createOrder(String userId, List<CartItem> items, float totalPrice,
             Address billing, Address shipping, Payment payment) {
@@ -73,12 +71,12 @@ public class OrderService {
 
             for (CartItem item : items) {
                 if ("book".equalsIgnoreCase(item.getType())) {
-                    bookRepository.findById(item.getItemId()).ifPresent(book -> {
+                    Optional.ofNullable(bookService.getBookById(item.getItemId())).ifPresent(book -> {
                         item.setSellerId(book.getSellerId());
                         processedItems.add(item);
                     });
                 } else if ("home".equalsIgnoreCase(item.getType())) {
-                    homeItemRepository.findById(item.getItemId()).ifPresent(homeItem -> {
+                    Optional.ofNullable(homeItemService.getHomeItemById(item.getItemId())).ifPresent(homeItem -> {
                         item.setSellerId(homeItem.getSellerId());
                         processedItems.add(item);
                     });
@@ -88,20 +86,37 @@ public class OrderService {
                 }
             }
 
+            // Turn the buyer's stock holds into the order; a hold that expired needs its units still in stock
+            ReservationService.Conversion conversion = reservationService.convert(userId, processedItems);
+            if (conversion.getUnavailable() != null) {
+                return new OrderResponse(false, "Item not available anymore: " + conversion.getUnavailable().getName(), null);
+            }
+
             // Now create the order using processedItems
             Order order = new Order();
             order.setId(UUID.randomUUID().toString());
             order.setUserId(userId);
             order.setItems(processedItems); // ✅ Use processedItems
+            order.setSellerIds(sellerIdsOf(processedItems));
             order.setTotalPrice(totalPrice);
             order.setBilling(billing);
             order.setShipping(shipping);
             order.setPayment(payment);
             order.setCreatedAt(new Date());
 
-            // Save the order and clear the cart
-            orderRepository.save(order);
-            cartService.removeFromCart(userId, null, null);
+            try {
+                orderRepository.save(order);
+            } catch (RuntimeException e) {
+                // The order was not stored, so the holds and stock taken for it go back
+                reservationService.undo(conversion);
+                throw e;
+            }
+            reservationService.complete(conversion);
+
+            // The order is stored; failures from here on are logged and do not fail it
+            recordSellerRollups(order);
+            publishOrderCreated(order);
+            clearCart(userId);
 
             return new OrderResponse(true, "Order created successfully", order);
         } catch (Exception e) {
@@ -110,6 +125,89 @@ public class OrderService {
         }
     }
 
+    private void clearCart(String userId) {
+        try {
+            cartService.removeFromCart(userId, null, null);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * One page of the seller's sold item lines, newest order first and in order line sequence within an
+     * order. Every order holds at least one of the seller's lines, so pageSize + 1 orders (plus the
+     * partly returned order a cursor points into) are always enough to fill a page.
+     */
+    public Connection<SoldItem> getSoldItemsConnection(String sellerId, Integer first, String after) {
+        int pageSize = pageSize(first);
+        OrderCursor cursor = OrderCursor.decode(after);
+
+        List<Order> orders = cursor == null
+                ? orderRepository.findSellerOrdersPage(sellerId, null, null, false, pageSize + 1)
+                : orderRepository.findSellerOrdersPage(sellerId, cursor.getCreatedAt(), cursor.getOrderId(), true, pageSize + 2);
+
+        List<Edge<SoldItem>> edges = new ArrayList<>();
+        boolean hasNextPage = false;
+        for (Order order : orders) {
+            // Lines up to the cursor's were returned on the previous page
+            int firstLine = cursor != null && order.getId().equals(cursor.getOrderId()) ? cursor.getLine() + 1 : 0;
+            List<CartItem> items = order.getItems();
+            for (int line = firstLine; items != null && line < items.size(); line++) {
+                if (edges.size() == pageSize) {
+                    hasNextPage = true;
+                    break;
+                }
+                CartItem item = items.get(line);
+                SoldItem soldItem = new SoldItem(item.getItemId(), item.getType(), item.getName(), item.getQuantity(),
+                        item.getPrice(), item.getImageUrl(), item.getSellerId(), order.getCreatedAt());
+                edges.add(new Edge<>(new OrderCursor(order.getCreatedAt(), order.getId(), line).encode(), soldItem));
+            }
+            if (hasNextPage) break;
+        }
+        return connection(edges, hasNextPage);
+    }
+
+    private int pageSize(Integer first) {
+        if (first == null) return DEFAULT_PAGE_SIZE;
+        return Math.max(1, Math.min(first, MAX_PAGE_SIZE));
+    }
+
+    private <T> Connection<T> connection(List<Edge<T>> edges, boolean hasNextPage) {
+        String endCursor = edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor();
+        return new Connection<>(edges, new PageInfo(hasNextPage, endCursor));
+    }
+
+    // Listeners (e.g. the seller analytics cache) run after the rollups are updated and each handles its own
+    // failures, so a failed subscription push cannot skip the cache eviction; this catch is the last resort
+    private void publishOrderCreated(Order order) {
+        try {
+            eventPublisher.publishEvent(new OrderCreatedEvent(order));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private List<String> sellerIdsOf(List<CartItem> items) {
+        Set<String> sellerIds = new LinkedHashSet<>();
+        for (CartItem item : items) {
+            if (item.getSellerId() != null) {
+                sellerIds.add(item.getSellerId());
+            }
+        }
+        return new ArrayList<>(sellerIds);
+    }
+
+    // The order is already saved at this point, so a failed rollup update must not fail the checkout;
+    // the seller projections can be repaired with the --rebuild-seller-rollups command
+    private void recordSellerRollups(Order order) {
+        try {
+            sellerRollupService.recordOrder(order);
+            sellerRevenueCubeService.recordOrder(order);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
     // public List<Order> getOrdersByUserId(String userId) {
     // List<Order> orderList = orderRepository.findByUserId(userId);
     // if (orderList.isEmpty()) {
@@ -129,14 +227,33 @@ public class OrderService {
         }
     }
 
+    /**
+     * One page of the user's orders, newest first. Pages are keyset range queries on (createdAt, id),
+     * so the cost of a page does not depend on how far into the history it is.
+     */
+    public Connection<Order> getOrdersConnection(String userId, Integer first, String after) {
+        int pageSize = pageSize(first);
+        OrderCursor cursor = OrderCursor.decode(after);
+
+        // One extra order tells whether there is a next page
+        List<Order> orders = cursor == null
+                ? orderRepository.findUserOrdersPage(userId, null, null, pageSize + 1)
+                : orderRepository.findUserOrdersPage(userId, cursor.getCreatedAt(), cursor.getOrderId(), pageSize + 1);
+
+        List<Edge<Order>> edges = new ArrayList<>();
+        for (Order order : orders.subList(0, Math.min(pageSize, orders.size()))) {
+            edges.add(new Edge<>(new OrderCursor(order.getCreatedAt(), order.getId(), 0).encode(), order));
+        }
+        return connection(edges, orders.size() > pageSize);
+    }
+
     public long removeOrderByUserId(String userId) {
         return orderRepository.removeByUserId(userId);
     }
 
     public List<SoldItem> getSoldItemsBySellerId(String sellerId) {
-        List<Order> allOrders = orderRepository.findAll();
         List<SoldItem> soldItems = new ArrayList<>();
-        for (Order order : allOrders) {
+        orderRepository.forEachSellerOrder(sellerId, null, order -> {
             for (CartItem item : order.getItems()) {
                 if (sellerId.equals(item.getSellerId())) {
                     SoldItem soldItem = new SoldItem(
@@ -152,7 +269,7 @@ public class OrderService {
                     soldItems.add(soldItem); // ✅ Add every matching item separately
                 }
             }
-        }
+        });
         return soldItems;
     }
 }
@@ -0,0 +1,140 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.Order;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs an order scan as several concurrent scans over disjoint createdAt ranges. Each partition folds its
+ * orders into its own accumulator on a dedicated, bounded ForkJoinPool, and the partial results are merged
+ * pairwise as the fork-join tasks complete, so no accumulator is ever shared between threads. A partition's
+ * Mongo read blocks its worker, so it runs as a ManagedBlocker and the pool can add a thread meanwhile.
+ */
+@Component
+public class PartitionedOrderScanner {
+
+    // A scan of the orders created in (createdAfter, createdUntil]; a null bound is open-ended
+    @FunctionalInterface
+    public interface OrderRangeSource {
+        void forEach(Date createdAfter, Date createdUntil, Consumer<Order> consumer);
+    }
+
+    private final ForkJoinPool pool;
+
+    public PartitionedOrderScanner(@Value("${analytics.scan.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Scans (from, to] in the given number of equal createdAt ranges. The last range is left open at the top
+     * so orders created while the scan runs are not split off; a null from means the start of time.
+     */
+    public <A> A scan(OrderRangeSource source, Date from, Date to, int partitions,
+                      Supplier<A> newAccumulator, BiConsumer<A, Order> add, BinaryOperator<A> merge) {
+        long start = from != null ? from.getTime() : 0L;
+        long end = Math.max(to.getTime(), start);
+        int parts = (int) Math.max(1, Math.min(partitions, end - start));
+
+        if (parts == 1) {
+            A accumulator = newAccumulator.get();
+            source.forEach(from, null, order -> add.accept(accumulator, order));
+            return accumulator;
+        }
+        return pool.invoke(new RangeTask<>(source, start, end, 0, parts, parts, from == null,
+                newAccumulator, add, merge));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // Partitions [first, first + count) of parts equal slices of (start, end]; splits in half until one is left
+    private static final class RangeTask<A> extends RecursiveTask<A> {
+        private final OrderRangeSource source;
+        private final long start;
+        private final long end;
+        private final int first;
+        private final int count;
+        private final int parts;
+        private final boolean openStart;
+        private final Supplier<A> newAccumulator;
+        private final BiConsumer<A, Order> add;
+        private final BinaryOperator<A> merge;
+
+        RangeTask(OrderRangeSource source, long start, long end, int first, int count, int parts, boolean openStart,
+                  Supplier<A> newAccumulator, BiConsumer<A, Order> add, BinaryOperator<A> merge) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+            this.first = first;
+            this.count = count;
+            this.parts = parts;
+            this.openStart = openStart;
+            this.newAccumulator = newAccumulator;
+            this.add = add;
+            this.merge = merge;
+        }
+
+        @Override
+        protected A compute() {
+            if (count == 1) {
+                A accumulator = newAccumulator.get();
+                Date after = first == 0 && openStart ? null : new Date(boundary(first));
+                Date until = first == parts - 1 ? null : new Date(boundary(first + 1));
+                try {
+                    ForkJoinPool.managedBlock(new RangeRead(() -> source.forEach(after, until,
+                            order -> add.accept(accumulator, order))));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Order scan interrupted", e);
+                }
+                return accumulator;
+            }
+
+            int half = count / 2;
+            RangeTask<A> upper = new RangeTask<>(source, start, end, first + half, count - half, parts, openStart,
+                    newAccumulator, add, merge);
+            upper.fork();
+            A lower = new RangeTask<>(source, start, end, first, half, parts, openStart,
+                    newAccumulator, add, merge).compute();
+            return merge.apply(lower, upper.join());
+        }
+
+        private long boundary(int index) {
+            return start + (end - start) * index / parts;
+        }
+    }
+
+    // One partition's blocking read
+    private static final class RangeRead implements ForkJoinPool.ManagedBlocker {
+        private final Runnable read;
+        private boolean done;
+
+        RangeRead(Runnable read) {
+            this.read = read;
+        }
+
+        @Override
+        public boolean block() {
+            read.run();
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.buyandsellstore.app.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of Book and HomeItem documents by id, for the lookups that run on every item page,
+ * cart change and order line. Saves and stock changes in BookService and HomeItemService drop the item, and the
+ * time-to-live bounds how long a change made outside the app can go unseen. Cached documents are shared,
+ * so callers must not modify them; stock is taken and returned with single conditional updates in the database.
+ * Hit/miss/size metrics are published as the Micrometer cache metrics of "products".
+ */
+@Component
+public class ProductCache {
+
+    static final String BOOK = "book";
+    static final String HOME_ITEM = "home";
+
+    private final LruTtlCache<String, Object> cache;
+
+    /**
+     * Loads in flight by key, with a generation bumped when that key is evicted, so a document loaded before
+     * a save cannot be stored after it while loads of other items are unaffected. A key's entry lives only
+     * while it is being loaded; stores and evictions of a key run under its map entry, so they cannot cross.
+     */
+    private final ConcurrentHashMap<String, Load> loads = new ConcurrentHashMap<>();
+
+    public ProductCache(
+            @Value("${catalog.cache.max-entries:5000}") int maxEntries,
+            @Value("${catalog.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = new LruTtlCache<>(maxEntries, ttlSeconds * 1000);
+    }
+
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        cache.meterBinder("products").bindTo(meterRegistry);
+    }
+
+    // The cached item, or the loader's result (cached unless null); type is BOOK or HOME_ITEM
+    @SuppressWarnings("unchecked")
+    public <T> T get(String type, String id, Supplier<T> loader) {
+        if (id == null) {
+            return null;
+        }
+        String key = type + ":" + id;
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+
+        long loadedAt = loads.compute(key, (k, load) -> {
+            load = load != null ? load : new Load();
+            load.loaders++;
+            return load;
+        }).generation;
+        T item = null;
+        try {
+            item = loader.get();
+        } finally {
+            T loaded = item;
+            loads.compute(key, (k, load) -> {
+                load.loaders--;
+                if (loaded != null && load.generation == loadedAt) {
+                    cache.put(k, loaded);
+                }
+                return load.loaders == 0 ? null : load;
+            });
+        }
+        return item;
+    }
+
+    public void evict(String type, String id) {
+        loads.compute(type + ":" + id, (key, load) -> {
+            cache.invalidate(key);
+            if (load != null) {
+                load.generation++;
+            }
+            return load;
+        });
+    }
+
+    LruTtlCache<String, Object> getCache() {
+        return cache;
+    }
+
+    // Only changed inside loads.compute; generation is also read right after it
+    private static final class Load {
+        private volatile long generation;
+        private int loaders;
+    }
+}
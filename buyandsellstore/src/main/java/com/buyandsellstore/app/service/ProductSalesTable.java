@@ -0,0 +1,177 @@
+package com.buyandsellstore.app.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-product quantity and revenue totals for one seller, kept in parallel primitive arrays behind an
+ * open-addressing (linear probing) index on the item id. Adding an order line to a product that is already
+ * in the table allocates nothing; the top products are picked with a bounded heap instead of a full sort.
+ */
+final class ProductSalesTable {
+
+    private static final int INITIAL_CAPACITY = 64; // must be a power of two
+
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] types = new String[INITIAL_CAPACITY];
+    private String[] imageUrls = new String[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private double[] revenues = new double[INITIAL_CAPACITY];
+    private int size;
+
+    public void add(String itemId, String name, String type, String imageUrl, int quantity, double revenue) {
+        int slot = slotOf(itemId);
+        if (ids[slot] == null) {
+            ids[slot] = itemId;
+            names[slot] = name;
+            types[slot] = type;
+            imageUrls[slot] = imageUrl;
+            if (++size * 2 > ids.length) {
+                grow();
+                slot = slotOf(itemId);
+            }
+        }
+        quantities[slot] += quantity;
+        revenues[slot] += revenue;
+    }
+
+    // Adds every product total of another table into this one
+    public void addAll(ProductSalesTable other) {
+        for (int slot = 0; slot < other.ids.length; slot++) {
+            if (other.ids[slot] != null) {
+                add(other.ids[slot], other.names[slot], other.types[slot], other.imageUrls[slot],
+                        other.quantities[slot], other.revenues[slot]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The {@code limit} best products by revenue (when metric is "revenue") or quantity, best first,
+     * ties broken by item id.
+     */
+    public List<Map<String, Object>> top(String metric, int limit) {
+        boolean byRevenue = "revenue".equals(metric);
+        int k = Math.min(limit, size);
+
+        // Min-heap of slots holding the best k seen so far; its root is the weakest of them
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int slot = 0; slot < ids.length && k > 0; slot++) {
+            if (ids[slot] == null) continue;
+
+            if (heapSize < k) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++, byRevenue);
+            } else if (ranksBefore(slot, heap[0], byRevenue)) {
+                heap[0] = slot;
+                siftDown(heap, heapSize, byRevenue);
+            }
+        }
+
+        // Draining the min-heap yields the weakest first, so fill the result from the back
+        List<Map<String, Object>> ranked = new ArrayList<>(Collections.nCopies(heapSize, null));
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ranked.set(i, metrics(heap[0]));
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, byRevenue);
+        }
+        return ranked;
+    }
+
+    private Map<String, Object> metrics(int slot) {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("id", ids[slot]);
+        metrics.put("name", names[slot]);
+        metrics.put("type", types[slot]);
+        metrics.put("quantity", quantities[slot]);
+        metrics.put("revenue", revenues[slot]);
+        metrics.put("imageUrl", imageUrls[slot]);
+        return metrics;
+    }
+
+    // True when product a belongs ahead of product b in the top products list
+    private boolean ranksBefore(int a, int b, boolean byRevenue) {
+        int cmp = byRevenue ? Double.compare(revenues[a], revenues[b]) : Integer.compare(quantities[a], quantities[b]);
+        if (cmp != 0) return cmp > 0;
+        return ids[a].compareTo(ids[b]) < 0;
+    }
+
+    private void siftUp(int[] heap, int index, boolean byRevenue) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(heap[parent], slot, byRevenue)) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private void siftDown(int[] heap, int heapSize, boolean byRevenue) {
+        if (heapSize == 0) return;
+        int index = 0;
+        int slot = heap[0];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && ranksBefore(heap[child], heap[child + 1], byRevenue)) {
+                child++;
+            }
+            if (!ranksBefore(slot, heap[child], byRevenue)) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    private int slotOf(String itemId) {
+        int mask = ids.length - 1;
+        int slot = mix(itemId.hashCode()) & mask;
+        while (ids[slot] != null && !ids[slot].equals(itemId)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        String[] oldIds = ids;
+        String[] oldNames = names;
+        String[] oldTypes = types;
+        String[] oldImageUrls = imageUrls;
+        int[] oldQuantities = quantities;
+        double[] oldRevenues = revenues;
+
+        int capacity = oldIds.length * 2;
+        ids = new String[capacity];
+        names = new String[capacity];
+        types = new String[capacity];
+        imageUrls = new String[capacity];
+        quantities = new int[capacity];
+        revenues = new double[capacity];
+
+        for (int old = 0; old < oldIds.length; old++) {
+            if (oldIds[old] == null) continue;
+            int slot = slotOf(oldIds[old]);
+            ids[slot] = oldIds[old];
+            names[slot] = oldNames[old];
+            types[slot] = oldTypes[old];
+            imageUrls[slot] = oldImageUrls[old];
+            quantities[slot] = oldQuantities[old];
+            revenues[slot] = oldRevenues[old];
+        }
+    }
+
+    // Spreads the hash so ids that differ only in their last characters do not cluster
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,96 @@
+package com.buyandsellstore.app.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable quantile sketch with 1% relative accuracy (DDSketch-style): each value is counted in the
+ * logarithmic bucket ceil(log_gamma(value)), so any quantile is within 1% of the true value. Buckets are
+ * plain counters, so a stored sketch is updated with a single $inc and sketches merge by adding counts;
+ * this is what the per-day order value and basket size sketches on SellerRevenueDay rely on.
+ *
+ * Orders from cents to millions span under a thousand buckets; a typical day uses a few dozen.
+ */
+public final class QuantileSketch {
+
+    static final double RELATIVE_ACCURACY = 0.01;
+    static final String ZERO_BUCKET = "z"; // values <= 0
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final TreeMap<Integer, Long> counts = new TreeMap<>();
+    private long zeroCount;
+    private long total;
+
+    public void add(double value) {
+        if (value <= 0) {
+            zeroCount++;
+        } else {
+            counts.merge(bucketIndex(value), 1L, Long::sum);
+        }
+        total++;
+    }
+
+    // Merges a persisted sketch (bucket key -> count)
+    public void merge(Map<String, ? extends Number> storedCounts) {
+        if (storedCounts == null) return;
+        storedCounts.forEach((key, count) -> {
+            long n = count.longValue();
+            if (ZERO_BUCKET.equals(key)) {
+                zeroCount += n;
+            } else {
+                counts.merge(Integer.parseInt(key), n, Long::sum);
+            }
+            total += n;
+        });
+    }
+
+    // The non-empty buckets in the form stored on SellerRevenueDay
+    public Map<String, Long> toStoredCounts() {
+        Map<String, Long> stored = new HashMap<>();
+        counts.forEach((index, count) -> stored.put(String.valueOf(index), count));
+        if (zeroCount > 0) {
+            stored.put(ZERO_BUCKET, zeroCount);
+        }
+        return stored;
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    // The value at quantile q (0..1), or 0 when the sketch is empty
+    public double quantile(double q) {
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.floor(Math.min(Math.max(q, 0.0), 1.0) * (total - 1));
+        if (rank < zeroCount) {
+            return 0.0;
+        }
+        long seen = zeroCount;
+        for (Map.Entry<Integer, Long> bucket : counts.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) {
+                return bucketValue(bucket.getKey());
+            }
+        }
+        return bucketValue(counts.lastKey());
+    }
+
+    // The key of the bucket a value is counted in, as stored on SellerRevenueDay
+    static String bucketKey(double value) {
+        return value <= 0 ? ZERO_BUCKET : String.valueOf(bucketIndex(value));
+    }
+
+    static int bucketIndex(double value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    // The point of bucket (gamma^(i-1), gamma^i] within the relative accuracy of both ends
+    static double bucketValue(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+}
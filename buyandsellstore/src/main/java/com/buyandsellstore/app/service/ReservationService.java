@@ -0,0 +1,267 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.Cart;
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Reservation;
+import com.buyandsellstore.app.repository.ReservationRepository;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Time-limited holds on stock sitting in carts. Adding to a cart takes a unit from the item's totalQuantity
+ * and records it in the user's hold; placing the order converts the hold, and holds left past their expiry
+ * are given back to the item by the reaper, so abandoned carts stop keeping stock from other buyers. Each
+ * step claims or changes a hold in a single conditional update, so a held unit goes back at most once.
+ */
+@Service
+public class ReservationService {
+
+    // Marker written to the migrations collection once every cart line added before holds existed has one
+    static final String MIGRATIONS = "migrations";
+    static final String CART_HOLDS_MIGRATION = "cart-holds";
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private HomeItemService homeItemService;
+
+    @Value("${inventory.reservations.hold-seconds:900}")
+    private long holdSeconds;
+
+    @Value("${inventory.reservations.reaper-batch-size:500}")
+    private int reaperBatchSize;
+
+    // Records one unit, already taken from stock, in the user's hold and restarts the hold's expiry
+    public void hold(String userId, String type, String itemId) {
+        Date expiresAt = new Date(System.currentTimeMillis() + holdSeconds * 1000);
+        reservationRepository.hold(userId, CartService.normalizeType(type), CartService.normalizeItemId(itemId), 1, expiresAt);
+    }
+
+    // Gives one unit of the user's live hold back to stock; false when the hold is gone or expired (the reaper returns those)
+    public boolean release(String userId, String type, String itemId) {
+        String holdType = CartService.normalizeType(type);
+        String holdItemId = CartService.normalizeItemId(itemId);
+        if (!reservationRepository.releaseOne(userId, holdType, holdItemId, new Date())) {
+            return false;
+        }
+        returnStock(holdType, holdItemId, 1);
+        return true;
+    }
+
+    /**
+     * Converts the user's holds into the order's lines. A line takes its units from the hold first and the rest
+     * straight from stock (as when the hold expired before checkout). When a line cannot be covered, everything
+     * taken so far is put back and the conversion names that line as unavailable. Otherwise the caller stores
+     * the order and then calls complete, or undo when the order could not be stored.
+     */
+    public Conversion convert(String userId, List<CartItem> items) {
+        Conversion conversion = new Conversion(userId, items);
+        for (int i = 0; i < items.size(); i++) {
+            CartItem item = items.get(i);
+            String type = CartService.normalizeType(item.getType());
+            if (!isStocked(type)) {
+                continue;
+            }
+            String itemId = CartService.normalizeItemId(item.getItemId());
+            conversion.holds[i] = reservationRepository.claim(userId, type, itemId);
+            int shortfall = item.getQuantity() - heldUnits(conversion.holds[i]);
+            if (shortfall > 0) {
+                if (!takeStock(type, itemId, shortfall)) {
+                    undo(conversion);
+                    conversion.unavailable = item;
+                    return conversion;
+                }
+                conversion.taken[i] = shortfall;
+            }
+        }
+        return conversion;
+    }
+
+    // Finishes a conversion whose order was stored: units held beyond the order go back to stock
+    public void complete(Conversion conversion) {
+        for (int i = 0; i < conversion.items.size(); i++) {
+            Reservation hold = conversion.holds[i];
+            int surplus = heldUnits(hold) - conversion.items.get(i).getQuantity();
+            if (surplus > 0) {
+                returnStock(hold.getType(), hold.getItemId(), surplus);
+            }
+        }
+    }
+
+    // Puts back what the conversion took: units taken from stock, and the claimed holds as they were
+    public void undo(Conversion conversion) {
+        for (int i = 0; i < conversion.items.size(); i++) {
+            String type = CartService.normalizeType(conversion.items.get(i).getType());
+            String itemId = CartService.normalizeItemId(conversion.items.get(i).getItemId());
+            if (conversion.taken[i] > 0) {
+                returnStock(type, itemId, conversion.taken[i]);
+                conversion.taken[i] = 0;
+            }
+            if (conversion.holds[i] != null) {
+                Reservation hold = conversion.holds[i];
+                reservationRepository.hold(conversion.userId, type, itemId, hold.getQuantity(), hold.getExpiresAt());
+                conversion.holds[i] = null;
+            }
+        }
+    }
+
+    // The holds claimed and units taken for one order's lines, by line position
+    public static final class Conversion {
+        private final String userId;
+        private final List<CartItem> items;
+        private final Reservation[] holds;
+        private final int[] taken;
+        private CartItem unavailable;
+
+        private Conversion(String userId, List<CartItem> items) {
+            this.userId = userId;
+            this.items = items;
+            this.holds = new Reservation[items.size()];
+            this.taken = new int[items.size()];
+        }
+
+        // The first line that could not be covered, or null when every line was
+        public CartItem getUnavailable() {
+            return unavailable;
+        }
+    }
+
+    @Value("${inventory.reservations.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!migrateOnStartup) {
+            return;
+        }
+        Thread migration = new Thread(() -> {
+            try {
+                int held = migrateCartHolds();
+                if (held > 0) {
+                    System.out.println("Held " + held + " units already sitting in carts");
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, "cart-hold-migration");
+        migration.setDaemon(true);
+        migration.start();
+    }
+
+    /**
+     * Gives the cart lines added before holds existed a hold on their units, which were taken from stock when
+     * they were added, so checkout and removal treat them like any other line; returns how many units it held.
+     * Runs once: a marker is stored when it finishes. A run interrupted before that can simply be repeated, as
+     * a line only gets the units its hold is missing.
+     */
+    public int migrateCartHolds() {
+        Query done = query(where("_id").is(CART_HOLDS_MIGRATION));
+        if (mongoTemplate.exists(done, MIGRATIONS)) {
+            return 0;
+        }
+        Date expiresAt = new Date(System.currentTimeMillis() + holdSeconds * 1000);
+        int held = 0;
+        try (Stream<Cart> carts = mongoTemplate.stream(new Query(), Cart.class)) {
+            for (Iterator<Cart> it = carts.iterator(); it.hasNext(); ) {
+                Cart cart = it.next();
+                for (CartItem item : cart.getItems()) {
+                    String type = CartService.normalizeType(item.getType());
+                    if (!isStocked(type)) {
+                        continue;
+                    }
+                    String itemId = CartService.normalizeItemId(item.getItemId());
+                    Reservation hold = reservationRepository.findByUserIdAndTypeAndItemId(cart.getUserId(), type, itemId);
+                    int missing = item.getQuantity() - heldUnits(hold);
+                    if (missing > 0) {
+                        reservationRepository.hold(cart.getUserId(), type, itemId, missing, expiresAt);
+                        held += missing;
+                    }
+                }
+            }
+        }
+        mongoTemplate.save(new Document("_id", CART_HOLDS_MIGRATION).append("completedAt", new Date()), MIGRATIONS);
+        return held;
+    }
+
+    @Scheduled(initialDelayString = "${inventory.reservations.reaper-interval-ms:30000}",
+            fixedDelayString = "${inventory.reservations.reaper-interval-ms:30000}")
+    public void reapExpired() {
+        int released = releaseExpired(new Date());
+        if (released > 0) {
+            System.out.println("Released " + released + " units of expired reservations back to stock");
+        }
+    }
+
+    /**
+     * Gives holds that expired before now back to stock, a batch at a time; the units of one item within a
+     * batch go back in a single update. Returns how many units were released.
+     */
+    int releaseExpired(Date now) {
+        int released = 0;
+        List<Reservation> batch;
+        do {
+            batch = reservationRepository.findExpired(now, reaperBatchSize);
+            Map<String, Integer> unitsByItem = new LinkedHashMap<>();
+            for (Reservation expired : batch) {
+                // Skips holds converted by an order or extended by another add since the batch was read
+                Reservation claimed = reservationRepository.claimExpired(expired.getId(), now);
+                if (claimed != null && claimed.getQuantity() > 0) {
+                    unitsByItem.merge(claimed.getType() + ":" + claimed.getItemId(), claimed.getQuantity(), Integer::sum);
+                }
+            }
+            for (Map.Entry<String, Integer> units : unitsByItem.entrySet()) {
+                String key = units.getKey();
+                int separator = key.indexOf(':');
+                returnStock(key.substring(0, separator), key.substring(separator + 1), units.getValue());
+                released += units.getValue();
+            }
+        } while (batch.size() == reaperBatchSize);
+        return released;
+    }
+
+    private static int heldUnits(Reservation hold) {
+        return hold != null ? hold.getQuantity() : 0;
+    }
+
+    private static boolean isStocked(String type) {
+        return ProductCache.BOOK.equals(type) || ProductCache.HOME_ITEM.equals(type);
+    }
+
+    private boolean takeStock(String type, String itemId, int quantity) {
+        return ProductCache.BOOK.equals(type)
+                ? bookService.takeStock(itemId, quantity) != null
+                : homeItemService.takeStock(itemId, quantity) != null;
+    }
+
+    private void returnStock(String type, String itemId, int quantity) {
+        if (ProductCache.BOOK.equals(type)) {
+            bookService.returnStock(itemId, quantity);
+        } else if (ProductCache.HOME_ITEM.equals(type)) {
+            homeItemService.returnStock(itemId, quantity);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.buyandsellstore.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Keyset position in a product's review listing sorted by (createdAt, id) descending. Encoded as an opaque
+ * URL-safe string for GraphQL clients.
+ */
+final class ReviewCursor {
+
+    private final Date createdAt;
+    private final String reviewId;
+
+    ReviewCursor(Date createdAt, String reviewId) {
+        this.createdAt = createdAt;
+        this.reviewId = reviewId;
+    }
+
+    Date getCreatedAt() {
+        return createdAt;
+    }
+
+    String getReviewId() {
+        return reviewId;
+    }
+
+    String encode() {
+        long millis = createdAt != null ? createdAt.getTime() : 0L;
+        String key = millis + ":" + reviewId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null for a null/empty cursor (first page)
+    static ReviewCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split(":", 2);
+            return new ReviewCursor(new Date(Long.parseLong(parts[0])), parts[1]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
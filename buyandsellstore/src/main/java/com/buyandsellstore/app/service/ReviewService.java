@@ -0,0 +1,253 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.dto.Connection;
+import com.buyandsellstore.app.dto.Edge;
+import com.buyandsellstore.app.dto.PageInfo;
+import com.buyandsellstore.app.model.Book;
+import com.buyandsellstore.app.model.HomeItem;
+import com.buyandsellstore.app.model.Review;
+import com.buyandsellstore.app.repository.ReviewRepository;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Reviews of books and home items, stored one document each in the reviews collection and listed newest
+ * first a page at a time. The product document only keeps a summary (reviewCount, ratingSum and their
+ * average in ratings), which every review change moves by its own delta in a single update.
+ */
+@Service
+public class ReviewService {
+
+    public static final String BOOK = ProductCache.BOOK;
+    public static final String HOME_ITEM = ProductCache.HOME_ITEM;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+
+    @Value("${catalog.reviews.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    public Review addReview(String productType, String productId, Review review) {
+        review.setId(null);
+        review.setProductType(productType);
+        review.setProductId(productId);
+        review.setCreatedAt(new Date());
+        Review saved = reviewRepository.insert(review);
+        applyRatingDelta(productType, productId, saved.getRating(), 1);
+        return saved;
+    }
+
+    // Updates the reviewer's review of the product; returns false when they have none
+    public boolean updateReview(String productType, String productId, String reviewer, Review updatedReview) {
+        Update update = new Update().set("comment", updatedReview.getComment()).set("rating", updatedReview.getRating());
+        // Returns the review as it was, so the product's ratingSum can be moved by the difference
+        Review previous = mongoTemplate.findAndModify(reviewerReviews(productType, productId, reviewer), update, Review.class);
+        if (previous == null) {
+            return false;
+        }
+        applyRatingDelta(productType, productId, updatedReview.getRating() - previous.getRating(), 0);
+        return true;
+    }
+
+    // Deletes the reviewer's reviews of the product; returns how many were deleted
+    public long deleteReviews(String productType, String productId, String reviewer) {
+        List<Review> deleted = mongoTemplate.findAllAndRemove(reviewerReviews(productType, productId, reviewer), Review.class);
+        if (!deleted.isEmpty()) {
+            double ratingSum = deleted.stream().mapToDouble(Review::getRating).sum();
+            applyRatingDelta(productType, productId, -ratingSum, -deleted.size());
+        }
+        return deleted.size();
+    }
+
+    private Query reviewerReviews(String productType, String productId, String reviewer) {
+        return query(where("productType").is(productType).and("productId").is(productId)
+                .and("reviewer").regex("^" + Pattern.quote(reviewer) + "$", "i"));
+    }
+
+    // One page of the product's reviews, newest first
+    public Connection<Review> getReviews(String productType, String productId, Integer first, String after) {
+        int pageSize = CatalogCursor.pageSize(first);
+        ReviewCursor cursor = ReviewCursor.decode(after);
+        List<Review> reviews = cursor == null
+                ? reviewRepository.findProductReviewsPage(productType, productId, null, null, pageSize + 1)
+                : reviewRepository.findProductReviewsPage(productType, productId, cursor.getCreatedAt(), cursor.getReviewId(), pageSize + 1);
+
+        List<Edge<Review>> edges = new ArrayList<>();
+        for (Review review : reviews.subList(0, Math.min(pageSize, reviews.size()))) {
+            edges.add(new Edge<>(new ReviewCursor(review.getCreatedAt(), review.getId()).encode(), review));
+        }
+        String endCursor = edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor();
+        return new Connection<>(edges, new PageInfo(reviews.size() > pageSize, endCursor));
+    }
+
+    /**
+     * Moves the product's ratingSum and reviewCount by the given amounts and recomputes ratings from them, all
+     * in one pipeline update on the product document, then refreshes its cached and indexed copies.
+     * Products written before ratingSum existed start from ratings * reviewCount.
+     */
+    void applyRatingDelta(String productType, String productId, double ratingDelta, int countDelta) {
+        AggregationExpression ratingSum = context -> new Document("$add", List.of(
+                new Document("$ifNull", Arrays.asList("$ratingSum", new Document("$multiply", List.of(
+                        new Document("$ifNull", Arrays.asList("$ratings", 0)),
+                        new Document("$ifNull", Arrays.asList("$reviewCount", 0)))))),
+                ratingDelta));
+        AggregationExpression reviewCount = context -> new Document("$add", List.of(
+                new Document("$ifNull", Arrays.asList("$reviewCount", 0)), countDelta));
+        // With no reviews left, both go back to exactly 0 rather than keeping floating-point residue
+        AggregationExpression average = context -> new Document("$cond", List.of(
+                new Document("$gt", List.of("$reviewCount", 0)),
+                new Document("$divide", List.of("$ratingSum", "$reviewCount")), 0));
+        AggregationExpression remainingSum = context -> new Document("$cond", List.of(
+                new Document("$gt", List.of("$reviewCount", 0)), "$ratingSum", 0));
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("ratingSum").toValue(ratingSum)
+                .set("reviewCount").toValue(reviewCount)
+                .set("ratings").toValue(average)
+                .set("ratingSum").toValue(remainingSum);
+        writeSummary(productType, productId, update);
+    }
+
+    /**
+     * Recomputes the product's review summary from the reviews collection; used by the migration, where the
+     * product's existing summary fields cannot be trusted.
+     */
+    void rebuildSummary(String productType, String productId) {
+        Aggregation aggregation = newAggregation(
+                match(where("productType").is(productType).and("productId").is(productId)),
+                group().count().as("count").sum("rating").as("sum"));
+        Document summary = mongoTemplate.aggregate(aggregation, Review.class, Document.class).getUniqueMappedResult();
+        int count = summary != null ? ((Number) summary.get("count")).intValue() : 0;
+        double sum = summary != null ? ((Number) summary.get("sum")).doubleValue() : 0.0;
+
+        Update update = new Update().set("reviewCount", count).set("ratingSum", sum)
+                .set("ratings", count > 0 ? sum / count : 0.0);
+        writeSummary(productType, productId, update);
+    }
+
+    private void writeSummary(String productType, String productId, UpdateDefinition update) {
+        Query product = query(where("_id").is(productId));
+        FindAndModifyOptions returnNew = FindAndModifyOptions.options().returnNew(true);
+        if (BOOK.equals(productType)) {
+            Book book = mongoTemplate.findAndModify(product, update, returnNew, Book.class);
+            productCache.evict(productType, productId);
+            catalogSearchService.indexBook(book);
+        } else {
+            HomeItem homeItem = mongoTemplate.findAndModify(product, update, returnNew, HomeItem.class);
+            productCache.evict(productType, productId);
+            catalogSearchService.indexHomeItem(homeItem);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!migrateOnStartup) {
+            return;
+        }
+        Thread migration = new Thread(() -> {
+            try {
+                int moved = migrateEmbeddedReviews();
+                if (moved > 0) {
+                    System.out.println("Moved " + moved + " embedded reviews to the reviews collection");
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, "review-migration");
+        migration.setDaemon(true);
+        migration.start();
+    }
+
+    /**
+     * Moves reviews still embedded in book and home item documents into the reviews collection; returns how
+     * many were moved. Migrated reviews get ids derived from (product, position), so a run interrupted
+     * between copying and unsetting a product's reviews can simply be repeated.
+     */
+    public int migrateEmbeddedReviews() {
+        return migrateEmbeddedReviews(BOOK, "books") + migrateEmbeddedReviews(HOME_ITEM, "homeItems");
+    }
+
+    private int migrateEmbeddedReviews(String productType, String collection) {
+        Query embedded = query(where("reviews").exists(true));
+        embedded.fields().include("reviews");
+        int moved = 0;
+        try (Stream<Document> products = mongoTemplate.stream(embedded, Document.class, collection)) {
+            for (Iterator<Document> it = products.iterator(); it.hasNext(); ) {
+                Document product = it.next();
+                String productId = product.get("_id").toString();
+                List<Document> embeddedReviews = product.getList("reviews", Document.class, List.of());
+
+                // Embedded reviews were appended, so later positions are newer
+                long createdAt = System.currentTimeMillis() - embeddedReviews.size();
+                List<Review> reviews = new ArrayList<>();
+                for (int i = 0; i < embeddedReviews.size(); i++) {
+                    Document embeddedReview = embeddedReviews.get(i);
+                    Review review = new Review();
+                    review.setId(migratedReviewId(productId, i));
+                    review.setProductType(productType);
+                    review.setProductId(productId);
+                    review.setReviewer(embeddedReview.getString("reviewer"));
+                    review.setComment(embeddedReview.getString("comment"));
+                    Object rating = embeddedReview.get("rating");
+                    review.setRating(rating instanceof Number ? ((Number) rating).doubleValue() : 0.0);
+                    review.setCreatedAt(new Date(createdAt + i));
+                    reviews.add(review);
+                }
+                reviewRepository.saveAll(reviews);
+                mongoTemplate.updateFirst(query(where("_id").is(product.get("_id"))), new Update().unset("reviews"), collection);
+                rebuildSummary(productType, productId);
+                moved += reviews.size();
+            }
+        }
+        return moved;
+    }
+
+    // A stable ObjectId-shaped id: the first 12 bytes of MD5(productId:position)
+    static String migratedReviewId(String productId, int position) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5")
+                    .digest((productId + ":" + position).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
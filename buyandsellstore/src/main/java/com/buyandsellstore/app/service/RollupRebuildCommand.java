@@ -0,0 +1,38 @@
+package com.buyandsellstore.app.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-shot maintenance command: starting the app with --rebuild-seller-rollups recomputes the
+ * seller projections from the orders collection and then exits instead of serving traffic.
+ */
+@Component
+public class RollupRebuildCommand implements ApplicationRunner {
+
+    public static final String OPTION = "rebuild-seller-rollups";
+
+    @Autowired
+    private SellerRollupService sellerRollupService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int sellers = sellerRollupService.rebuildAll();
+        System.out.println("Rebuilt seller rollups for " + sellers + " sellers in "
+                + (System.currentTimeMillis() - start) + " ms");
+
+        System.exit(SpringApplication.exit(applicationContext, () -> 0));
+    }
+}
@@ -0,0 +1,186 @@
+package com.buyandsellstore.app.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches seller analytics results per (seller, query, arguments). A seller's entries only change when
+ * that seller sells something, so they are dropped when an order with one of their items is created;
+ * the time-to-live covers results that move with the clock (e.g. "today" or the current month's label).
+ * Hit/miss/size metrics are published as the Micrometer cache metrics of "sellerAnalytics".
+ */
+@Component
+public class SellerAnalyticsCache {
+
+    private final LruTtlCache<Key, Object> cache;
+
+    /**
+     * Per seller, the keys it has in the cache, so a sale drops just those, and a generation taken from
+     * evictions that is bumped on every sale, so a result computed before a sale cannot be stored after it.
+     * A seller's entry is dropped with its last key once no load of its results is running.
+     */
+    private final ConcurrentHashMap<String, SellerKeys> sellers = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SellerAnalyticsCache(
+            @Value("${analytics.cache.max-entries:10000}") int maxEntries,
+            @Value("${analytics.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = new LruTtlCache<>(maxEntries, ttlSeconds * 1000, this::forget);
+    }
+
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        cache.meterBinder("sellerAnalytics").bindTo(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String sellerId, String query, List<?> arguments, Supplier<T> loader) {
+        Key key = new Key(sellerId, query, arguments);
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+
+        long generation = startLoad(sellerId);
+        T result = null;
+        boolean stored;
+        try {
+            result = loader.get();
+        } finally {
+            stored = finishLoad(key, generation, result != null);
+        }
+        if (stored) {
+            cache.put(key, result);
+            // A sale between finishLoad and the put has already dropped the seller's keys, so drop this one too
+            if (generation(sellerId) != generation) {
+                cache.invalidate(key);
+            }
+        }
+        return result;
+    }
+
+    public void evictSeller(String sellerId) {
+        List<Key> keys = new ArrayList<>();
+        sellers.computeIfPresent(sellerId, (id, seller) -> {
+            seller.generation = evictions.incrementAndGet();
+            keys.addAll(seller.keys);
+            seller.keys.clear();
+            return seller.loading > 0 ? seller : null;
+        });
+        // Outside compute, as the cache calls forget under its own lock
+        keys.forEach(cache::invalidate);
+    }
+
+    // Handles its own failures, so the other OrderCreatedEvent listeners still run
+    @EventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        try {
+            event.getSellerIds().forEach(this::evictSeller);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    LruTtlCache<Key, Object> getCache() {
+        return cache;
+    }
+
+    int trackedSellers() {
+        return sellers.size();
+    }
+
+    private long startLoad(String sellerId) {
+        long[] generation = new long[1];
+        sellers.compute(sellerId, (id, seller) -> {
+            if (seller == null) {
+                seller = new SellerKeys(evictions.get());
+            }
+            seller.loading++;
+            generation[0] = seller.generation;
+            return seller;
+        });
+        return generation[0];
+    }
+
+    // Records the key when the result is to be stored and no sale came in meanwhile; true when it may be cached
+    private boolean finishLoad(Key key, long generation, boolean store) {
+        boolean[] stored = new boolean[1];
+        sellers.computeIfPresent(key.sellerId, (id, seller) -> {
+            seller.loading--;
+            if (store && seller.generation == generation) {
+                seller.keys.add(key);
+                stored[0] = true;
+            }
+            return seller.keys.isEmpty() && seller.loading == 0 ? null : seller;
+        });
+        return stored[0];
+    }
+
+    // A key dropped by the cache for size or age
+    private void forget(Key key) {
+        sellers.computeIfPresent(key.sellerId, (id, seller) -> {
+            seller.keys.remove(key);
+            return seller.keys.isEmpty() && seller.loading == 0 ? null : seller;
+        });
+    }
+
+    private long generation(String sellerId) {
+        SellerKeys seller = sellers.get(sellerId);
+        return seller != null ? seller.generation : -1;
+    }
+
+    // Only changed inside sellers.compute; generation is also read outside it
+    private static final class SellerKeys {
+        private volatile long generation;
+        private int loading;
+        private final Set<Key> keys = new HashSet<>();
+
+        SellerKeys(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    // Arguments are compared by value, so e.g. ("week", "revenue", 5) always maps to the same entry
+    static final class Key {
+        private final String sellerId;
+        private final String query;
+        private final List<?> arguments;
+
+        Key(String sellerId, String query, List<?> arguments) {
+            this.sellerId = sellerId;
+            this.query = query;
+            this.arguments = arguments;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return sellerId.equals(other.sellerId) && query.equals(other.query) && arguments.equals(other.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sellerId, query, arguments);
+        }
+
+        @Override
+        public String toString() {
+            return sellerId + ":" + query + Arrays.toString(arguments.toArray());
+        }
+    }
+}
@@ -1,186 +1,270 @@
 package com.buyandsellstore.app.service;
 
-import com.buyandsellstore.app.model.Book;
-import com.buyandsellstore.app.model.CartItem;
-import com.buyandsellstore.app.model.HomeItem;
+import com.buyandsellstore.app.dto.SellerDashboard;
 import com.buyandsellstore.app.model.Order;
-import com.buyandsellstore.app.model.SoldItem;
-import com.buyandsellstore.app.repository.BookRepository;
-import com.buyandsellstore.app.repository.HomeItemRepository;
+import com.buyandsellstore.app.model.SellerRollup;
 import com.buyandsellstore.app.repository.OrderRepository;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
 
 @Service
 public class SellerAnalyticsService {
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
-    private BookRepository bookRepository;
-    
+    private SellerRollupService sellerRollupService;
+
     @Autowired
-    private HomeItemRepository homeItemRepository;
+    private SellerRevenueCubeService sellerRevenueCubeService;
 
-    public Map<String, Object> getSellerSalesAnalytics(String sellerId, String timeFrame) {
-        Map<String, Object> analytics = new HashMap<>();
-        List<Order> allOrders = orderRepository.findAll();
-        List<Order> filteredOrders = filterOrdersByTimeFrame(allOrders, timeFrame);
-        
-        int totalPurchases = 0;
-        double totalRevenue = 0.0;
-        Set<String> uniqueBuyers = new HashSet<>();
-        
-        for (Order order : filteredOrders) {
-            boolean buyerAdded = false;
-            
-            for (CartItem item : order.getItems()) {
-                if (sellerId.equals(item.getSellerId())) {
-                    totalPurchases += item.getQuantity();
-                    totalRevenue += item.getQuantity() * item.getPrice();
-                    
-                    if (!buyerAdded) {
-                        uniqueBuyers.add(order.getUserId());
-                        buyerAdded = true;
-                    }
-                }
-            }
+    @Autowired
+    private SellerAnalyticsCache sellerAnalyticsCache;
+
+    @Autowired
+    private PartitionedOrderScanner partitionedOrderScanner;
+
+    // createdAt partitions per bounded-time-frame scan; 1 scans sequentially
+    @Value("${analytics.scan.partitions:1}")
+    private int scanPartitions;
+
+    // Scans of at least this many days are large reports and use largeReportPartitions instead
+    @Value("${analytics.scan.large-report-days:180}")
+    private int largeReportDays;
+
+    @Value("${analytics.scan.large-report-partitions:4}")
+    private int largeReportPartitions;
+
+    /**
+     * Buyers, purchases and revenue for the time frame. All-time figures (buyers included) are exact and come
+     * from the seller's rollup. For a bounded time frame the buyer count is estimated from the per-day buyer
+     * sketches unless exact is true, in which case the buyers are grouped one by one.
+     */
+    public Map<String, Object> getSellerSalesAnalytics(String sellerId, String timeFrame, Boolean exact) {
+        boolean exactBuyers = Boolean.TRUE.equals(exact);
+        return sellerAnalyticsCache.get(sellerId, "salesAnalytics", Arrays.asList(timeFrameKey(timeFrame), exactBuyers),
+                () -> computeSellerSalesAnalytics(sellerId, timeFrame, exactBuyers));
+    }
+
+    private Map<String, Object> computeSellerSalesAnalytics(String sellerId, String timeFrame, boolean exact) {
+        Date cutoff = cutoffDate(timeFrame);
+        if (cutoff == null) {
+            // All-time totals are kept pre-aggregated in the seller's rollup
+            SellerRollup rollup = sellerRollupService.getRollup(sellerId);
+            return salesAnalytics(rollup.getTotalBuyers(), rollup.getTotalPurchases(), rollup.getTotalRevenue());
         }
-        
-        analytics.put("totalBuyers", uniqueBuyers.size());
+
+        if (!exact) {
+            List<AggregationOperation> pipeline = sellerLines(sellerId, timeFrame);
+            pipeline.add(group()
+                    .sum("items.quantity").as("totalPurchases")
+                    .sum(lineRevenue()).as("totalRevenue"));
+            Document summary = aggregate(pipeline).stream().findFirst().orElse(new Document());
+
+            long buyers = sellerRevenueCubeService.estimateDistinctBuyers(sellerId, fromDay(cutoff));
+            return salesAnalytics((int) buyers, toInt(summary.get("totalPurchases")), toDouble(summary.get("totalRevenue")));
+        }
+
+        // One row per buyer first, then fold the buyers into a single summary row
+        List<AggregationOperation> pipeline = sellerLines(sellerId, timeFrame);
+        pipeline.add(group("userId")
+                .sum("items.quantity").as("purchases")
+                .sum(lineRevenue()).as("revenue"));
+        pipeline.add(group()
+                .count().as("totalBuyers")
+                .sum("purchases").as("totalPurchases")
+                .sum("revenue").as("totalRevenue"));
+
+        Document summary = aggregate(pipeline).stream().findFirst().orElse(new Document());
+
+        return salesAnalytics(toInt(summary.get("totalBuyers")), toInt(summary.get("totalPurchases")),
+                toDouble(summary.get("totalRevenue")));
+    }
+
+    private Map<String, Object> salesAnalytics(int totalBuyers, int totalPurchases, double totalRevenue) {
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("totalBuyers", totalBuyers);
         analytics.put("totalPurchases", totalPurchases);
         analytics.put("totalRevenue", totalRevenue);
         analytics.put("averageOrderValue", totalPurchases > 0 ? totalRevenue / totalPurchases : 0);
-        
+
         return analytics;
     }
-    
+
     public List<Map<String, Object>> getTopSellingProducts(
             String sellerId, String timeFrame, String metric, Integer limit) {
-        List<Order> allOrders = orderRepository.findAll();
-        List<Order> filteredOrders = filterOrdersByTimeFrame(allOrders, timeFrame);
-        
-        // Extract all items for this seller from the filtered orders
-        List<CartItem> sellerItems = new ArrayList<>();
-        for (Order order : filteredOrders) {
-            for (CartItem item : order.getItems()) {
-                if (sellerId.equals(item.getSellerId())) {
-                    sellerItems.add(item);
-                }
-            }
-        }
-        
-        // Group items by itemId and calculate metrics
-        Map<String, Map<String, Object>> productMetrics = new HashMap<>();
-        
-        for (CartItem item : sellerItems) {
-            String itemId = item.getItemId();
-            String type = item.getType();
-            
-            if (!productMetrics.containsKey(itemId)) {
-                Map<String, Object> metrics = new HashMap<>();
-                metrics.put("id", itemId);
-                metrics.put("name", item.getName());
-                metrics.put("type", type);
-                metrics.put("quantity", 0);
-                metrics.put("revenue", 0.0);
-                metrics.put("imageUrl", item.getImageUrl());
-                
-                productMetrics.put(itemId, metrics);
-            }
-            
-            Map<String, Object> metrics = productMetrics.get(itemId);
-            int currentQuantity = (int) metrics.get("quantity");
-            double currentRevenue = (double) metrics.get("revenue");
-            
-            metrics.put("quantity", currentQuantity + item.getQuantity());
-            metrics.put("revenue", currentRevenue + (item.getQuantity() * item.getPrice()));
-        }
-        
-        // Convert to list and sort by the specified metric
-        List<Map<String, Object>> productList = new ArrayList<>(productMetrics.values());
-        
-        if ("revenue".equals(metric)) {
-            productList.sort((a, b) -> Double.compare((double) b.get("revenue"), (double) a.get("revenue")));
-        } else {
-            productList.sort((a, b) -> Integer.compare((int) b.get("quantity"), (int) a.get("quantity")));
-        }
-        
-        // Apply limit
+        return sellerAnalyticsCache.get(sellerId, "topProducts", Arrays.asList(timeFrameKey(timeFrame), metric, limit),
+                () -> computeTopSellingProducts(sellerId, timeFrame, metric, limit));
+    }
+
+    private List<Map<String, Object>> computeTopSellingProducts(
+            String sellerId, String timeFrame, String metric, Integer limit) {
+        String sortField = "revenue".equals(metric) ? "revenue" : "quantity";
         int resultLimit = limit != null && limit > 0 ? limit : 5;
-        return productList.stream().limit(resultLimit).collect(Collectors.toList());
+
+        List<AggregationOperation> pipeline = sellerLines(sellerId, timeFrame);
+        pipeline.add(group("items.itemId")
+                .first("items.name").as("name")
+                .first("items.type").as("type")
+                .first("items.imageUrl").as("imageUrl")
+                .sum("items.quantity").as("quantity")
+                .sum(lineRevenue()).as("revenue"));
+        pipeline.add(sort(Sort.by(Sort.Direction.DESC, sortField).and(Sort.by(Sort.Direction.ASC, "_id"))));
+        pipeline.add(limit(resultLimit));
+
+        List<Map<String, Object>> productList = new ArrayList<>();
+        for (Document row : aggregate(pipeline)) {
+            Map<String, Object> metrics = new HashMap<>();
+            metrics.put("id", row.get("_id"));
+            metrics.put("name", row.get("name"));
+            metrics.put("type", row.get("type"));
+            metrics.put("quantity", toInt(row.get("quantity")));
+            metrics.put("revenue", toDouble(row.get("revenue")));
+            metrics.put("imageUrl", row.get("imageUrl"));
+            productList.add(metrics);
+        }
+        return productList;
     }
-    
+
     public Map<String, Object> getSalesByCategory(String sellerId, String timeFrame) {
-        List<Order> allOrders = orderRepository.findAll();
-        List<Order> filteredOrders = filterOrdersByTimeFrame(allOrders, timeFrame);
-        
-        Map<String, Map<String, Object>> categories = new HashMap<>();
+        return sellerAnalyticsCache.get(sellerId, "salesByCategory", Arrays.asList(timeFrameKey(timeFrame)),
+                () -> computeSalesByCategory(sellerId, timeFrame));
+    }
+
+    private Map<String, Object> computeSalesByCategory(String sellerId, String timeFrame) {
+        Map<String, Map<String, Object>> categories = new LinkedHashMap<>();
         categories.put("books", createCategoryMetrics("books"));
         categories.put("home", createCategoryMetrics("home"));
-        
-        for (Order order : filteredOrders) {
-            for (CartItem item : order.getItems()) {
-                if (sellerId.equals(item.getSellerId())) {
-                    String type = item.getType().toLowerCase();
-                    
-                    if (categories.containsKey(type)) {
-                        Map<String, Object> metrics = categories.get(type);
-                        int count = (int) metrics.get("count");
-                        double revenue = (double) metrics.get("revenue");
-                        
-                        metrics.put("count", count + item.getQuantity());
-                        metrics.put("revenue", revenue + (item.getQuantity() * item.getPrice()));
-                    }
-                }
+
+        List<AggregationOperation> pipeline = sellerLines(sellerId, timeFrame);
+        pipeline.add(project()
+                .and(StringOperators.valueOf("items.type").toLower()).as("category")
+                .and("items.quantity").as("quantity")
+                .and(lineRevenue()).as("revenue"));
+        pipeline.add(group("category")
+                .sum("quantity").as("count")
+                .sum("revenue").as("revenue"));
+
+        for (Document row : aggregate(pipeline)) {
+            Map<String, Object> metrics = categories.get(categoryName(row.getString("_id")));
+            if (metrics != null) {
+                metrics.put("count", (int) metrics.get("count") + toInt(row.get("count")));
+                metrics.put("revenue", (double) metrics.get("revenue") + toDouble(row.get("revenue")));
             }
         }
-        
+
         Map<String, Object> result = new HashMap<>();
-        result.put("categories", categories);
-        
+        result.put("categories", new ArrayList<>(categories.values()));
+
         return result;
     }
-    
+
     public Map<String, Object> getRevenueOverTime(String sellerId, String timeFrame, String groupBy) {
-        List<Order> allOrders = orderRepository.findAll();
-        List<Order> filteredOrders = filterOrdersByTimeFrame(allOrders, timeFrame);
-        
-        Map<String, Double> timeBasedRevenue = new HashMap<>();
-        
-        for (Order order : filteredOrders) {
-            String timeKey = formatTimeKey(order.getCreatedAt(), groupBy);
-            
-            double orderRevenue = 0.0;
-            for (CartItem item : order.getItems()) {
-                if (sellerId.equals(item.getSellerId())) {
-                    orderRevenue += item.getQuantity() * item.getPrice();
-                }
-            }
-            
-            if (orderRevenue > 0) {
-                timeBasedRevenue.put(timeKey, 
-                        timeBasedRevenue.getOrDefault(timeKey, 0.0) + orderRevenue);
-            }
+        // Served from the (seller, day) revenue buckets, so the cost follows the chart range, not the order history
+        return sellerAnalyticsCache.get(sellerId, "revenueOverTime", Arrays.asList(timeFrameKey(timeFrame), groupBy),
+                () -> sellerRevenueCubeService.getRevenueSeries(sellerId, fromDay(cutoffDate(timeFrame)), groupBy));
+    }
+
+    // Percentiles of order value and basket size, merged from the per-day sketches rather than sorting orders
+    public Map<String, Object> getOrderValueDistribution(String sellerId, String timeFrame) {
+        return sellerAnalyticsCache.get(sellerId, "orderValueDistribution", Arrays.asList(timeFrameKey(timeFrame)),
+                () -> sellerRevenueCubeService.getOrderValueDistribution(sellerId, fromDay(cutoffDate(timeFrame))));
+    }
+
+    /**
+     * Everything the seller dashboard shows, computed from one pass over the seller's orders in the time
+     * frame (or from the rollup for all-time). Revenue over time comes from the day buckets, not the scan.
+     */
+    public SellerDashboard getSellerDashboard(String sellerId, String timeFrame, String groupBy, String metric,
+                                              Integer limit, Boolean exact) {
+        SellerSalesAccumulator sales = getSellerSales(sellerId, timeFrame, Boolean.TRUE.equals(exact));
+        return new SellerDashboard(
+                sales.salesAnalytics(),
+                sales.topProducts(metric, limit),
+                sales.salesByCategory(),
+                getRevenueOverTime(sellerId, timeFrame, groupBy));
+    }
+
+    // The seller's sales in the time frame; buyer ids are only collected for an exact count of a bounded time frame
+    public SellerSalesAccumulator getSellerSales(String sellerId, String timeFrame, boolean exactBuyers) {
+        return sellerAnalyticsCache.get(sellerId, "sales", Arrays.asList(timeFrameKey(timeFrame), exactBuyers),
+                () -> computeSellerSales(sellerId, timeFrame, exactBuyers));
+    }
+
+    private SellerSalesAccumulator computeSellerSales(String sellerId, String timeFrame, boolean exactBuyers) {
+        Date cutoff = cutoffDate(timeFrame);
+        if (cutoff == null) {
+            SellerSalesAccumulator sales = new SellerSalesAccumulator(sellerId, false);
+            sales.addRollup(sellerRollupService.getRollup(sellerId));
+            return sales;
         }
-        
-        Map<String, Object> result = new HashMap<>();
-        result.put("timeLabels", new ArrayList<>(timeBasedRevenue.keySet()));
-        result.put("revenueValues", new ArrayList<>(timeBasedRevenue.values()));
-        
-        return result;
+
+        // A large report is scanned as concurrent createdAt partitions, each with its own accumulator
+        Date now = new Date();
+        SellerSalesAccumulator sales = partitionedOrderScanner.scan(
+                (after, until, consumer) -> orderRepository.forEachSellerOrder(sellerId, after, until, consumer),
+                cutoff, now, scanPartitions(cutoff, now),
+                () -> new SellerSalesAccumulator(sellerId, exactBuyers),
+                SellerSalesAccumulator::add,
+                SellerSalesAccumulator::merge);
+        if (!exactBuyers) {
+            sales.addBuyerCount(sellerRevenueCubeService.estimateDistinctBuyers(sellerId, fromDay(cutoff)));
+        }
+        return sales;
+    }
+
+    // Partitions for a scan of (from, to]: only large reports are split, everything else follows scanPartitions
+    int scanPartitions(Date from, Date to) {
+        long days = ChronoUnit.DAYS.between(from.toInstant(), to.toInstant());
+        return days >= largeReportDays ? largeReportPartitions : Math.max(1, scanPartitions);
+    }
+
+    // Orders containing the seller (and inside the time frame), unwound to just that seller's lines
+    private List<AggregationOperation> sellerLines(String sellerId, String timeFrame) {
+        Criteria orderCriteria = Criteria.where("sellerIds").is(sellerId);
+        Date cutoff = cutoffDate(timeFrame);
+        if (cutoff != null) {
+            orderCriteria = orderCriteria.and("createdAt").gt(cutoff);
+        }
+
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        pipeline.add(match(orderCriteria));
+        pipeline.add(unwind("items"));
+        pipeline.add(match(Criteria.where("items.sellerId").is(sellerId)));
+        return pipeline;
+    }
+
+    private AggregationExpression lineRevenue() {
+        return ArithmeticOperators.valueOf("items.quantity").multiplyBy("items.price");
     }
-    
+
+    private List<Document> aggregate(List<AggregationOperation> pipeline) {
+        Aggregation aggregation = newAggregation(pipeline);
+        return mongoTemplate.aggregate(aggregation, Order.class, Document.class).getMappedResults();
+    }
+
     private Map<String, Object> createCategoryMetrics(String category) {
         Map<String, Object> metrics = new HashMap<>();
         metrics.put("name", category);
@@ -188,33 +272,22 @@ public class SellerAnalyticsService {
         metrics.put("revenue", 0.0);
         return metrics;
     }
-    
-    private String formatTimeKey(Date date, String groupBy) {
-        if (date == null) return "unknown";
-        
-        LocalDate localDate = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        
-        if ("daily".equals(groupBy)) {
-            return localDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
-        } else if ("weekly".equals(groupBy)) {
-            int weekOfYear = localDate.get(java.time.temporal.WeekFields.ISO.weekOfYear());
-            return "Week " + weekOfYear + ", " + localDate.getYear();
-        } else if ("monthly".equals(groupBy)) {
-            return localDate.getMonth().toString() + " " + localDate.getYear();
-        } else {
-            // Default to monthly
-            return localDate.getMonth().toString() + " " + localDate.getYear();
-        }
+
+    // Order lines store the singular "book" type while the dashboard reports a "books" category
+    static String categoryName(String type) {
+        if (type == null) return null;
+        String category = type.toLowerCase();
+        return "book".equals(category) ? "books" : category;
     }
-    
-    private List<Order> filterOrdersByTimeFrame(List<Order> orders, String timeFrame) {
+
+    private Date cutoffDate(String timeFrame) {
         if (timeFrame == null || "all".equalsIgnoreCase(timeFrame)) {
-            return orders;
+            return null;
         }
-        
+
         LocalDateTime cutoffDate;
         LocalDateTime now = LocalDateTime.now();
-        
+
         switch (timeFrame.toLowerCase()) {
             case "today":
                 cutoffDate = now.truncatedTo(ChronoUnit.DAYS);
@@ -229,17 +302,26 @@ public class SellerAnalyticsService {
                 cutoffDate = now.minus(365, ChronoUnit.DAYS);
                 break;
             default:
-                return orders;
+                return null;
         }
-        
-        return orders.stream()
-                .filter(order -> {
-                    if (order.getCreatedAt() == null) return false;
-                    LocalDateTime orderDate = order.getCreatedAt().toInstant()
-                            .atZone(ZoneId.systemDefault())
-                            .toLocalDateTime();
-                    return orderDate.isAfter(cutoffDate);
-                })
-                .collect(Collectors.toList());
-    }
-}
\ No newline at end of file
+
+        return Date.from(cutoffDate.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private String timeFrameKey(String timeFrame) {
+        return cutoffDate(timeFrame) == null ? "all" : timeFrame.toLowerCase();
+    }
+
+    // The day buckets are whole days, so a cutoff part-way through a day starts at that day's bucket
+    private LocalDate fromDay(Date cutoff) {
+        return cutoff != null ? cutoff.toInstant().atZone(SellerRevenueCubeService.ZONE).toLocalDate() : null;
+    }
+
+    private int toInt(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    private double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+}
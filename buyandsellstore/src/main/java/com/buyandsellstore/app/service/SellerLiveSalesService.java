@@ -0,0 +1,124 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.dto.LiveSales;
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory sales counters for the last few minutes and the last hour, fed by new orders. Each seller has a
+ * ring of 300 one-second slots and one of 60 one-minute slots, so live reads never touch the database.
+ *
+ * The counters only hold what this instance saw since it started; the stored rollups remain the record.
+ */
+@Service
+public class SellerLiveSalesService {
+
+    static final int SECOND_SLOTS = 300;
+    static final int MINUTE_SLOTS = 60;
+
+    private static final String DEFAULT_WINDOW = "5m";
+    private static final Pattern WINDOW = Pattern.compile("(\\d+)([smh])");
+
+    private final Map<String, SellerCounters> counters = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public SellerLiveSalesService() {
+        this(System::currentTimeMillis);
+    }
+
+    SellerLiveSalesService(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    // Handles its own failures, so the other OrderCreatedEvent listeners still run
+    @EventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        try {
+            recordOrder(event.getOrder());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Adds the order's lines to the counters of each seller in it
+    public void recordOrder(Order order) {
+        if (order.getItems() == null || order.getSellerIds() == null) return;
+        long now = clock.getAsLong();
+        long createdAt = order.getCreatedAt() != null ? order.getCreatedAt().getTime() : now;
+
+        for (String sellerId : order.getSellerIds()) {
+            long units = 0;
+            double revenue = 0;
+            for (CartItem item : order.getItems()) {
+                if (sellerId.equals(item.getSellerId())) {
+                    units += item.getQuantity();
+                    revenue += item.getPrice() * item.getQuantity();
+                }
+            }
+            if (units > 0) {
+                counters.computeIfAbsent(sellerId, id -> new SellerCounters()).record(createdAt, now, units, revenue);
+            }
+        }
+    }
+
+    /**
+     * Sales in the trailing window, e.g. "30s", "5m" or "1h" (default "5m"). Windows of up to five minutes
+     * are counted per second; longer ones per minute, including the current partial minute. The per-second
+     * ring does not reach back far enough to fill in the oldest partial minute of a longer window, so those
+     * up to 59 seconds are left out (see LiveSales).
+     */
+    public LiveSales getLiveSales(String sellerId, String window) {
+        String label = window == null || window.isBlank() ? DEFAULT_WINDOW : window.trim().toLowerCase();
+        int windowSeconds = windowSeconds(label);
+
+        SellerCounters sellerCounters = counters.get(sellerId);
+        if (sellerCounters == null) {
+            return new LiveSales(label, windowSeconds, 0, 0, 0.0);
+        }
+        double[] totals = sellerCounters.sum(windowSeconds, clock.getAsLong());
+        return new LiveSales(label, windowSeconds, (int) totals[0], (int) totals[1], totals[2]);
+    }
+
+    static int windowSeconds(String window) {
+        Matcher matcher = WINDOW.matcher(window);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid window: " + window + " (expected e.g. 30s, 5m or 1h)");
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        long seconds = switch (matcher.group(2)) {
+            case "s" -> amount;
+            case "m" -> amount * 60;
+            default -> amount * 3600;
+        };
+        if (seconds < 1 || seconds > MINUTE_SLOTS * 60L) {
+            throw new IllegalArgumentException("Window must be between 1s and 1h: " + window);
+        }
+        return (int) seconds;
+    }
+
+    private static final class SellerCounters {
+        private final SlidingWindowCounter perSecond = new SlidingWindowCounter(SECOND_SLOTS, 1000L);
+        private final SlidingWindowCounter perMinute = new SlidingWindowCounter(MINUTE_SLOTS, 60_000L);
+
+        void record(long createdAt, long now, long units, double revenue) {
+            perSecond.record(createdAt, now, 1, units, revenue);
+            perMinute.record(createdAt, now, 1, units, revenue);
+        }
+
+        double[] sum(int windowSeconds, long now) {
+            if (windowSeconds <= SECOND_SLOTS) {
+                return perSecond.sum(windowSeconds, now);
+            }
+            // The current partial minute and the full minutes before it; the far edge's partial minute is not kept
+            return perMinute.sum((windowSeconds + 59) / 60, now);
+        }
+    }
+}
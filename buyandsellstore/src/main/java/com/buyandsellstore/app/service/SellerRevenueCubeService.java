@@ -0,0 +1,322 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import com.buyandsellstore.app.model.SellerRevenueDay;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Keeps a (seller, day) revenue bucket per calendar day, updated when orders are written,
+ * and serves revenue-over-time series from those buckets instead of rescanning order history.
+ */
+@Service
+public class SellerRevenueCubeService {
+
+    // Calendar days are cut in the server's time zone, as the dashboard always has been
+    static final ZoneId ZONE = ZoneId.systemDefault();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public void recordOrder(Order order) {
+        if (order.getCreatedAt() == null) {
+            return;
+        }
+        String day = dayOf(order.getCreatedAt());
+
+        Map<String, double[]> totalsBySeller = new LinkedHashMap<>(); // sellerId -> {revenue, units}
+        for (CartItem item : order.getItems()) {
+            if (item.getSellerId() != null) {
+                double[] totals = totalsBySeller.computeIfAbsent(item.getSellerId(), id -> new double[2]);
+                totals[0] += item.getQuantity() * item.getPrice();
+                totals[1] += item.getQuantity();
+            }
+        }
+
+        totalsBySeller.forEach((sellerId, totals) -> {
+            Update update = new Update()
+                    .setOnInsert("sellerId", sellerId)
+                    .setOnInsert("day", day)
+                    .inc("revenue", totals[0])
+                    .inc("units", (int) totals[1])
+                    .inc("orders", 1)
+                    .inc("orderValueSketch." + QuantileSketch.bucketKey(totals[0]), 1)
+                    .inc("basketSizeSketch." + QuantileSketch.bucketKey(totals[1]), 1);
+            if (order.getUserId() != null) {
+                // Adding the buyer to the day's sketch is a $max on the one register their id hashes to
+                long hash = HyperLogLog.hash(order.getUserId());
+                update.max("buyerSketch." + HyperLogLog.registerIndex(hash), HyperLogLog.registerValue(hash));
+            }
+            mongoTemplate.upsert(query(where("_id").is(SellerRevenueDay.idFor(sellerId, day))), update, SellerRevenueDay.class);
+        });
+    }
+
+    /**
+     * Revenue per day, ISO week or month (the default), oldest first, with empty periods filled with 0.
+     * A null fromDay means the seller's whole history.
+     */
+    public Map<String, Object> getRevenueSeries(String sellerId, LocalDate fromDay, String groupBy) {
+        Criteria criteria = where("sellerId").is(sellerId);
+        if (fromDay != null) {
+            criteria = criteria.and("day").gte(fromDay.toString());
+        }
+        Query bucketQuery = query(criteria).with(Sort.by(Sort.Direction.ASC, "day"));
+        bucketQuery.fields().include("day", "revenue");
+
+        TreeMap<LocalDate, Double> revenueByPeriod = new TreeMap<>();
+        for (SellerRevenueDay bucket : mongoTemplate.find(bucketQuery, SellerRevenueDay.class)) {
+            LocalDate period = periodStart(LocalDate.parse(bucket.getDay()), groupBy);
+            revenueByPeriod.merge(period, bucket.getRevenue(), Double::sum);
+        }
+
+        List<String> timeLabels = new ArrayList<>();
+        List<Double> revenueValues = new ArrayList<>();
+
+        LocalDate first = fromDay != null ? periodStart(fromDay, groupBy)
+                : revenueByPeriod.isEmpty() ? null : revenueByPeriod.firstKey();
+        if (first != null) {
+            LocalDate last = periodStart(LocalDate.now(ZONE), groupBy);
+            if (!revenueByPeriod.isEmpty() && revenueByPeriod.lastKey().isAfter(last)) {
+                last = revenueByPeriod.lastKey();
+            }
+            for (LocalDate period = first; !period.isAfter(last); period = nextPeriod(period, groupBy)) {
+                timeLabels.add(formatPeriod(period, groupBy));
+                revenueValues.add(revenueByPeriod.getOrDefault(period, 0.0));
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("timeLabels", timeLabels);
+        result.put("revenueValues", revenueValues);
+        return result;
+    }
+
+    /**
+     * Estimated number of distinct buyers since fromDay (the whole history when null), merged from the
+     * per-day buyer sketches; uses a fixed 2 KB whatever the number of buyers.
+     */
+    public long estimateDistinctBuyers(String sellerId, LocalDate fromDay) {
+        Criteria criteria = where("sellerId").is(sellerId);
+        if (fromDay != null) {
+            criteria = criteria.and("day").gte(fromDay.toString());
+        }
+        Query bucketQuery = query(criteria);
+        bucketQuery.fields().include("buyerSketch");
+
+        HyperLogLog buyers = new HyperLogLog();
+        for (SellerRevenueDay bucket : mongoTemplate.find(bucketQuery, SellerRevenueDay.class)) {
+            buyers.merge(bucket.getBuyerSketch());
+        }
+        return buyers.estimate();
+    }
+
+    /**
+     * Median, p90 and p99 of the seller's per-order revenue and units since fromDay (the whole history when
+     * null), merged from the per-day sketches; each is within 1% of the exact percentile.
+     */
+    public Map<String, Object> getOrderValueDistribution(String sellerId, LocalDate fromDay) {
+        Criteria criteria = where("sellerId").is(sellerId);
+        if (fromDay != null) {
+            criteria = criteria.and("day").gte(fromDay.toString());
+        }
+        Query bucketQuery = query(criteria);
+        bucketQuery.fields().include("orderValueSketch", "basketSizeSketch");
+
+        QuantileSketch orderValues = new QuantileSketch();
+        QuantileSketch basketSizes = new QuantileSketch();
+        for (SellerRevenueDay bucket : mongoTemplate.find(bucketQuery, SellerRevenueDay.class)) {
+            orderValues.merge(bucket.getOrderValueSketch());
+            basketSizes.merge(bucket.getBasketSizeSketch());
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("orders", orderValues.getCount());
+        result.put("orderValue", percentiles(orderValues));
+        result.put("basketSize", percentiles(basketSizes));
+        return result;
+    }
+
+    private Map<String, Object> percentiles(QuantileSketch sketch) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("p50", sketch.quantile(0.5));
+        result.put("p90", sketch.quantile(0.9));
+        result.put("p99", sketch.quantile(0.99));
+        return result;
+    }
+
+    // Recomputes one seller's day buckets from the orders collection
+    public void rebuildSeller(String sellerId) {
+        mongoTemplate.remove(query(where("sellerId").is(sellerId)), SellerRevenueDay.class);
+
+        Aggregation days = newAggregation(
+                match(Criteria.where("sellerIds").is(sellerId).and("createdAt").ne(null)),
+                unwind("items"),
+                match(Criteria.where("items.sellerId").is(sellerId)),
+                project()
+                        .and(DateOperators.dateOf("createdAt").withTimezone(DateOperators.Timezone.fromZone(ZONE))
+                                .toString("%Y-%m-%d")).as("day")
+                        .and("_id").as("orderId")
+                        .and("items.quantity").as("units")
+                        .and(ArithmeticOperators.valueOf("items.quantity").multiplyBy("items.price")).as("revenue"),
+                group("day", "orderId").sum("revenue").as("revenue").sum("units").as("units"),
+                group("day").sum("revenue").as("revenue").sum("units").as("units").count().as("orders"),
+                project("revenue", "units", "orders")
+                        .and(StringOperators.Concat.stringValue(sellerId + ":").concatValueOf("_id")).as("_id")
+                        .and(LiteralOperators.Literal.asLiteral(sellerId)).as("sellerId")
+                        .and("_id").as("day"),
+                new MergeOperation.MergeOperationBuilder()
+                        .intoCollection(mongoTemplate.getCollectionName(SellerRevenueDay.class))
+                        .whenMatched(MergeOperation.WhenDocumentsMatch.replaceDocument())
+                        .build());
+        mongoTemplate.aggregate(days, Order.class, Document.class);
+        rebuildBuyerSketches(sellerId);
+        rebuildOrderSketches(sellerId);
+    }
+
+    // Streams the seller's distinct (day, buyer) pairs in day order and writes each day's sketch once it is complete
+    private void rebuildBuyerSketches(String sellerId) {
+        Aggregation dayBuyers = newAggregation(
+                match(Criteria.where("sellerIds").is(sellerId).and("createdAt").ne(null).and("userId").ne(null)),
+                project("userId")
+                        .and(DateOperators.dateOf("createdAt").withTimezone(DateOperators.Timezone.fromZone(ZONE))
+                                .toString("%Y-%m-%d")).as("day"),
+                group("day", "userId"),
+                sort(Sort.Direction.ASC, "_id.day"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        String currentDay = null;
+        HyperLogLog sketch = null;
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(dayBuyers, Order.class, Document.class)) {
+            for (Document row : (Iterable<Document>) rows::iterator) {
+                Document key = row.get("_id", Document.class);
+                String day = key.getString("day");
+                if (!day.equals(currentDay)) {
+                    saveBuyerSketch(sellerId, currentDay, sketch);
+                    currentDay = day;
+                    sketch = new HyperLogLog();
+                }
+                sketch.add(key.getString("userId"));
+            }
+        }
+        saveBuyerSketch(sellerId, currentDay, sketch);
+    }
+
+    // Streams the seller's per-order revenue and units in day order, writing each day's sketches once it is complete
+    private void rebuildOrderSketches(String sellerId) {
+        Aggregation orderTotals = newAggregation(
+                match(Criteria.where("sellerIds").is(sellerId).and("createdAt").ne(null)),
+                unwind("items"),
+                match(Criteria.where("items.sellerId").is(sellerId)),
+                project()
+                        .and(DateOperators.dateOf("createdAt").withTimezone(DateOperators.Timezone.fromZone(ZONE))
+                                .toString("%Y-%m-%d")).as("day")
+                        .and("_id").as("orderId")
+                        .and("items.quantity").as("units")
+                        .and(ArithmeticOperators.valueOf("items.quantity").multiplyBy("items.price")).as("revenue"),
+                group("day", "orderId").sum("revenue").as("revenue").sum("units").as("units"),
+                sort(Sort.Direction.ASC, "_id.day"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        String currentDay = null;
+        QuantileSketch orderValues = null;
+        QuantileSketch basketSizes = null;
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(orderTotals, Order.class, Document.class)) {
+            for (Document row : (Iterable<Document>) rows::iterator) {
+                String day = row.get("_id", Document.class).getString("day");
+                if (!day.equals(currentDay)) {
+                    saveOrderSketches(sellerId, currentDay, orderValues, basketSizes);
+                    currentDay = day;
+                    orderValues = new QuantileSketch();
+                    basketSizes = new QuantileSketch();
+                }
+                orderValues.add(((Number) row.get("revenue")).doubleValue());
+                basketSizes.add(((Number) row.get("units")).doubleValue());
+            }
+        }
+        saveOrderSketches(sellerId, currentDay, orderValues, basketSizes);
+    }
+
+    private void saveOrderSketches(String sellerId, String day, QuantileSketch orderValues, QuantileSketch basketSizes) {
+        if (day == null) return;
+        mongoTemplate.updateFirst(query(where("_id").is(SellerRevenueDay.idFor(sellerId, day))),
+                new Update().set("orderValueSketch", orderValues.toStoredCounts())
+                        .set("basketSizeSketch", basketSizes.toStoredCounts()), SellerRevenueDay.class);
+    }
+
+    private void saveBuyerSketch(String sellerId, String day, HyperLogLog sketch) {
+        if (day == null) return;
+        mongoTemplate.updateFirst(query(where("_id").is(SellerRevenueDay.idFor(sellerId, day))),
+                new Update().set("buyerSketch", sketch.toSparseRegisters()), SellerRevenueDay.class);
+    }
+
+    public void removeSellersOtherThan(List<String> sellerIds) {
+        mongoTemplate.remove(query(where("sellerId").nin(sellerIds)), SellerRevenueDay.class);
+    }
+
+    static String dayOf(Date date) {
+        return date.toInstant().atZone(ZONE).toLocalDate().toString();
+    }
+
+    private LocalDate periodStart(LocalDate day, String groupBy) {
+        if ("daily".equals(groupBy)) {
+            return day;
+        } else if ("weekly".equals(groupBy)) {
+            return day.with(DayOfWeek.MONDAY);
+        } else {
+            // Default to monthly
+            return day.withDayOfMonth(1);
+        }
+    }
+
+    private LocalDate nextPeriod(LocalDate period, String groupBy) {
+        if ("daily".equals(groupBy)) {
+            return period.plusDays(1);
+        } else if ("weekly".equals(groupBy)) {
+            return period.plusWeeks(1);
+        } else {
+            return period.plusMonths(1);
+        }
+    }
+
+    private String formatPeriod(LocalDate period, String groupBy) {
+        if ("daily".equals(groupBy)) {
+            return period.format(DateTimeFormatter.ISO_LOCAL_DATE);
+        } else if ("weekly".equals(groupBy)) {
+            return "Week " + period.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR) + ", " + period.get(IsoFields.WEEK_BASED_YEAR);
+        } else {
+            return period.getMonth().toString() + " " + period.getYear();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import com.buyandsellstore.app.model.SellerBuyer;
+import com.buyandsellstore.app.model.SellerRollup;
+import com.buyandsellstore.app.repository.OrderRepository;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Maintains the seller_rollups projection: one document per seller with all-time totals,
+ * so all-time seller statistics are a single document read instead of an orders scan.
+ */
+@Service
+public class SellerRollupService {
+
+    private static final int REBUILD_CHUNK_SIZE = 50;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SellerRevenueCubeService sellerRevenueCubeService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    public SellerRollup getRollup(String sellerId) {
+        SellerRollup rollup = mongoTemplate.findById(sellerId, SellerRollup.class);
+        return rollup != null ? rollup : new SellerRollup(sellerId);
+    }
+
+    // The seller's totals without the per-item and per-category maps
+    public SellerRollup getRollupTotals(String sellerId) {
+        Query query = query(where("_id").is(sellerId));
+        query.fields().include("totalBuyers", "totalPurchases", "totalRevenue", "updatedAt");
+        SellerRollup rollup = mongoTemplate.findOne(query, SellerRollup.class);
+        return rollup != null ? rollup : new SellerRollup(sellerId);
+    }
+
+    // Applies one new order to the rollups of every seller in it, one atomic upsert per seller
+    public void recordOrder(Order order) {
+        Map<String, List<CartItem>> linesBySeller = new LinkedHashMap<>();
+        for (CartItem item : order.getItems()) {
+            if (item.getSellerId() != null) {
+                linesBySeller.computeIfAbsent(item.getSellerId(), id -> new ArrayList<>()).add(item);
+            }
+        }
+
+        linesBySeller.forEach((sellerId, lines) -> recordSellerLines(sellerId, order.getUserId(), lines));
+    }
+
+    private void recordSellerLines(String sellerId, String userId, List<CartItem> lines) {
+        int purchases = 0;
+        double revenue = 0.0;
+        // Pre-sum per item/category: an Update only keeps the last $inc for a given field
+        Map<String, SellerRollup.ItemTotals> items = new LinkedHashMap<>();
+        Map<String, SellerRollup.CategoryTotals> categories = new LinkedHashMap<>();
+
+        for (CartItem line : lines) {
+            double lineRevenue = line.getQuantity() * line.getPrice();
+            purchases += line.getQuantity();
+            revenue += lineRevenue;
+
+            if (line.getItemId() != null) {
+                SellerRollup.ItemTotals itemTotals = items.computeIfAbsent(line.getItemId(), id -> {
+                    SellerRollup.ItemTotals totals = new SellerRollup.ItemTotals();
+                    totals.setName(line.getName());
+                    totals.setType(line.getType());
+                    totals.setImageUrl(line.getImageUrl());
+                    return totals;
+                });
+                itemTotals.setQuantity(itemTotals.getQuantity() + line.getQuantity());
+                itemTotals.setRevenue(itemTotals.getRevenue() + lineRevenue);
+            }
+
+            String category = SellerAnalyticsService.categoryName(line.getType());
+            if (category != null) {
+                SellerRollup.CategoryTotals categoryTotals =
+                        categories.computeIfAbsent(category, name -> new SellerRollup.CategoryTotals());
+                categoryTotals.setCount(categoryTotals.getCount() + line.getQuantity());
+                categoryTotals.setRevenue(categoryTotals.getRevenue() + lineRevenue);
+            }
+        }
+
+        Update update = new Update()
+                .inc("totalPurchases", purchases)
+                .inc("totalRevenue", revenue)
+                .currentDate("updatedAt");
+
+        items.forEach((itemId, totals) -> {
+            String prefix = "items." + itemId + ".";
+            update.set(prefix + "name", totals.getName())
+                    .set(prefix + "type", totals.getType())
+                    .set(prefix + "imageUrl", totals.getImageUrl())
+                    .inc(prefix + "quantity", totals.getQuantity())
+                    .inc(prefix + "revenue", totals.getRevenue());
+        });
+
+        categories.forEach((category, totals) -> {
+            String prefix = "categories." + category + ".";
+            update.inc(prefix + "count", totals.getCount())
+                    .inc(prefix + "revenue", totals.getRevenue());
+        });
+
+        // The buyer is counted in the rollup update itself, and the marker is only written once that landed
+        boolean firstOrder = userId != null && !mongoTemplate.exists(buyerMarker(sellerId, userId), SellerBuyer.class);
+        if (firstOrder) {
+            update.inc("totalBuyers", 1);
+        }
+
+        mongoTemplate.upsert(query(where("_id").is(sellerId)), update, SellerRollup.class);
+
+        if (firstOrder && !insertBuyerMarker(sellerId, userId)) {
+            // A concurrent first order of the same buyer inserted the marker and counted them as well
+            mongoTemplate.updateFirst(query(where("_id").is(sellerId)), new Update().inc("totalBuyers", -1), SellerRollup.class);
+        }
+    }
+
+    private Query buyerMarker(String sellerId, String userId) {
+        return query(where("_id").is(SellerBuyer.idFor(sellerId, userId)));
+    }
+
+    // Upserts the (seller, buyer) marker; true only for the call that actually inserts it
+    private boolean insertBuyerMarker(String sellerId, String userId) {
+        Update marker = new Update()
+                .setOnInsert("sellerId", sellerId)
+                .setOnInsert("userId", userId);
+        return mongoTemplate.upsert(buyerMarker(sellerId, userId), marker, SellerBuyer.class).getUpsertedId() != null;
+    }
+
+    /**
+     * Backfills Order.sellerIds, then recomputes every seller's rollup and revenue day buckets from the
+     * orders collection, working through the sellers in parallel chunks. Used to backfill the projections
+     * or repair them after a failed write; run it while orders are not being placed, otherwise orders created mid-rebuild may
+     * be counted twice.
+     */
+    public int rebuildAll() {
+        // The rebuild queries select a seller's orders through sellerIds, so older orders need it first
+        orderRepository.backfillSellerIds();
+        List<String> sellerIds = mongoTemplate.findDistinct(new Query(), "sellerIds", Order.class, String.class);
+
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), sellerIds.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int start = 0; start < sellerIds.size(); start += REBUILD_CHUNK_SIZE) {
+                List<String> chunk = sellerIds.subList(start, Math.min(start + REBUILD_CHUNK_SIZE, sellerIds.size()));
+                chunks.add(pool.submit(() -> chunk.forEach(sellerId -> {
+                    rebuildSeller(sellerId);
+                    sellerRevenueCubeService.rebuildSeller(sellerId);
+                })));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Seller rollup rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Seller rollup rebuild failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        // Sellers whose orders are all gone should not keep a stale rollup
+        mongoTemplate.remove(query(where("_id").nin(sellerIds)), SellerRollup.class);
+        sellerRevenueCubeService.removeSellersOtherThan(sellerIds);
+        return sellerIds.size();
+    }
+
+    public SellerRollup rebuildSeller(String sellerId) {
+        SellerRollup rollup = new SellerRollup(sellerId);
+
+        Aggregation itemTotals = newAggregation(
+                match(Criteria.where("sellerIds").is(sellerId)),
+                unwind("items"),
+                match(Criteria.where("items.sellerId").is(sellerId)),
+                group("items.itemId")
+                        .first("items.name").as("name")
+                        .first("items.type").as("type")
+                        .first("items.imageUrl").as("imageUrl")
+                        .sum("items.quantity").as("quantity")
+                        .sum(ArithmeticOperators.valueOf("items.quantity").multiplyBy("items.price")).as("revenue"));
+
+        for (Document row : mongoTemplate.aggregate(itemTotals, Order.class, Document.class)) {
+            SellerRollup.ItemTotals totals = new SellerRollup.ItemTotals();
+            totals.setName(row.getString("name"));
+            totals.setType(row.getString("type"));
+            totals.setImageUrl(row.getString("imageUrl"));
+            totals.setQuantity(((Number) row.get("quantity")).intValue());
+            totals.setRevenue(((Number) row.get("revenue")).doubleValue());
+
+            rollup.setTotalPurchases(rollup.getTotalPurchases() + totals.getQuantity());
+            rollup.setTotalRevenue(rollup.getTotalRevenue() + totals.getRevenue());
+
+            String category = SellerAnalyticsService.categoryName(totals.getType());
+            if (category != null) {
+                SellerRollup.CategoryTotals categoryTotals =
+                        rollup.getCategories().computeIfAbsent(category, name -> new SellerRollup.CategoryTotals());
+                categoryTotals.setCount(categoryTotals.getCount() + totals.getQuantity());
+                categoryTotals.setRevenue(categoryTotals.getRevenue() + totals.getRevenue());
+            }
+            if (row.get("_id") != null) {
+                rollup.getItems().put(row.getString("_id"), totals);
+            }
+        }
+
+        rollup.setTotalBuyers(rebuildBuyers(sellerId));
+        rollup.setUpdatedAt(new Date());
+        mongoTemplate.save(rollup);
+        return rollup;
+    }
+
+    // Regenerates the seller's buyer markers server-side with $merge and returns how many there are
+    private int rebuildBuyers(String sellerId) {
+        mongoTemplate.remove(query(where("sellerId").is(sellerId)), SellerBuyer.class);
+
+        Aggregation buyers = newAggregation(
+                match(Criteria.where("sellerIds").is(sellerId).and("userId").ne(null)),
+                unwind("items"),
+                match(Criteria.where("items.sellerId").is(sellerId)),
+                group("userId"),
+                project()
+                        .and(StringOperators.Concat.stringValue(sellerId + ":").concatValueOf("_id")).as("_id")
+                        .and(LiteralOperators.Literal.asLiteral(sellerId)).as("sellerId")
+                        .and("_id").as("userId"),
+                new MergeOperation.MergeOperationBuilder()
+                        .intoCollection(mongoTemplate.getCollectionName(SellerBuyer.class))
+                        .whenMatched(MergeOperation.WhenDocumentsMatch.keepExistingDocument())
+                        .build());
+        mongoTemplate.aggregate(buyers, Order.class, Document.class);
+
+        return (int) mongoTemplate.count(query(where("sellerId").is(sellerId)), SellerBuyer.class);
+    }
+}
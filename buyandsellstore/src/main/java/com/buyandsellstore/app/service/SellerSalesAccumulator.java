@@ -0,0 +1,155 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import com.buyandsellstore.app.model.SellerRollup;
+
+import java.util.*;
+
+/**
+ * Folds one seller's orders into the totals behind the dashboard (summary, per-product and
+ * per-category sales) in a single pass, so the dashboard queries can share one scan.
+ */
+public class SellerSalesAccumulator {
+
+    // Dashboard categories in display order; their totals live in primitive slots so a line update does not box
+    private static final String[] CATEGORIES = {"books", "home"};
+
+    private final String sellerId;
+    private final Set<String> buyers; // null when the buyer count comes from elsewhere (rollup or sketch)
+    private int countedBuyers;
+    private int totalPurchases;
+    private double totalRevenue;
+    private final ProductSalesTable products = new ProductSalesTable();
+    private final int[] categoryCounts = new int[CATEGORIES.length];
+    private final double[] categoryRevenues = new double[CATEGORIES.length];
+
+    public SellerSalesAccumulator(String sellerId) {
+        this(sellerId, true);
+    }
+
+    // trackBuyers = false skips collecting buyer ids; the count is then supplied through addBuyerCount
+    public SellerSalesAccumulator(String sellerId, boolean trackBuyers) {
+        this.sellerId = sellerId;
+        this.buyers = trackBuyers ? new HashSet<>() : null;
+    }
+
+    public void add(Order order) {
+        boolean buyerAdded = false;
+
+        for (CartItem item : order.getItems()) {
+            if (sellerId.equals(item.getSellerId())) {
+                double lineRevenue = item.getQuantity() * item.getPrice();
+                totalPurchases += item.getQuantity();
+                totalRevenue += lineRevenue;
+
+                addProduct(item.getItemId(), item.getName(), item.getType(), item.getImageUrl(),
+                        item.getQuantity(), lineRevenue);
+                addCategory(item.getType(), item.getQuantity(), lineRevenue);
+
+                if (!buyerAdded && buyers != null && order.getUserId() != null) {
+                    buyers.add(order.getUserId());
+                    buyerAdded = true;
+                }
+            }
+        }
+    }
+
+    // Seeds the accumulator with the seller's pre-aggregated all-time totals
+    public void addRollup(SellerRollup rollup) {
+        countedBuyers += rollup.getTotalBuyers();
+        totalPurchases += rollup.getTotalPurchases();
+        totalRevenue += rollup.getTotalRevenue();
+        rollup.getItems().forEach((itemId, totals) -> addProduct(itemId, totals.getName(), totals.getType(),
+                totals.getImageUrl(), totals.getQuantity(), totals.getRevenue()));
+        rollup.getCategories().forEach((category, totals) ->
+                addToCategory(categoryIndex(category), totals.getCount(), totals.getRevenue()));
+    }
+
+    /**
+     * Folds in an accumulator for the same seller built over a disjoint set of orders (e.g. another
+     * createdAt partition) and returns this one. Buyer ids are unioned, so a buyer in both counts once.
+     */
+    public SellerSalesAccumulator merge(SellerSalesAccumulator other) {
+        if (buyers != null && other.buyers != null) {
+            buyers.addAll(other.buyers);
+        }
+        countedBuyers += other.countedBuyers;
+        totalPurchases += other.totalPurchases;
+        totalRevenue += other.totalRevenue;
+        products.addAll(other.products);
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            categoryCounts[i] += other.categoryCounts[i];
+            categoryRevenues[i] += other.categoryRevenues[i];
+        }
+        return this;
+    }
+
+    public void addBuyerCount(long buyerCount) {
+        countedBuyers += (int) buyerCount;
+    }
+
+    private void addProduct(String itemId, String name, String type, String imageUrl, int quantity, double revenue) {
+        if (itemId == null) return;
+        products.add(itemId, name, type, imageUrl, quantity, revenue);
+    }
+
+    private void addCategory(String type, int quantity, double revenue) {
+        addToCategory(categoryIndex(SellerAnalyticsService.categoryName(type)), quantity, revenue);
+    }
+
+    private void addToCategory(int index, int quantity, double revenue) {
+        if (index >= 0) {
+            categoryCounts[index] += quantity;
+            categoryRevenues[index] += revenue;
+        }
+    }
+
+    private static int categoryIndex(String category) {
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            if (CATEGORIES[i].equals(category)) return i;
+        }
+        return -1;
+    }
+
+    public int getTotalBuyers() {
+        return countedBuyers + (buyers != null ? buyers.size() : 0);
+    }
+
+    public int getTotalPurchases() {
+        return totalPurchases;
+    }
+
+    public double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public Map<String, Object> salesAnalytics() {
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("totalBuyers", getTotalBuyers());
+        analytics.put("totalPurchases", totalPurchases);
+        analytics.put("totalRevenue", totalRevenue);
+        analytics.put("averageOrderValue", totalPurchases > 0 ? totalRevenue / totalPurchases : 0);
+        return analytics;
+    }
+
+    public List<Map<String, Object>> topProducts(String metric, Integer limit) {
+        int resultLimit = limit != null && limit > 0 ? limit : 5;
+        return products.top(metric, resultLimit);
+    }
+
+    public Map<String, Object> salesByCategory() {
+        List<Map<String, Object>> categoryList = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            Map<String, Object> metrics = new HashMap<>();
+            metrics.put("name", CATEGORIES[i]);
+            metrics.put("count", categoryCounts[i]);
+            metrics.put("revenue", categoryRevenues[i]);
+            categoryList.add(metrics);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("categories", categoryList);
+        return result;
+    }
+}
@@ -0,0 +1,110 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.dto.SellerSalesUpdate;
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import com.buyandsellstore.app.model.SellerRollup;
+import com.buyandsellstore.app.model.SoldItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes a SellerSalesUpdate to the sellerSalesUpdated subscribers of each seller in a new order.
+ * Sellers nobody is watching cost nothing: a seller's stream exists only while it has subscribers,
+ * and the totals are only read for sellers that have one.
+ */
+@Service
+public class SellerSalesUpdateService {
+
+    // Updates a slow subscriber may fall behind by before the oldest are dropped; the totals let it catch up
+    static final int SUBSCRIBER_BUFFER = 256;
+
+    @Autowired
+    private SellerRollupService sellerRollupService;
+
+    private final Map<String, SellerStream> streams = new ConcurrentHashMap<>();
+
+    public Flux<SellerSalesUpdate> subscribe(String sellerId) {
+        return Flux.defer(() -> {
+                    SellerStream stream = streams.compute(sellerId, (id, current) -> {
+                        SellerStream result = current != null ? current : new SellerStream();
+                        result.subscribers++;
+                        return result;
+                    });
+                    return stream.sink.asFlux()
+                            .onBackpressureBuffer(SUBSCRIBER_BUFFER, BufferOverflowStrategy.DROP_OLDEST)
+                            .doFinally(signal -> release(sellerId));
+                });
+    }
+
+    // A failed push (e.g. the totals read) is logged per seller, so it skips neither other sellers nor other listeners
+    @EventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        for (String sellerId : event.getSellerIds()) {
+            SellerStream stream = streams.get(sellerId);
+            if (stream != null) {
+                try {
+                    stream.emit(toUpdate(sellerId, event.getOrder()));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    int getStreamCount() {
+        return streams.size();
+    }
+
+    private void release(String sellerId) {
+        streams.computeIfPresent(sellerId, (id, stream) -> --stream.subscribers > 0 ? stream : null);
+    }
+
+    private SellerSalesUpdate toUpdate(String sellerId, Order order) {
+        List<SoldItem> items = new ArrayList<>();
+        int units = 0;
+        double revenue = 0;
+        for (CartItem item : order.getItems()) {
+            if (sellerId.equals(item.getSellerId())) {
+                items.add(new SoldItem(item.getItemId(), item.getType(), item.getName(), item.getQuantity(),
+                        item.getPrice(), item.getImageUrl(), sellerId, order.getCreatedAt()));
+                units += item.getQuantity();
+                revenue += item.getPrice() * item.getQuantity();
+            }
+        }
+
+        // The rollups are updated before OrderCreatedEvent is published, so these include the order
+        SellerRollup totals = sellerRollupService.getRollupTotals(sellerId);
+
+        SellerSalesUpdate update = new SellerSalesUpdate();
+        update.setSellerId(sellerId);
+        update.setOrderId(order.getId());
+        update.setCreatedAt(order.getCreatedAt());
+        update.setItems(items);
+        update.setUnits(units);
+        update.setRevenue(revenue);
+        update.setTotalBuyers(totals.getTotalBuyers());
+        update.setTotalPurchases(totals.getTotalPurchases());
+        update.setTotalRevenue(totals.getTotalRevenue());
+        return update;
+    }
+
+    private static final class SellerStream {
+        private final Sinks.Many<SellerSalesUpdate> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers; // only changed inside streams.compute for this seller
+
+        // Orders for the same seller may be created concurrently; the sink needs serialized emissions
+        synchronized void emit(SellerSalesUpdate update) {
+            sink.tryEmitNext(update);
+        }
+    }
+}
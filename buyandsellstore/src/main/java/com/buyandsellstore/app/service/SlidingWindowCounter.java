@@ -0,0 +1,67 @@
+package com.buyandsellstore.app.service;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer of time slots (e.g. 300 one-second slots) holding order, unit and revenue totals.
+ * A slot is reused once its time has rolled out of the ring; each slot remembers which time period it
+ * holds, so stale slots are skipped on read without a background sweep. Reads are O(slots).
+ */
+final class SlidingWindowCounter {
+
+    private final long slotMillis;
+    private final long[] periods; // which slotMillis-long period each slot currently holds
+    private final int[] orders;
+    private final long[] units;
+    private final double[] revenues;
+
+    SlidingWindowCounter(int slots, long slotMillis) {
+        this.slotMillis = slotMillis;
+        this.periods = new long[slots];
+        this.orders = new int[slots];
+        this.units = new long[slots];
+        this.revenues = new double[slots];
+        Arrays.fill(periods, Long.MIN_VALUE);
+    }
+
+    long spanMillis() {
+        return periods.length * slotMillis;
+    }
+
+    synchronized void record(long timeMillis, long nowMillis, int orderCount, long unitCount, double revenue) {
+        long period = Math.floorDiv(timeMillis, slotMillis);
+        long currentPeriod = Math.floorDiv(nowMillis, slotMillis);
+        if (period > currentPeriod || period <= currentPeriod - periods.length) {
+            return; // outside the ring
+        }
+
+        int slot = (int) Math.floorMod(period, (long) periods.length);
+        if (periods[slot] != period) {
+            periods[slot] = period;
+            orders[slot] = 0;
+            units[slot] = 0;
+            revenues[slot] = 0;
+        }
+        orders[slot] += orderCount;
+        units[slot] += unitCount;
+        revenues[slot] += revenue;
+    }
+
+    /**
+     * Totals {orders, units, revenue} of the last windowSlots periods, the current partial one included.
+     */
+    synchronized double[] sum(int windowSlots, long nowMillis) {
+        long currentPeriod = Math.floorDiv(nowMillis, slotMillis);
+        long oldestPeriod = currentPeriod - Math.min(windowSlots, periods.length) + 1;
+
+        double[] totals = new double[3];
+        for (int slot = 0; slot < periods.length; slot++) {
+            if (periods[slot] >= oldestPeriod && periods[slot] <= currentPeriod) {
+                totals[0] += orders[slot];
+                totals[1] += units[slot];
+                totals[2] += revenues[slot];
+            }
+        }
+        return totals;
+    }
+}
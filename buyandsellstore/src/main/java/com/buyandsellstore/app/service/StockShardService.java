@@ -0,0 +1,213 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.Book;
+import com.buyandsellstore.app.model.HomeItem;
+import com.buyandsellstore.app.model.StockShard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Opt-in sharded stock for hot items. A sharded item keeps totalQuantity at 0 and its stock in stockShards
+ * sub-counters, so concurrent adds and removes spread their writes over that many documents instead of
+ * queuing on the item's. A take goes to a random shard and, when that one is short, to the fullest others;
+ * stock is never moved between shards. Displayed stock is the sum of the shards, recomputed at most once a
+ * second; the search index is refreshed whenever a shard runs dry or gets stock back, so its availability
+ * facet follows the item selling out and coming back.
+ */
+@Service
+public class StockShardService {
+
+    public static final String BOOK = ProductCache.BOOK;
+    public static final String HOME_ITEM = ProductCache.HOME_ITEM;
+
+    public static final int MAX_SHARDS = 64;
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+
+    // Summed stock of sharded items by "type:itemId", for item pages that are read far more often than bought from
+    private final LruTtlCache<String, Integer> availableCache = new LruTtlCache<>(1000, 1000);
+
+    // Takes quantity units from the item's shards; false when they hold fewer than that between them
+    public boolean take(String type, String itemId, int shards, int quantity) {
+        // A random shard first, so concurrent takes spread their writes
+        if (decrement(type, itemId, ThreadLocalRandom.current().nextInt(shards), quantity)) {
+            return true;
+        }
+        // Then the fullest shards, each with the same conditional decrement
+        List<StockShard> byQuantity = findShards(type, itemId);
+        for (StockShard shard : byQuantity) {
+            if (shard.getQuantity() >= quantity && decrement(type, itemId, shard.getShard(), quantity)) {
+                return true;
+            }
+        }
+        return gather(type, itemId, byQuantity, quantity);
+    }
+
+    /**
+     * Takes a multi-unit quantity that no single shard covers as a part from each shard, fullest first. If the
+     * shards run short, every part goes back to the shard it came from and the take fails.
+     */
+    private boolean gather(String type, String itemId, List<StockShard> byQuantity, int quantity) {
+        int remaining = quantity;
+        List<int[]> parts = new ArrayList<>();
+        for (StockShard shard : byQuantity) {
+            if (remaining == 0) {
+                break;
+            }
+            int part = Math.min(remaining, shard.getQuantity());
+            if (part > 0 && decrement(type, itemId, shard.getShard(), part)) {
+                parts.add(new int[]{shard.getShard(), part});
+                remaining -= part;
+            }
+        }
+        if (remaining == 0) {
+            return true;
+        }
+        for (int[] part : parts) {
+            increment(type, itemId, part[0], part[1]);
+        }
+        return false;
+    }
+
+    // Puts quantity units back on a random shard
+    public void release(String type, String itemId, int shards, int quantity) {
+        increment(type, itemId, ThreadLocalRandom.current().nextInt(shards), quantity);
+    }
+
+    // The item's stock summed over its shards
+    public int available(String type, String itemId) {
+        String key = type + ":" + itemId;
+        Integer cached = availableCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        int available = findShards(type, itemId).stream().mapToInt(StockShard::getQuantity).sum();
+        availableCache.put(key, available);
+        return available;
+    }
+
+    /**
+     * Moves the item's stock into the given number of shards, or back into totalQuantity when shards is 0;
+     * returns false when the item does not exist. While the stock moves the item can briefly look sold out.
+     */
+    public boolean setShards(String type, String itemId, int shards) {
+        if (shards < 0 || shards > MAX_SHARDS) {
+            throw new IllegalArgumentException("shards must be between 0 and " + MAX_SHARDS);
+        }
+        Class<?> productType = productClass(type);
+        Update update = new Update().set("stockShards", shards);
+        if (shards > 0) {
+            update.set("totalQuantity", 0);
+        }
+        // The item as it was, so the stock it held can be split over the shards
+        Object before = mongoTemplate.findAndModify(query(where("_id").is(itemId)), update, productType);
+        if (before == null) {
+            return false;
+        }
+        int unsharded = before instanceof Book ? ((Book) before).getTotalQuantity() : ((HomeItem) before).getTotalQuantity();
+
+        if (shards > 0) {
+            for (int shard = 0; shard < shards; shard++) {
+                int quantity = unsharded / shards + (shard < unsharded % shards ? 1 : 0);
+                mongoTemplate.upsert(query(where("_id").is(shardId(type, itemId, shard))),
+                        new Update().setOnInsert("type", type).setOnInsert("itemId", itemId).setOnInsert("shard", shard)
+                                .inc("quantity", quantity), StockShard.class);
+            }
+        }
+        // Shards beyond the new count, or all of them when unsharding, give their stock to shard 0 or the item
+        for (StockShard shard : findShards(type, itemId)) {
+            if (shard.getShard() >= shards) {
+                StockShard removed = mongoTemplate.findAndRemove(query(where("_id").is(shard.getId())), StockShard.class);
+                if (removed != null && removed.getQuantity() > 0) {
+                    increment(type, itemId, 0, removed.getQuantity());
+                }
+            }
+        }
+
+        productCache.evict(type, itemId);
+        reindex(type, itemId);
+        return true;
+    }
+
+    private void reindex(String type, String itemId) {
+        availableCache.invalidate(type + ":" + itemId);
+        if (BOOK.equals(type)) {
+            catalogSearchService.indexBook(mongoTemplate.findById(itemId, Book.class));
+        } else {
+            catalogSearchService.indexHomeItem(mongoTemplate.findById(itemId, HomeItem.class));
+        }
+    }
+
+    private List<StockShard> findShards(String type, String itemId) {
+        Query shards = query(where("type").is(type).and("itemId").is(itemId)).with(Sort.by(Sort.Direction.DESC, "quantity"));
+        return mongoTemplate.find(shards, StockShard.class);
+    }
+
+    // Takes from the shard only when it holds enough; a shard left empty may mean the item sold out
+    private boolean decrement(String type, String itemId, int shard, int quantity) {
+        Query stocked = query(where("_id").is(shardId(type, itemId, shard)).and("quantity").gte(quantity));
+        StockShard after = mongoTemplate.findAndModify(stocked, new Update().inc("quantity", -quantity),
+                RETURN_NEW, StockShard.class);
+        if (after != null && after.getQuantity() == 0) {
+            reindex(type, itemId);
+        }
+        return after != null;
+    }
+
+    /**
+     * Adds to the shard. When setShards removed the shard meanwhile, the units go to shard 0, which exists while
+     * the item is sharded at all, and only when that is gone too (the item was unsharded) to totalQuantity.
+     */
+    private void increment(String type, String itemId, int shard, int quantity) {
+        if (addToShard(type, itemId, shard, quantity) || (shard != 0 && addToShard(type, itemId, 0, quantity))) {
+            return;
+        }
+        mongoTemplate.updateFirst(query(where("_id").is(itemId)), new Update().inc("totalQuantity", quantity), productClass(type));
+    }
+
+    // Adds to the shard when it exists; a shard that was empty may mean the item is back in stock
+    private boolean addToShard(String type, String itemId, int shard, int quantity) {
+        Query existing = query(where("_id").is(shardId(type, itemId, shard)));
+        StockShard after = mongoTemplate.findAndModify(existing, new Update().inc("quantity", quantity),
+                RETURN_NEW, StockShard.class);
+        if (after != null && after.getQuantity() == quantity) {
+            reindex(type, itemId);
+        }
+        return after != null;
+    }
+
+    static String shardId(String type, String itemId, int shard) {
+        return type + ":" + itemId + ":" + shard;
+    }
+
+    private static Class<?> productClass(String type) {
+        if (BOOK.equals(type)) {
+            return Book.class;
+        }
+        if (HOME_ITEM.equals(type)) {
+            return HomeItem.class;
+        }
+        throw new IllegalArgumentException("Unsupported item type: " + type);
+    }
+}
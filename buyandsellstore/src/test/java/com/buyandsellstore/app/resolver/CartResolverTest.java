@@ -0,0 +1,70 @@
+package com.buyandsellstore.app.resolver;
+
+import com.buyandsellstore.app.dto.ResponseMessage;
+import com.buyandsellstore.app.model.Book;
+import com.buyandsellstore.app.service.BookService;
+import com.buyandsellstore.app.service.CartService;
+import com.buyandsellstore.app.service.HomeItemService;
+import com.buyandsellstore.app.service.ReservationService;
+import com.buyandsellstore.app.service.StockShardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CartResolverTest {
+
+    @Mock
+    private CartService cartService;
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private HomeItemService homeItemService;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private StockShardService stockShardService;
+
+    @InjectMocks
+    private CartResolver cartResolver;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(bookService.takeStock("b1")).thenReturn(new Book());
+    }
+
+    @Test
+    public void testAddToCartHoldsTakenUnit() {
+        when(cartService.addToCart("u1", "b1", "book")).thenReturn(new ResponseMessage(true, "Item added to cart successfully."));
+
+        ResponseMessage response = cartResolver.addToCart("u1", "b1", "book");
+
+        assertTrue(response.isSuccess());
+        verify(reservationService).hold("u1", "book", "b1");
+        verify(reservationService, never()).release(any(), any(), any());
+    }
+
+    /**
+     * When the cart cannot be updated, the unit taken from stock is released from the hold and goes back.
+     */
+    @Test
+    public void testFailedCartUpdateReleasesTakenUnit() {
+        when(cartService.addToCart("u1", "b1", "book")).thenReturn(new ResponseMessage(false, "Failed to add item to cart."));
+
+        ResponseMessage response = cartResolver.addToCart("u1", "b1", "book");
+
+        assertFalse(response.isSuccess());
+        assertEquals("Failed to add item to cart.", response.getMessage());
+        verify(reservationService).hold("u1", "book", "b1");
+        verify(reservationService).release("u1", "book", "b1");
+    }
+}
@@ -0,0 +1,101 @@
+package com.buyandsellstore.app.resolver;
+
+import com.buyandsellstore.app.dto.SellerStats;
+import com.buyandsellstore.app.model.Book;
+import com.buyandsellstore.app.model.SellerRollup;
+import com.buyandsellstore.app.repository.BookRepository;
+import com.buyandsellstore.app.service.SellerRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class SellerResolverTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private SellerRollupService sellerRollupService;
+
+    @InjectMocks
+    private SellerResolver sellerResolver;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * getSellerStatistics itself never touches the catalog; the books are only loaded by the batch mapping.
+     */
+    @Test
+    public void testGetSellerStatisticsDefersBookLookup() {
+        when(sellerRollupService.getRollup("seller1")).thenReturn(rollup("seller1", "b1", "b2"));
+
+        SellerStats stats = sellerResolver.getSellerStatistics("seller1");
+
+        assertEquals(Set.of("b1", "b2"), new HashSet<>(stats.getPurchasedBookIds()));
+        assertNull(stats.getPurchasedBooks());
+        verifyNoInteractions(bookRepository);
+    }
+
+    /**
+     * Several sellers in one request share a single findAllById over the distinct ids.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testPurchasedBooksIsOneBatchedLookup() {
+        when(sellerRollupService.getRollup("seller1")).thenReturn(rollup("seller1", "b1", "b2"));
+        when(sellerRollupService.getRollup("seller2")).thenReturn(rollup("seller2", "b2", "b3"));
+        when(bookRepository.findAllById(any())).thenReturn(Arrays.asList(book("b3"), book("b1"), book("b2")));
+
+        SellerStats first = sellerResolver.getSellerStatistics("seller1");
+        SellerStats second = sellerResolver.getSellerStatistics("seller2");
+        Map<SellerStats, List<Book>> books = sellerResolver.purchasedBooks(Arrays.asList(first, second));
+
+        ArgumentCaptor<Iterable<String>> ids = ArgumentCaptor.forClass(Iterable.class);
+        verify(bookRepository, times(1)).findAllById(ids.capture());
+        List<String> requested = new ArrayList<>();
+        ids.getValue().forEach(requested::add);
+        assertEquals(3, requested.size());
+        assertEquals(Set.of("b1", "b2", "b3"), new HashSet<>(requested));
+
+        assertEquals(first.getPurchasedBookIds(), bookIds(books.get(first)));
+        assertEquals(second.getPurchasedBookIds(), bookIds(books.get(second)));
+        assertEquals(Set.of("b2", "b3"), new HashSet<>(bookIds(books.get(second))));
+    }
+
+    private static SellerRollup rollup(String sellerId, String... bookIds) {
+        SellerRollup rollup = new SellerRollup(sellerId);
+        for (String bookId : bookIds) {
+            SellerRollup.ItemTotals totals = new SellerRollup.ItemTotals();
+            totals.setType("book");
+            rollup.getItems().put(bookId, totals);
+        }
+        SellerRollup.ItemTotals homeItem = new SellerRollup.ItemTotals();
+        homeItem.setType("home");
+        rollup.getItems().put("h1", homeItem);
+        return rollup;
+    }
+
+    private static Book book(String id) {
+        Book book = new Book();
+        book.setId(id);
+        return book;
+    }
+
+    private static List<String> bookIds(List<Book> books) {
+        List<String> ids = new ArrayList<>();
+        books.forEach(book -> ids.add(book.getId()));
+        return ids;
+    }
+}
@@ -1,13 +1,16 @@
 package com.buyandsellstore.app.service;
 
+import com.buyandsellstore.app.dto.Connection;
 import com.buyandsellstore.app.model.Book;
 import com.buyandsellstore.app.repository.BookRepository;
+import com.buyandsellstore.app.repository.CatalogSort;
 import com.buyandsellstore.app.service.BookService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
@@ -15,6 +18,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,6 +26,12 @@ public class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private CatalogSearchService catalogSearchService;
+
+    @Spy
+    private ProductCache productCache = new ProductCache(100, 60);
+
     @InjectMocks
     private BookService bookService;
 
@@ -53,4 +63,83 @@ public class BookServiceTest {
         assertEquals("1", result.getId());
         verify(bookRepository, times(1)).findById("1");
     }
+
+    /**
+     * Repeated lookups are served from the cache until a save drops the entry; getBookForUpdate always reads Mongo.
+     */
+    @Test
+    public void testGetBookByIdIsCachedUntilSaved() {
+        when(bookRepository.findById("1")).thenReturn(Optional.of(book));
+        when(bookRepository.save(book)).thenReturn(book);
+
+        assertSame(book, bookService.getBookById("1"));
+        assertSame(book, bookService.getBookById("1"));
+        verify(bookRepository, times(1)).findById("1");
+
+        bookService.save(book);
+        bookService.getBookById("1");
+        verify(bookRepository, times(2)).findById("1");
+        verify(catalogSearchService).indexBook(book);
+
+        bookService.getBookForUpdate("1");
+        verify(bookRepository, times(3)).findById("1");
+    }
+
+    /**
+     * Taking stock drops the cached copy and reindexes the updated book; a sold-out book changes nothing.
+     */
+    @Test
+    public void testTakeStockRefreshesCacheOnlyWhenTaken() {
+        Book updated = new Book();
+        updated.setId("1");
+        when(bookRepository.findById("1")).thenReturn(Optional.of(book));
+        when(bookRepository.decrementStock("1", 1)).thenReturn(updated, (Book) null);
+
+        bookService.getBookById("1");
+        assertSame(updated, bookService.takeStock("1"));
+        verify(productCache).evict("book", "1");
+        verify(catalogSearchService).indexBook(updated);
+
+        assertNull(bookService.takeStock("1"));
+        verify(productCache, times(1)).evict("book", "1");
+        verify(catalogSearchService, times(1)).indexBook(any(Book.class));
+    }
+
+    /**
+     * The cursor carries the last book's (price, id), and the next page is fetched right after it.
+     */
+    @Test
+    public void testBooksConnectionContinuesAfterCursor() {
+        Book cheap = priced("a", 5.0);
+        Book middle = priced("b", 7.5);
+        Book expensive = priced("c", 9.0);
+        when(bookRepository.findPage(CatalogSort.PRICE_ASC, null, null, 3))
+                .thenReturn(Arrays.asList(cheap, middle, expensive));
+
+        Connection<Book> firstPage = bookService.getBooksConnection(2, null, CatalogSort.PRICE_ASC);
+        assertEquals(2, firstPage.getEdges().size());
+        assertTrue(firstPage.getPageInfo().isHasNextPage());
+
+        when(bookRepository.findPage(CatalogSort.PRICE_ASC, 7.5, "b", 3))
+                .thenReturn(List.of(expensive));
+
+        Connection<Book> secondPage = bookService.getBooksConnection(2, firstPage.getPageInfo().getEndCursor(), CatalogSort.PRICE_ASC);
+        assertEquals("c", secondPage.getEdges().get(0).getNode().getId());
+        assertFalse(secondPage.getPageInfo().isHasNextPage());
+    }
+
+    @Test
+    public void testCursorFromAnotherSortIsRejected() {
+        when(bookRepository.findPage(CatalogSort.NEWEST, null, null, 2)).thenReturn(Arrays.asList(priced("a", 1.0), priced("b", 2.0)));
+        String cursor = bookService.getBooksConnection(1, null, null).getPageInfo().getEndCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> bookService.getBooksConnection(1, cursor, CatalogSort.RATINGS));
+    }
+
+    private static Book priced(String id, double price) {
+        Book book = new Book();
+        book.setId(id);
+        book.setPrice(price);
+        return book;
+    }
 }
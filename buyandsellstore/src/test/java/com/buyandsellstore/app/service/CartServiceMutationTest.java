@@ -0,0 +1,100 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.dto.ResponseMessage;
+import com.buyandsellstore.app.model.Book;
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.repository.CartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CartServiceMutationTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private HomeItemService homeItemService;
+
+    @InjectMocks
+    private CartService cartService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Adding an item already in the cart is one $inc on its line; the cart is never loaded or saved whole.
+     */
+    @Test
+    public void testRepeatAddIncrementsLine() {
+        when(cartRepository.incrementQuantity("u1", "book", "b1")).thenReturn(true);
+
+        assertTrue(cartService.addToCart("u1", " b1", "Book").isSuccess());
+
+        verify(cartRepository, never()).pushItem(anyString(), any(CartItem.class));
+        verify(cartRepository, never()).findByUserId(anyString());
+        verify(cartRepository, never()).save(any());
+    }
+
+    @Test
+    public void testNewItemIsPushedAsLine() {
+        Book book = new Book();
+        book.setTitle("Dune");
+        book.setPrice(9.5);
+        when(bookService.getBookById("b1")).thenReturn(book);
+        when(cartRepository.pushItem(eq("u1"), any(CartItem.class))).thenReturn(true);
+
+        assertTrue(cartService.addToCart("u1", "b1", "book").isSuccess());
+
+        ArgumentCaptor<CartItem> line = ArgumentCaptor.forClass(CartItem.class);
+        verify(cartRepository).pushItem(eq("u1"), line.capture());
+        assertEquals("book", line.getValue().getType());
+        assertEquals("Dune", line.getValue().getName());
+        assertEquals(1, line.getValue().getQuantity());
+    }
+
+    /**
+     * When a concurrent add creates the line between the $inc and the $push, the add retries the $inc.
+     */
+    @Test
+    public void testLostPushRaceRetriesIncrement() {
+        when(cartRepository.incrementQuantity("u1", "home", "h1")).thenReturn(false, true);
+        when(cartRepository.pushItem(eq("u1"), any(CartItem.class))).thenReturn(false);
+
+        assertTrue(cartService.addToCart("u1", "h1", "home").isSuccess());
+        verify(cartRepository, times(2)).incrementQuantity("u1", "home", "h1");
+        verify(cartRepository, times(1)).pushItem(eq("u1"), any(CartItem.class));
+    }
+
+    @Test
+    public void testRemovingLastUnitPullsLineAndDeletesEmptyCart() {
+        when(cartRepository.decrementQuantity("u1", "book", "b1")).thenReturn(false);
+        when(cartRepository.pullItem("u1", "book", "b1")).thenReturn(true);
+        when(cartRepository.deleteIfEmpty("u1")).thenReturn(true);
+
+        ResponseMessage message = cartService.removeFromCart("u1", "b1", "BOOK");
+
+        assertTrue(message.isSuccess());
+        assertEquals("Cart deleted as it became empty.", message.getMessage());
+    }
+
+    @Test
+    public void testRemovingMissingLineFails() {
+        assertFalse(cartService.removeFromCart("u1", "b1", "book").isSuccess());
+        verify(cartRepository, never()).deleteIfEmpty(anyString());
+    }
+}
@@ -0,0 +1,122 @@
+package com.buyandsellstore.app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogFacetIndexTest {
+
+    private CatalogFacetIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new CatalogFacetIndex();
+        index.index(CatalogSearchIndex.BOOK, "b1", CatalogSearchService.facetValues("s1", null, 8, 4.5, 3));
+        index.index(CatalogSearchIndex.BOOK, "b2", CatalogSearchService.facetValues("s2", null, 30, 3.0, 0));
+        index.index(CatalogSearchIndex.HOME_ITEM, "h1", CatalogSearchService.facetValues("s1", "HoseCo", 40, 4.0, 2));
+        index.index(CatalogSearchIndex.HOME_ITEM, "h2", CatalogSearchService.facetValues("s2", "PanCo", 300, 2.0, 1));
+    }
+
+    @Test
+    public void testFilterIntersectsFacetsAndUnionsValues() {
+        Map<String, List<String>> selected = new HashMap<>();
+        selected.put(CatalogFacetIndex.SELLER, List.of("s1"));
+        assertEquals(List.of("b1", "h1"), ids(index.filter(selected, -1, 10)));
+
+        selected.put(CatalogFacetIndex.PRICE, List.of("25-50", "250+"));
+        assertEquals(List.of("h1"), ids(index.filter(selected, -1, 10)));
+
+        selected.put(CatalogFacetIndex.SELLER, List.of("s1", "s2"));
+        assertEquals(List.of("b2", "h1", "h2"), ids(index.filter(selected, -1, 10)));
+
+        // Paging continues after the last slot returned
+        List<CatalogFacetIndex.Match> first = index.filter(selected, -1, 2);
+        assertEquals(List.of("h2"), ids(index.filter(selected, first.get(1).getSlot(), 10)));
+    }
+
+    /**
+     * A facet's own selection does not narrow its counts, but the other facets' selections do.
+     */
+    @Test
+    public void testCountsIgnoreOwnFacetSelection() {
+        Map<String, List<String>> selected = new HashMap<>();
+        selected.put(CatalogFacetIndex.TYPE, List.of(CatalogSearchIndex.HOME_ITEM));
+        CatalogFacetIndex.Counts counts = index.counts(selected);
+
+        assertEquals(2, counts.getTotal());
+        assertEquals(Map.of("book", 2, "home", 2), counts.getByFacet().get(CatalogFacetIndex.TYPE));
+        assertEquals(Map.of("s1", 1, "s2", 1), counts.getByFacet().get(CatalogFacetIndex.SELLER));
+        assertEquals(Map.of("HoseCo", 1, "PanCo", 1), counts.getByFacet().get(CatalogFacetIndex.MANUFACTURER));
+        assertEquals(Map.of("inStock", 2), counts.getByFacet().get(CatalogFacetIndex.AVAILABILITY));
+    }
+
+    /**
+     * Re-indexing moves an item between values (a sale that empties its stock), and removal drops it.
+     */
+    @Test
+    public void testReindexingUpdatesCounts() {
+        index.index(CatalogSearchIndex.BOOK, "b1", CatalogSearchService.facetValues("s1", null, 8, 4.5, 0));
+        Map<String, Integer> availability = index.counts(Map.of()).getByFacet().get(CatalogFacetIndex.AVAILABILITY);
+        assertEquals(Map.of("inStock", 2, "outOfStock", 2), availability);
+
+        index.remove(CatalogSearchIndex.HOME_ITEM, "h2");
+        CatalogFacetIndex.Counts counts = index.counts(Map.of());
+        assertEquals(3, counts.getTotal());
+        assertEquals(Map.of("HoseCo", 1), counts.getByFacet().get(CatalogFacetIndex.MANUFACTURER));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testCountsMatchBruteForce() {
+        Random random = new Random(11);
+        List<Map<String, String>> items = new ArrayList<>();
+        CatalogFacetIndex large = new CatalogFacetIndex();
+        for (int i = 0; i < 2000; i++) {
+            Map<String, String> values = CatalogSearchService.facetValues("s" + random.nextInt(20),
+                    random.nextBoolean() ? "m" + random.nextInt(5) : null, random.nextDouble() * 400,
+                    random.nextDouble() * 5, random.nextInt(3));
+            values.put(CatalogFacetIndex.TYPE, CatalogSearchIndex.BOOK);
+            items.add(values);
+            large.index(CatalogSearchIndex.BOOK, String.valueOf(i), values);
+        }
+
+        Map<String, List<String>> selected = Map.of(
+                CatalogFacetIndex.SELLER, List.of("s1", "s2", "s3", "s4"),
+                CatalogFacetIndex.AVAILABILITY, List.of("inStock"));
+        CatalogFacetIndex.Counts counts = large.counts(selected);
+
+        Map<String, Integer> expectedSellers = new HashMap<>();
+        Map<String, Integer> expectedPrices = new HashMap<>();
+        int expectedTotal = 0;
+        for (Map<String, String> values : items) {
+            boolean inStock = values.get(CatalogFacetIndex.AVAILABILITY).equals("inStock");
+            boolean sellerSelected = selected.get(CatalogFacetIndex.SELLER).contains(values.get(CatalogFacetIndex.SELLER));
+            if (inStock) {
+                expectedSellers.merge(values.get(CatalogFacetIndex.SELLER), 1, Integer::sum);
+            }
+            if (inStock && sellerSelected) {
+                expectedTotal++;
+                expectedPrices.merge(values.get(CatalogFacetIndex.PRICE), 1, Integer::sum);
+            }
+        }
+        assertEquals(expectedTotal, counts.getTotal());
+        assertEquals(expectedSellers, counts.getByFacet().get(CatalogFacetIndex.SELLER));
+        assertEquals(expectedPrices, counts.getByFacet().get(CatalogFacetIndex.PRICE));
+        assertEquals(expectedTotal, large.filter(selected, -1, Integer.MAX_VALUE).size());
+    }
+
+    private static List<String> ids(List<CatalogFacetIndex.Match> matches) {
+        List<String> ids = new ArrayList<>();
+        for (CatalogFacetIndex.Match match : matches) {
+            ids.add(match.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,95 @@
+package com.buyandsellstore.app.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency of CatalogSearchIndex over a synthetic catalog of 1M items whose words follow a Zipf
+ * distribution, as real catalog text does. Sample-time mode, so the output includes p99 per query.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.buyandsellstore.app.service.CatalogSearchBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class CatalogSearchBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int QUERIES = 1024;
+
+    @Param({"1000000"})
+    public int items;
+
+    private CatalogSearchIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        double[] cumulative = zipf(VOCABULARY);
+
+        index = new CatalogSearchIndex();
+        for (int i = 0; i < items; i++) {
+            String type = i % 2 == 0 ? CatalogSearchIndex.BOOK : CatalogSearchIndex.HOME_ITEM;
+            index.index(type, "item" + i, words(random, cumulative, 4), words(random, cumulative, 2),
+                    words(random, cumulative, 20));
+        }
+
+        // Queries of one to three words drawn from the same distribution, so common words are searched too
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = words(random, cumulative, 1 + random.nextInt(3));
+        }
+    }
+
+    @Benchmark
+    public List<CatalogSearchIndex.Hit> search() {
+        String query = queries[next++ & (QUERIES - 1)];
+        return index.search(query, null, null, 21);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CatalogSearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    private static double[] zipf(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += 1.0 / rank;
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static String words(Random random, double[] cumulative, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int word = Arrays.binarySearch(cumulative, random.nextDouble());
+            text.append(" w").append(word < 0 ? -word - 1 : word);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package com.buyandsellstore.app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSearchIndexTest {
+
+    private CatalogSearchIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new CatalogSearchIndex();
+        index.index(CatalogSearchIndex.BOOK, "b1", "The Garden Handbook", "Ann Lee", "Growing vegetables at home");
+        index.index(CatalogSearchIndex.BOOK, "b2", "Sea Stories", "Bo Kim", "A novel about a lighthouse and a garden");
+        index.index(CatalogSearchIndex.HOME_ITEM, "h1", "Garden Hose", "HoseCo", "Thirty metres, for any garden");
+    }
+
+    /**
+     * A title match outranks the same word in a description, and the type filter keeps to one catalog.
+     */
+    @Test
+    public void testTitleMatchesRankFirstAndTypeFilters() {
+        List<String> all = keys(index.search("garden", null, null, 10));
+        assertEquals(3, all.size());
+        assertNotEquals("book:b2", all.get(0));
+        assertEquals("book:b2", all.get(2));
+
+        assertEquals(List.of("home:h1"), keys(index.search("Garden", "home", null, 10)));
+        assertTrue(index.search("submarine", null, null, 10).isEmpty());
+    }
+
+    @Test
+    public void testReindexingReplacesOldText() {
+        index.index(CatalogSearchIndex.BOOK, "b2", "Mountain Stories", "Bo Kim", "A novel about climbing");
+
+        assertFalse(keys(index.search("garden", null, null, 10)).contains("book:b2"));
+        assertEquals(List.of("book:b2"), keys(index.search("mountain", null, null, 10)));
+        assertEquals(3, index.size());
+
+        index.remove(CatalogSearchIndex.BOOK, "b2");
+        assertTrue(index.search("mountain", null, null, 10).isEmpty());
+    }
+
+    /**
+     * Paging with the last hit as the cursor returns every match exactly once, in rank order.
+     */
+    @Test
+    public void testPagingAfterLastHitCoversAllMatches() {
+        List<String> allAtOnce = keys(index.search("garden", null, null, 10));
+
+        List<String> paged = new ArrayList<>();
+        CatalogSearchIndex.Hit after = null;
+        while (true) {
+            List<CatalogSearchIndex.Hit> page = index.search("garden", null, after, 1);
+            if (page.isEmpty()) break;
+            paged.addAll(keys(page));
+            after = page.get(page.size() - 1);
+        }
+        assertEquals(allAtOnce, paged);
+    }
+
+    /**
+     * Enough re-indexing triggers compaction, which must keep every live item searchable.
+     */
+    @Test
+    public void testCompactionKeepsLiveItems() {
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 1000; i++) {
+                index.index(CatalogSearchIndex.HOME_ITEM, "lamp" + i, "Desk lamp " + round, "LightCo", "Lamp number " + i);
+            }
+        }
+        assertEquals(1003, index.size());
+        assertEquals(1000, index.search("lamp", "home", null, 2000).size());
+        assertEquals(1000, index.search("2", null, null, 2000).size());
+        assertEquals(3, index.search("garden", null, null, 10).size());
+    }
+
+    /**
+     * Pruned top-k search must return exactly the head of the full, unpruned ranking.
+     */
+    @Test
+    public void testPrunedTopHitsMatchFullRanking() {
+        Random random = new Random(7);
+        for (int i = 0; i < 3000; i++) {
+            index.index(CatalogSearchIndex.BOOK, "r" + i, text(random, 3), text(random, 2), text(random, 12));
+        }
+        for (String query : new String[]{"w0", "w0 w7", "w1 w25 w3", "w0 w1 w2 w60"}) {
+            List<String> full = keys(index.search(query, null, null, 100_000));
+            assertEquals(full.subList(0, 10), keys(index.search(query, null, null, 10)), query);
+        }
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            // Skewed word choice, so some words are in most docs and some in few
+            text.append(" w").append((int) Math.floor(Math.pow(random.nextDouble(), 3) * 100));
+        }
+        return text.toString();
+    }
+
+    private static List<String> keys(List<CatalogSearchIndex.Hit> hits) {
+        List<String> keys = new ArrayList<>();
+        hits.forEach(hit -> keys.add(hit.getKey()));
+        return keys;
+    }
+}
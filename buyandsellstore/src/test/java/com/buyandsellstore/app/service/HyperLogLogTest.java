@@ -0,0 +1,58 @@
+package com.buyandsellstore.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void testSmallCountsAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            sketch.add("user" + i);
+            sketch.add("user" + i); // repeat buyers are not counted twice
+        }
+        assertEquals(100, sketch.estimate(), 2);
+    }
+
+    @Test
+    public void testLargeCountWithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 200_000; i++) {
+            sketch.add("user-" + i);
+        }
+        // Standard error is about 2.3%; allow three of them
+        assertEquals(200_000, sketch.estimate(), 200_000 * 0.07);
+    }
+
+    /**
+     * Merging stored day sketches gives the same estimate as one sketch over the union of their buyers.
+     */
+    @Test
+    public void testMergedSparseSketchesMatchUnion() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            monday.add("user" + i);
+            union.add("user" + i);
+        }
+        for (int i = 20_000; i < 50_000; i++) {
+            tuesday.add("user" + i);
+            union.add("user" + i);
+        }
+
+        HyperLogLog merged = new HyperLogLog();
+        merged.merge(monday.toSparseRegisters());
+        merged.merge(tuesday.toSparseRegisters());
+
+        assertEquals(union.estimate(), merged.estimate());
+        assertEquals(50_000, merged.estimate(), 50_000 * 0.07);
+    }
+
+    @Test
+    public void testEmptySketch() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+}
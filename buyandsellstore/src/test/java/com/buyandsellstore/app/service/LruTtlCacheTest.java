@@ -0,0 +1,67 @@
+package com.buyandsellstore.app.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LruTtlCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(2, 60_000, now::get);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a"); // "b" is now the least recently used
+        cache.put("c", "C");
+
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("C", cache.get("c"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testExpiredEntryIsAMiss() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 5_000, now::get);
+        cache.put("a", "A");
+        assertEquals("A", cache.get("a"));
+
+        now.addAndGet(5_000);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidateIf() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 60_000, now::get);
+        cache.put("seller1:a", "A");
+        cache.put("seller1:b", "B");
+        cache.put("seller2:a", "C");
+
+        assertEquals(2, cache.invalidateIf(key -> key.startsWith("seller1:")));
+        assertEquals(1, cache.size());
+        assertEquals("C", cache.get("seller2:a"));
+    }
+
+    @Test
+    public void testMeterBinderPublishesCacheMetrics() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 60_000, now::get);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.meterBinder("products").bindTo(registry);
+
+        cache.put("a", "A");
+        cache.get("a");
+        cache.get("b");
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "products").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "products").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").tag("cache", "products").gauge().value());
+    }
+}
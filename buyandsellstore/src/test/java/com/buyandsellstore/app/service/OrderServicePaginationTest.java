@@ -0,0 +1,101 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.dto.Connection;
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import com.buyandsellstore.app.model.SoldItem;
+import com.buyandsellstore.app.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class OrderServicePaginationTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * A page that ends inside an order continues with that order's next line, not the next order.
+     */
+    @Test
+    public void testSoldItemsPageCanEndInsideAnOrder() {
+        Order newer = order("o2", 2000L, "a", "b");
+        Order older = order("o1", 1000L, "c");
+        when(orderRepository.findSellerOrdersPage(eq("seller1"), isNull(), isNull(), eq(false), eq(2)))
+                .thenReturn(Arrays.asList(newer, older));
+
+        Connection<SoldItem> firstPage = orderService.getSoldItemsConnection("seller1", 1, null);
+        assertEquals(1, firstPage.getEdges().size());
+        assertEquals("a", firstPage.getEdges().get(0).getNode().getItemId());
+        assertTrue(firstPage.getPageInfo().isHasNextPage());
+
+        when(orderRepository.findSellerOrdersPage(eq("seller1"), eq(new Date(2000L)), eq("o2"), eq(true), eq(4)))
+                .thenReturn(Arrays.asList(newer, older));
+
+        Connection<SoldItem> secondPage = orderService.getSoldItemsConnection("seller1", 2, firstPage.getPageInfo().getEndCursor());
+        assertEquals(Arrays.asList("b", "c"), itemIds(secondPage));
+        assertFalse(secondPage.getPageInfo().isHasNextPage());
+    }
+
+    /**
+     * Orders are fetched one past the page size to decide hasNextPage, and the cursor carries (createdAt, id).
+     */
+    @Test
+    public void testOrdersConnectionUsesKeysetCursor() {
+        when(orderRepository.findUserOrdersPage(eq("user1"), isNull(), isNull(), eq(3)))
+                .thenReturn(Arrays.asList(order("o3", 3000L, "a"), order("o2", 2000L, "b"), order("o1", 1000L, "c")));
+
+        Connection<Order> firstPage = orderService.getOrdersConnection("user1", 2, null);
+        assertEquals(2, firstPage.getEdges().size());
+        assertTrue(firstPage.getPageInfo().isHasNextPage());
+
+        when(orderRepository.findUserOrdersPage(eq("user1"), eq(new Date(2000L)), eq("o2"), eq(3)))
+                .thenReturn(Collections.singletonList(order("o1", 1000L, "c")));
+
+        Connection<Order> secondPage = orderService.getOrdersConnection("user1", 2, firstPage.getPageInfo().getEndCursor());
+        assertEquals("o1", secondPage.getEdges().get(0).getNode().getId());
+        assertFalse(secondPage.getPageInfo().isHasNextPage());
+    }
+
+    @Test
+    public void testInvalidCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersConnection("user1", 10, "not-a-cursor"));
+    }
+
+    private static Order order(String id, long createdAt, String... itemIds) {
+        List<CartItem> items = new ArrayList<>();
+        for (String itemId : itemIds) {
+            CartItem item = new CartItem(itemId, "book", "Item " + itemId, 1, 10.0, null);
+            item.setSellerId("seller1");
+            items.add(item);
+        }
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId("user1");
+        order.setItems(items);
+        order.setCreatedAt(new Date(createdAt));
+        return order;
+    }
+
+    private static List<String> itemIds(Connection<SoldItem> connection) {
+        List<String> ids = new ArrayList<>();
+        connection.getEdges().forEach(edge -> ids.add(edge.getNode().getItemId()));
+        return ids;
+    }
+}
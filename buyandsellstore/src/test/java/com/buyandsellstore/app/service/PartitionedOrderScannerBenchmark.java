@@ -0,0 +1,90 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Full seller scan of a synthetic 5M-order history with 1, 4 and 16 createdAt partitions. Orders are
+ * generated on the fly inside each partition's range (order i is created at millisecond i), so the
+ * benchmark measures the accumulate-and-merge work and its scaling, not a database.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.buyandsellstore.app.service.PartitionedOrderScannerBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PartitionedOrderScannerBenchmark {
+
+    private static final String SELLER_ID = "seller1";
+    private static final long ORDERS = 5_000_000L;
+
+    @Param({"1", "4", "16"})
+    public int partitions;
+
+    private PartitionedOrderScanner scanner;
+
+    @Setup
+    public void setup() {
+        scanner = new PartitionedOrderScanner(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        scanner.shutdown();
+    }
+
+    @Benchmark
+    public SellerSalesAccumulator scanFiveMillionOrders() {
+        return scanner.scan(PartitionedOrderScannerBenchmark::syntheticOrders, new Date(0), new Date(ORDERS), partitions,
+                () -> new SellerSalesAccumulator(SELLER_ID, false),
+                SellerSalesAccumulator::add,
+                SellerSalesAccumulator::merge);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PartitionedOrderScannerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    // Order i: created at millisecond i, one to three lines over a 5,000-product catalog
+    private static void syntheticOrders(Date createdAfter, Date createdUntil, Consumer<Order> consumer) {
+        long first = createdAfter == null ? 0 : createdAfter.getTime() + 1;
+        long last = createdUntil == null ? ORDERS : Math.min(createdUntil.getTime(), ORDERS);
+        for (long i = first; i <= last; i++) {
+            int lines = 1 + (int) (i % 3);
+            List<CartItem> items = new ArrayList<>(lines);
+            for (int line = 0; line < lines; line++) {
+                int product = (int) ((i * 31 + line * 7) % 5_000);
+                CartItem item = new CartItem("item" + product, product % 2 == 0 ? "book" : "home",
+                        "Product " + product, 1 + line, 5 + product % 50, null);
+                item.setSellerId(SELLER_ID);
+                items.add(item);
+            }
+            Order order = new Order();
+            order.setUserId("user" + (i % 200_000));
+            order.setItems(items);
+            order.setCreatedAt(new Date(i));
+            consumer.accept(order);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedOrderScannerTest {
+
+    private final PartitionedOrderScanner scanner = new PartitionedOrderScanner(4);
+
+    private final List<Order> orders = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        scanner.shutdown();
+    }
+
+    /**
+     * Every order, including ones exactly on a partition boundary and ones newer than "to", is scanned once.
+     */
+    @Test
+    public void testPartitionsCoverRangeExactlyOnce() {
+        for (long time = 1; time <= 1_000; time++) {
+            orders.add(order("o" + time, time));
+        }
+        orders.add(order("late", 5_000)); // created after the scan was planned
+
+        for (int partitions : new int[]{1, 4, 16}) {
+            List<String> seen = scanner.scan(this::forEach, new Date(0), new Date(1_000), partitions,
+                    ArrayList::new,
+                    (ids, order) -> ids.add(order.getId()),
+                    (a, b) -> { a.addAll(b); return a; });
+
+            assertEquals(1_001, seen.size(), "partitions=" + partitions);
+            assertEquals(1_001, new HashSet<>(seen).size(), "partitions=" + partitions);
+        }
+    }
+
+    /**
+     * Merged per-partition accumulators give the same totals as one sequential pass.
+     */
+    @Test
+    public void testMergedAccumulatorsMatchSequentialScan() {
+        Random random = new Random(7);
+        for (long time = 1; time <= 2_000; time++) {
+            Order order = order("o" + time, time);
+            order.setUserId("user" + random.nextInt(300));
+            order.getItems().get(0).setItemId("item" + random.nextInt(50));
+            orders.add(order);
+        }
+
+        SellerSalesAccumulator sequential = scanner.scan(this::forEach, new Date(0), new Date(2_000), 1,
+                () -> new SellerSalesAccumulator("seller1"), SellerSalesAccumulator::add, SellerSalesAccumulator::merge);
+        SellerSalesAccumulator parallel = scanner.scan(this::forEach, new Date(0), new Date(2_000), 16,
+                () -> new SellerSalesAccumulator("seller1"), SellerSalesAccumulator::add, SellerSalesAccumulator::merge);
+
+        assertEquals(sequential.getTotalBuyers(), parallel.getTotalBuyers());
+        assertEquals(sequential.getTotalPurchases(), parallel.getTotalPurchases());
+        assertEquals(sequential.getTotalRevenue(), parallel.getTotalRevenue(), 1e-6);
+        assertEquals(sequential.topProducts("revenue", 10), parallel.topProducts("revenue", 10));
+        assertEquals(sequential.salesByCategory(), parallel.salesByCategory());
+    }
+
+    private void forEach(Date createdAfter, Date createdUntil, Consumer<Order> consumer) {
+        for (Order order : orders) {
+            long time = order.getCreatedAt().getTime();
+            if ((createdAfter == null || time > createdAfter.getTime())
+                    && (createdUntil == null || time <= createdUntil.getTime())) {
+                consumer.accept(order);
+            }
+        }
+    }
+
+    private static Order order(String id, long createdAt) {
+        CartItem item = new CartItem("item1", "book", "Item", 1, 10.0, null);
+        item.setSellerId("seller1");
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId("user1");
+        order.setItems(new ArrayList<>(List.of(item)));
+        order.setCreatedAt(new Date(createdAt));
+        return order;
+    }
+}
@@ -0,0 +1,44 @@
+package com.buyandsellstore.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCacheTest {
+
+    private final ProductCache productCache = new ProductCache(100, 60);
+
+    /**
+     * A save of one item while another is loading does not keep the other from being cached.
+     */
+    @Test
+    public void testEvictingOtherItemMidLoadStillCaches() {
+        AtomicInteger loads = new AtomicInteger();
+
+        productCache.get(ProductCache.BOOK, "b1", () -> {
+            productCache.evict(ProductCache.BOOK, "b2");
+            return "b1 v" + loads.incrementAndGet();
+        });
+        String cached = productCache.get(ProductCache.BOOK, "b1", () -> "b1 v" + loads.incrementAndGet());
+
+        assertEquals("b1 v1", cached);
+        assertEquals(1, loads.get());
+    }
+
+    /**
+     * A document loaded before a save of the same item is returned but not cached.
+     */
+    @Test
+    public void testEvictingSameItemMidLoadIsNotStored() {
+        String stale = productCache.get(ProductCache.BOOK, "b1", () -> {
+            productCache.evict(ProductCache.BOOK, "b1"); // saved mid-load
+            return "stale";
+        });
+        assertEquals("stale", stale);
+
+        assertEquals("fresh", productCache.get(ProductCache.BOOK, "b1", () -> "fresh"));
+        assertEquals("fresh", productCache.get(ProductCache.BOOK, "b1", () -> "unexpected"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.buyandsellstore.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuantileSketchTest {
+
+    @Test
+    public void testPercentilesWithinRelativeAccuracy() {
+        Random random = new Random(42);
+        double[] values = new double[50_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() + 3); // long-tailed, like order values
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.5, 0.9, 0.99}) {
+            double exact = values[(int) Math.floor(q * (values.length - 1))];
+            assertEquals(exact, sketch.quantile(q), exact * QuantileSketch.RELATIVE_ACCURACY);
+        }
+    }
+
+    /**
+     * Merging stored day sketches gives the same percentiles as one sketch over all of their values.
+     */
+    @Test
+    public void testMergedStoredSketchesMatchUnion() {
+        QuantileSketch monday = new QuantileSketch();
+        QuantileSketch tuesday = new QuantileSketch();
+        QuantileSketch union = new QuantileSketch();
+        for (int i = 1; i <= 1000; i++) {
+            (i % 2 == 0 ? monday : tuesday).add(i);
+            union.add(i);
+        }
+        monday.add(0); // a zero-value order lands in its own bucket
+        union.add(0);
+
+        QuantileSketch merged = new QuantileSketch();
+        merged.merge(monday.toStoredCounts());
+        merged.merge(tuesday.toStoredCounts());
+
+        assertEquals(union.getCount(), merged.getCount());
+        assertEquals(union.quantile(0.5), merged.quantile(0.5), 1e-9);
+        assertEquals(union.quantile(0.99), merged.quantile(0.99), 1e-9);
+        assertEquals(0.0, merged.quantile(0.0), 1e-9);
+    }
+
+    @Test
+    public void testEmptySketchReportsZero() {
+        assertEquals(0.0, new QuantileSketch().quantile(0.5), 1e-9);
+    }
+}
@@ -0,0 +1,180 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.Book;
+import com.buyandsellstore.app.model.Cart;
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.HomeItem;
+import com.buyandsellstore.app.model.Reservation;
+import com.buyandsellstore.app.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ReservationServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private HomeItemService homeItemService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ReservationService reservationService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private Reservation hold(String id, String type, String itemId, int quantity) {
+        Reservation reservation = new Reservation("u1", type, itemId, quantity, new Date(0));
+        reservation.setId(id);
+        return reservation;
+    }
+
+    private CartItem line(String type, String itemId, int quantity) {
+        return new CartItem(itemId, type, itemId, quantity, 1.0, null);
+    }
+
+    /**
+     * Removing from the cart returns a unit only while the hold is live; an expired hold is left to the reaper.
+     */
+    @Test
+    public void testReleaseReturnsStockOnlyForLiveHold() {
+        when(reservationRepository.releaseOne(eq("u1"), eq("book"), eq("b1"), any(Date.class))).thenReturn(true, false);
+
+        assertTrue(reservationService.release("u1", "Book", "b1"));
+        assertFalse(reservationService.release("u1", "Book", "b1"));
+        verify(bookService, times(1)).returnStock("b1", 1);
+    }
+
+    /**
+     * The reaper claims each expired hold, returns an item's units in one update per batch, and keeps going
+     * while batches come back full.
+     */
+    @Test
+    public void testReaperReleasesExpiredHoldsInBatches() {
+        ReflectionTestUtils.setField(reservationService, "reaperBatchSize", 2);
+        Date now = new Date();
+        Reservation first = hold("r1", "book", "b1", 2);
+        Reservation second = hold("r2", "book", "b1", 1);
+        Reservation third = hold("r3", "home", "h1", 4);
+        Reservation extended = hold("r4", "home", "h2", 1);
+        when(reservationRepository.findExpired(now, 2))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third, extended))
+                .thenReturn(List.of());
+        when(reservationRepository.claimExpired("r1", now)).thenReturn(first);
+        when(reservationRepository.claimExpired("r2", now)).thenReturn(second);
+        when(reservationRepository.claimExpired("r3", now)).thenReturn(third);
+
+        assertEquals(7, reservationService.releaseExpired(now));
+
+        verify(bookService).returnStock("b1", 3);
+        verify(homeItemService).returnStock("h1", 4);
+        verify(homeItemService, never()).returnStock(eq("h2"), anyInt());
+        verify(reservationRepository, times(3)).findExpired(now, 2);
+    }
+
+    /**
+     * Held units cover the order first, an expired hold's units are taken from stock again, and extra held
+     * units go back.
+     */
+    @Test
+    public void testConvertUsesHoldsThenStock() {
+        when(reservationRepository.claim("u1", "book", "b1")).thenReturn(hold("r1", "book", "b1", 3));
+        when(bookService.takeStock("b2", 2)).thenReturn(new Book());
+
+        ReservationService.Conversion conversion = reservationService.convert("u1", List.of(line("book", "b1", 2), line("book", "b2", 2)));
+        assertNull(conversion.getUnavailable());
+        verify(bookService, never()).takeStock(eq("b1"), anyInt());
+        verify(bookService, never()).returnStock(anyString(), anyInt());
+
+        reservationService.complete(conversion);
+        verify(bookService).returnStock("b1", 1);
+    }
+
+    /**
+     * When the order cannot be stored, undo gives back the units taken from stock and restores the claimed holds.
+     */
+    @Test
+    public void testUndoAfterFailedSaveRestoresHoldsAndStock() {
+        Reservation held = hold("r1", "book", "b1", 1);
+        when(reservationRepository.claim("u1", "book", "b1")).thenReturn(held);
+        when(bookService.takeStock("b1", 2)).thenReturn(new Book());
+
+        ReservationService.Conversion conversion = reservationService.convert("u1", List.of(line("book", "b1", 3)));
+        reservationService.undo(conversion);
+
+        verify(bookService).returnStock("b1", 2);
+        verify(reservationRepository).hold("u1", "book", "b1", 1, held.getExpiresAt());
+    }
+
+    @Test
+    public void testConvertShortageRestoresHoldsAndStock() {
+        Reservation held = hold("r1", "home", "h1", 1);
+        when(reservationRepository.claim("u1", "home", "h1")).thenReturn(held);
+        when(homeItemService.takeStock("h1", 1)).thenReturn(new HomeItem());
+        CartItem soldOut = line("book", "b1", 1);
+
+        assertSame(soldOut, reservationService.convert("u1", List.of(line("home", "h1", 2), soldOut)).getUnavailable());
+
+        verify(homeItemService).returnStock("h1", 1);
+        verify(reservationRepository).hold("u1", "home", "h1", 1, held.getExpiresAt());
+        verify(bookService, never()).returnStock(anyString(), anyInt());
+    }
+
+    /**
+     * Cart lines from before holds existed get a hold on the units they already took from stock, a line with a
+     * partial hold only the missing units; removing such a line afterwards gives its unit back.
+     */
+    @Test
+    public void testMigrationHoldsCartLinesWithoutHold() {
+        Cart cart = new Cart("u1");
+        cart.getItems().add(line("Book", "b1", 2));
+        cart.getItems().add(line("home", "h1", 3));
+        when(mongoTemplate.stream(any(Query.class), eq(Cart.class))).thenReturn(Stream.of(cart));
+        when(reservationRepository.findByUserIdAndTypeAndItemId("u1", "home", "h1")).thenReturn(hold("r1", "home", "h1", 1));
+
+        assertEquals(4, reservationService.migrateCartHolds());
+
+        verify(reservationRepository).hold(eq("u1"), eq("book"), eq("b1"), eq(2), any(Date.class));
+        verify(reservationRepository).hold(eq("u1"), eq("home"), eq("h1"), eq(2), any(Date.class));
+        verify(mongoTemplate).save(any(), eq(ReservationService.MIGRATIONS));
+
+        when(reservationRepository.releaseOne(eq("u1"), eq("book"), eq("b1"), any(Date.class))).thenReturn(true);
+        assertTrue(reservationService.release("u1", "book", "b1"));
+        verify(bookService).returnStock("b1", 1);
+    }
+
+    @Test
+    public void testMigrationRunsOnlyOnce() {
+        when(mongoTemplate.exists(any(Query.class), eq(ReservationService.MIGRATIONS))).thenReturn(true);
+
+        assertEquals(0, reservationService.migrateCartHolds());
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Cart.class));
+        verify(reservationRepository, never()).hold(anyString(), anyString(), anyString(), anyInt(), any(Date.class));
+    }
+}
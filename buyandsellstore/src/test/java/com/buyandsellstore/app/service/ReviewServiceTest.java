@@ -0,0 +1,182 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.dto.Connection;
+import com.buyandsellstore.app.model.Book;
+import com.buyandsellstore.app.model.HomeItem;
+import com.buyandsellstore.app.model.Review;
+import com.buyandsellstore.app.repository.ReviewRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ReviewServiceTest {
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private CatalogSearchService catalogSearchService;
+
+    @InjectMocks
+    private ReviewService reviewService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private Review review(String id, long createdAt) {
+        Review review = new Review();
+        review.setId(id);
+        review.setReviewer("r-" + id);
+        review.setCreatedAt(new Date(createdAt));
+        return review;
+    }
+
+    /**
+     * The cursor carries the last review's (createdAt, id), and the next page is fetched right after it.
+     */
+    @Test
+    public void testReviewsContinueAfterCursor() {
+        when(reviewRepository.findProductReviewsPage("book", "b1", null, null, 3))
+                .thenReturn(List.of(review("c", 300), review("b", 200), review("a", 100)));
+
+        Connection<Review> firstPage = reviewService.getReviews(ReviewService.BOOK, "b1", 2, null);
+        assertEquals(2, firstPage.getEdges().size());
+        assertTrue(firstPage.getPageInfo().isHasNextPage());
+
+        when(reviewRepository.findProductReviewsPage("book", "b1", new Date(200), "b", 3))
+                .thenReturn(List.of(review("a", 100)));
+
+        Connection<Review> secondPage = reviewService.getReviews(ReviewService.BOOK, "b1", 2, firstPage.getPageInfo().getEndCursor());
+        assertEquals("a", secondPage.getEdges().get(0).getNode().getId());
+        assertFalse(secondPage.getPageInfo().isHasNextPage());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Document> pipeline(UpdateDefinition update) {
+        return (List<Document>) ((AggregationUpdate) update).toPipeline(Aggregation.DEFAULT_CONTEXT);
+    }
+
+    // The value the pipeline's $set stages assign to field, in stage order
+    private List<Object> assigned(List<Document> pipeline, String field) {
+        return pipeline.stream()
+                .map(stage -> (Document) stage.get("$set"))
+                .filter(set -> set.containsKey(field))
+                .map(set -> set.get(field))
+                .toList();
+    }
+
+    /**
+     * Adding a review stores it on its own and moves the product's totals by its rating in one update,
+     * without reading the product or its other reviews.
+     */
+    @Test
+    public void testAddReviewIncrementsTotals() {
+        Review review = new Review();
+        review.setReviewer("ann");
+        review.setRating(4.0);
+        when(reviewRepository.insert(review)).thenReturn(review);
+        Book book = new Book();
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Book.class)))
+                .thenReturn(book);
+
+        reviewService.addReview(ReviewService.BOOK, "b1", review);
+
+        assertEquals("book", review.getProductType());
+        assertEquals("b1", review.getProductId());
+        assertNotNull(review.getCreatedAt());
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Book.class));
+        List<Document> pipeline = pipeline(update.getValue());
+        Document sum = (Document) assigned(pipeline, "ratingSum").get(0);
+        assertEquals(4.0, ((List<?>) sum.get("$add")).get(1));
+        Document count = (Document) assigned(pipeline, "reviewCount").get(0);
+        assertEquals(1, ((List<?>) count.get("$add")).get(1));
+        assertEquals(1, assigned(pipeline, "ratings").size());
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), eq(Review.class), eq(Document.class));
+        verify(productCache).evict(ReviewService.BOOK, "b1");
+        verify(catalogSearchService).indexBook(book);
+    }
+
+    /**
+     * Changing a rating moves the sum by the difference from the old rating and leaves the count alone.
+     */
+    @Test
+    public void testUpdateReviewAppliesRatingDifference() {
+        Review previous = new Review();
+        previous.setRating(2.0);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Review.class))).thenReturn(previous);
+        Review updated = new Review();
+        updated.setComment("better");
+        updated.setRating(5.0);
+
+        assertTrue(reviewService.updateReview(ReviewService.HOME_ITEM, "h1", "Ann", updated));
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(HomeItem.class));
+        List<Document> pipeline = pipeline(update.getValue());
+        assertEquals(3.0, ((List<?>) ((Document) assigned(pipeline, "ratingSum").get(0)).get("$add")).get(1));
+        assertEquals(0, ((List<?>) ((Document) assigned(pipeline, "reviewCount").get(0)).get("$add")).get(1));
+    }
+
+    @Test
+    public void testDeleteReviewsSubtractsDeletedRatings() {
+        Review first = review("a", 100);
+        first.setRating(3.0);
+        Review second = review("b", 200);
+        second.setRating(4.5);
+        when(mongoTemplate.findAllAndRemove(any(Query.class), eq(Review.class))).thenReturn(List.of(first, second));
+
+        assertEquals(2, reviewService.deleteReviews(ReviewService.BOOK, "b1", "ann"));
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Book.class));
+        List<Document> pipeline = pipeline(update.getValue());
+        assertEquals(-7.5, ((List<?>) ((Document) assigned(pipeline, "ratingSum").get(0)).get("$add")).get(1));
+        assertEquals(-2, ((List<?>) ((Document) assigned(pipeline, "reviewCount").get(0)).get("$add")).get(1));
+    }
+
+    @Test
+    public void testDeleteWithoutReviewsLeavesProductAlone() {
+        when(mongoTemplate.findAllAndRemove(any(Query.class), eq(Review.class))).thenReturn(List.of());
+
+        assertEquals(0, reviewService.deleteReviews(ReviewService.BOOK, "b1", "nobody"));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Book.class));
+    }
+
+    @Test
+    public void testMigratedReviewIdsAreStableObjectIds() {
+        String id = ReviewService.migratedReviewId("64b7f0c2a1b2c3d4e5f60718", 2);
+        assertEquals(id, ReviewService.migratedReviewId("64b7f0c2a1b2c3d4e5f60718", 2));
+        assertNotEquals(id, ReviewService.migratedReviewId("64b7f0c2a1b2c3d4e5f60718", 3));
+        assertTrue(ObjectId.isValid(id));
+    }
+}
@@ -0,0 +1,78 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SellerAnalyticsCacheTest {
+
+    private final SellerAnalyticsCache analyticsCache = new SellerAnalyticsCache(100, 300);
+
+    @Test
+    public void testSameArgumentsAreServedFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        analyticsCache.get("seller1", "topProducts", Arrays.asList("week", "revenue", 5), loads::incrementAndGet);
+        analyticsCache.get("seller1", "topProducts", Arrays.asList("week", "revenue", 5), loads::incrementAndGet);
+        analyticsCache.get("seller1", "topProducts", Arrays.asList("week", "quantity", 5), loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, analyticsCache.getCache().getHitCount());
+    }
+
+    /**
+     * A new order drops the entries of the sellers in it and leaves the other sellers cached.
+     */
+    @Test
+    public void testOrderCreatedEvictsOnlyAffectedSellers() {
+        AtomicInteger loads = new AtomicInteger();
+        analyticsCache.get("seller1", "sales", List.of("all"), loads::incrementAndGet);
+        analyticsCache.get("seller2", "sales", List.of("all"), loads::incrementAndGet);
+
+        Order order = new Order();
+        order.setSellerIds(List.of("seller1"));
+        analyticsCache.onOrderCreated(new OrderCreatedEvent(order));
+
+        analyticsCache.get("seller1", "sales", List.of("all"), loads::incrementAndGet);
+        analyticsCache.get("seller2", "sales", List.of("all"), loads::incrementAndGet);
+        assertEquals(3, loads.get());
+    }
+
+    /**
+     * A result computed while the seller's entries were being evicted is returned but not cached.
+     */
+    @Test
+    public void testResultStartedBeforeEvictionIsNotStored() {
+        String stale = analyticsCache.get("seller1", "sales", List.of("all"), () -> {
+            analyticsCache.evictSeller("seller1"); // an order lands mid-computation
+            return "stale";
+        });
+        assertEquals("stale", stale);
+
+        String fresh = analyticsCache.get("seller1", "sales", List.of("all"), () -> "fresh");
+        assertEquals("fresh", fresh);
+    }
+
+    /**
+     * A seller's keys and generation are dropped with its last cached entry, whether a sale or the LRU drops it.
+     */
+    @Test
+    public void testSellerIsForgottenWithItsLastEntry() {
+        SellerAnalyticsCache small = new SellerAnalyticsCache(1, 300);
+        small.get("seller1", "sales", List.of("all"), () -> "one");
+        assertEquals(1, small.trackedSellers());
+
+        small.evictSeller("seller1");
+        assertEquals(0, small.trackedSellers());
+
+        small.get("seller1", "sales", List.of("all"), () -> "one");
+        small.get("seller2", "sales", List.of("all"), () -> "two"); // pushes seller1's entry out
+        assertEquals(1, small.trackedSellers());
+        assertEquals(1, small.getCache().size());
+    }
+}
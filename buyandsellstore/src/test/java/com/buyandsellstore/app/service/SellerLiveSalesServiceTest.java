@@ -0,0 +1,95 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.dto.LiveSales;
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SellerLiveSalesServiceTest {
+
+    private long now;
+    private SellerLiveSalesService service;
+
+    @BeforeEach
+    public void setup() {
+        now = 1_700_000_000_000L;
+        service = new SellerLiveSalesService(() -> now);
+    }
+
+    @Test
+    public void testOnlySellerLinesInsideTheWindowAreCounted() {
+        service.recordOrder(order(now - 10_000L, line("seller1", 2, 5.0), line("seller2", 1, 100.0)));
+        service.recordOrder(order(now - 120_000L, line("seller1", 1, 20.0)));
+
+        LiveSales lastMinute = service.getLiveSales("seller1", "1m");
+        assertEquals(60, lastMinute.getWindowSeconds());
+        assertEquals(1, lastMinute.getOrders());
+        assertEquals(2, lastMinute.getUnits());
+        assertEquals(10.0, lastMinute.getRevenue(), 1e-9);
+
+        LiveSales lastFive = service.getLiveSales("seller1", null);
+        assertEquals("5m", lastFive.getWindow());
+        assertEquals(2, lastFive.getOrders());
+        assertEquals(30.0, lastFive.getRevenue(), 1e-9);
+    }
+
+    /**
+     * Slots are reused as time moves on; a slot left over from an earlier lap of the ring must not be counted.
+     */
+    @Test
+    public void testExpiredSlotsAreIgnoredAfterTheRingWraps() {
+        service.recordOrder(order(now, line("seller1", 3, 1.0)));
+        now += SellerLiveSalesService.SECOND_SLOTS * 1000L;
+        service.recordOrder(order(now, line("seller1", 1, 1.0)));
+
+        assertEquals(1, service.getLiveSales("seller1", "5m").getUnits());
+        assertEquals(4, service.getLiveSales("seller1", "1h").getUnits());
+
+        now += 2 * 3600_000L;
+        assertEquals(0, service.getLiveSales("seller1", "1h").getUnits());
+    }
+
+    /**
+     * A window over five minutes is counted in whole minutes ending with the current partial one, so the part
+     * of its oldest minute that falls inside the window is left out, as documented on LiveSales.
+     */
+    @Test
+    public void testLongWindowsCountWholeMinutesEndingNow() {
+        long minuteStart = now - Math.floorMod(now, 60_000L);
+        service.recordOrder(order(now, line("seller1", 1, 1.0)));
+        service.recordOrder(order(minuteStart - 9 * 60_000L, line("seller1", 2, 1.0)));
+        service.recordOrder(order(minuteStart - 9 * 60_000L - 1, line("seller1", 4, 1.0)));
+
+        assertTrue(now - (minuteStart - 9 * 60_000L - 1) < 600_000L);
+        assertEquals(3, service.getLiveSales("seller1", "10m").getUnits());
+    }
+
+    @Test
+    public void testInvalidWindowIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.getLiveSales("seller1", "2d"));
+        assertThrows(IllegalArgumentException.class, () -> service.getLiveSales("seller1", "90m"));
+        assertEquals(0, service.getLiveSales("unknown", "30s").getOrders());
+    }
+
+    private static CartItem line(String sellerId, int quantity, double price) {
+        CartItem item = new CartItem("item-" + sellerId, "book", "Item", quantity, price, null);
+        item.setSellerId(sellerId);
+        return item;
+    }
+
+    private static Order order(long createdAt, CartItem... items) {
+        List<CartItem> lines = Arrays.asList(items);
+        Order order = new Order();
+        order.setItems(lines);
+        order.setSellerIds(lines.stream().map(CartItem::getSellerId).distinct().toList());
+        order.setCreatedAt(new Date(createdAt));
+        return order;
+    }
+}
@@ -0,0 +1,145 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import com.buyandsellstore.app.model.SellerRevenueDay;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class SellerRevenueCubeServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private SellerRevenueCubeService sellerRevenueCubeService;
+
+    private final LocalDate today = LocalDate.now(ZoneId.systemDefault());
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Days without sales inside the requested range are reported as 0, oldest first.
+     */
+    @Test
+    public void testDailySeriesIsSortedAndGapFilled() {
+        LocalDate from = today.minusDays(2);
+        when(mongoTemplate.find(any(Query.class), eq(SellerRevenueDay.class))).thenReturn(Arrays.asList(
+                new SellerRevenueDay("seller1", from.toString(), 10.0),
+                new SellerRevenueDay("seller1", today.toString(), 5.0)));
+
+        Map<String, Object> series = sellerRevenueCubeService.getRevenueSeries("seller1", from, "daily");
+
+        assertEquals(Arrays.asList(from.toString(), from.plusDays(1).toString(), today.toString()), series.get("timeLabels"));
+        assertEquals(Arrays.asList(10.0, 0.0, 5.0), series.get("revenueValues"));
+    }
+
+    /**
+     * Monthly buckets sum their days and the series runs from the first sale up to the current month.
+     */
+    @Test
+    public void testMonthlySeriesFromWholeHistory() {
+        LocalDate firstMonth = today.withDayOfMonth(1).minusMonths(2);
+        when(mongoTemplate.find(any(Query.class), eq(SellerRevenueDay.class))).thenReturn(Arrays.asList(
+                new SellerRevenueDay("seller1", firstMonth.toString(), 10.0),
+                new SellerRevenueDay("seller1", firstMonth.plusDays(3).toString(), 2.5)));
+
+        Map<String, Object> series = sellerRevenueCubeService.getRevenueSeries("seller1", null, "monthly");
+
+        List<?> labels = (List<?>) series.get("timeLabels");
+        assertEquals(3, labels.size());
+        assertEquals(firstMonth.getMonth() + " " + firstMonth.getYear(), labels.get(0));
+        assertEquals(Arrays.asList(12.5, 0.0, 0.0), series.get("revenueValues"));
+    }
+
+    /**
+     * The buyer goes into the day's sketch as a $max on the single register their id hashes to.
+     */
+    @Test
+    public void testRecordOrderAddsBuyerToDaySketch() {
+        CartItem line = new CartItem("b1", "book", "Book", 2, 5.0, null);
+        line.setSellerId("seller1");
+        Order order = new Order();
+        order.setUserId("user1");
+        order.setItems(List.of(line));
+        order.setCreatedAt(new Date());
+
+        sellerRevenueCubeService.recordOrder(order);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(SellerRevenueDay.class));
+        long hash = HyperLogLog.hash("user1");
+        Document max = (Document) update.getValue().getUpdateObject().get("$max");
+        assertEquals(HyperLogLog.registerValue(hash), max.get("buyerSketch." + HyperLogLog.registerIndex(hash)));
+    }
+
+    /**
+     * The seller's part of the order is counted in one bucket of each day sketch: 2 x 5.0 revenue, 2 units.
+     */
+    @Test
+    public void testRecordOrderCountsOrderValueAndBasketSize() {
+        CartItem line = new CartItem("b1", "book", "Book", 2, 5.0, null);
+        line.setSellerId("seller1");
+        Order order = new Order();
+        order.setItems(List.of(line));
+        order.setCreatedAt(new Date());
+
+        sellerRevenueCubeService.recordOrder(order);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(SellerRevenueDay.class));
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(1, inc.get("orderValueSketch." + QuantileSketch.bucketKey(10.0)));
+        assertEquals(1, inc.get("basketSizeSketch." + QuantileSketch.bucketKey(2.0)));
+    }
+
+    @Test
+    public void testDistinctBuyersMergesDaySketches() {
+        HyperLogLog monday = new HyperLogLog();
+        monday.add("user1");
+        monday.add("user2");
+        HyperLogLog tuesday = new HyperLogLog();
+        tuesday.add("user2");
+        tuesday.add("user3");
+        SellerRevenueDay first = new SellerRevenueDay("seller1", today.minusDays(1).toString(), 0);
+        first.setBuyerSketch(monday.toSparseRegisters());
+        SellerRevenueDay second = new SellerRevenueDay("seller1", today.toString(), 0);
+        second.setBuyerSketch(tuesday.toSparseRegisters());
+        when(mongoTemplate.find(any(Query.class), eq(SellerRevenueDay.class))).thenReturn(Arrays.asList(first, second));
+
+        assertEquals(3, sellerRevenueCubeService.estimateDistinctBuyers("seller1", today.minusDays(1)));
+    }
+
+    @Test
+    public void testNoSalesGivesEmptySeries() {
+        when(mongoTemplate.find(any(Query.class), eq(SellerRevenueDay.class))).thenReturn(List.of());
+
+        Map<String, Object> series = sellerRevenueCubeService.getRevenueSeries("seller1", null, "weekly");
+
+        assertTrue(((List<?>) series.get("timeLabels")).isEmpty());
+        assertTrue(((List<?>) series.get("revenueValues")).isEmpty());
+    }
+}
@@ -0,0 +1,119 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import com.buyandsellstore.app.model.SellerBuyer;
+import com.buyandsellstore.app.model.SellerRollup;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class SellerRollupServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private SellerRollupService sellerRollupService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private CartItem line(String itemId, String type, int quantity, double price, String sellerId) {
+        CartItem item = new CartItem(itemId, type, "name-" + itemId, quantity, price, "img");
+        item.setSellerId(sellerId);
+        return item;
+    }
+
+    private Order order(CartItem... items) {
+        Order order = new Order();
+        order.setUserId("buyer1");
+        order.setItems(Arrays.asList(items));
+        return order;
+    }
+
+    /**
+     * Lines for the same item are summed into one $inc, and a first-time buyer bumps totalBuyers.
+     */
+    @Test
+    public void testRecordOrder_NewBuyer() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(SellerBuyer.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, new BsonString("seller1:buyer1")));
+
+        sellerRollupService.recordOrder(order(
+                line("b1", "book", 2, 10.0, "seller1"),
+                line("b1", "book", 1, 10.0, "seller1"),
+                line("h1", "home", 1, 5.0, "seller1")));
+
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), captor.capture(), eq(SellerRollup.class));
+        Document inc = (Document) captor.getValue().getUpdateObject().get("$inc");
+
+        assertEquals(4, inc.get("totalPurchases"));
+        assertEquals(35.0, inc.get("totalRevenue"));
+        assertEquals(3, inc.get("items.b1.quantity"));
+        assertEquals(30.0, inc.get("items.b1.revenue"));
+        assertEquals(3, inc.get("categories.books.count"));
+        assertEquals(1, inc.get("categories.home.count"));
+        assertEquals(1, inc.get("totalBuyers"));
+
+        // The buyer marker is written only after the rollup increment
+        InOrder writes = inOrder(mongoTemplate);
+        writes.verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(SellerRollup.class));
+        writes.verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(SellerBuyer.class));
+    }
+
+    /**
+     * A returning buyer and lines of other sellers do not touch this seller's buyer count.
+     */
+    @Test
+    public void testRecordOrder_ReturningBuyerAndSeveralSellers() {
+        when(mongoTemplate.exists(any(Query.class), eq(SellerBuyer.class))).thenReturn(true);
+
+        sellerRollupService.recordOrder(order(
+                line("b1", "book", 1, 10.0, "seller1"),
+                line("b2", "book", 1, 12.0, "seller2")));
+
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), captor.capture(), eq(SellerRollup.class));
+        for (Update update : captor.getAllValues()) {
+            Document inc = (Document) update.getUpdateObject().get("$inc");
+            assertEquals(1, inc.get("totalPurchases"));
+            assertFalse(inc.containsKey("totalBuyers"));
+        }
+    }
+
+    /**
+     * When a concurrent first order of the same buyer wins the marker, this order takes its buyer count back.
+     */
+    @Test
+    public void testRecordOrder_ConcurrentFirstOrderUncountsBuyer() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(SellerBuyer.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 0L, null));
+
+        sellerRollupService.recordOrder(order(line("b1", "book", 1, 10.0, "seller1")));
+
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), captor.capture(), eq(SellerRollup.class));
+        assertEquals(-1, ((Document) captor.getValue().getUpdateObject().get("$inc")).get("totalBuyers"));
+    }
+}
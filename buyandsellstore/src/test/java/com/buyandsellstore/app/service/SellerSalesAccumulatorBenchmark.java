@@ -0,0 +1,158 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the per-order-line cost of the top products accumulation before (boxed metrics in a
+ * Map per product, full sort) and after (ProductSalesTable with a bounded heap). Scores are per order
+ * line; run with the GC profiler (as main does) and compare gc.alloc.rate.norm.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.buyandsellstore.app.service.SellerSalesAccumulatorBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SellerSalesAccumulatorBenchmark {
+
+    private static final String SELLER_ID = "seller1";
+    private static final int ORDERS = 10_000;
+    private static final int LINES_PER_ORDER = 4;
+    private static final int LINES = ORDERS * LINES_PER_ORDER;
+
+    @Param({"200", "5000"})
+    public int products;
+
+    private List<Order> orders;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            List<CartItem> items = new ArrayList<>(LINES_PER_ORDER);
+            for (int j = 0; j < LINES_PER_ORDER; j++) {
+                int product = random.nextInt(products);
+                CartItem item = new CartItem("item" + product, product % 2 == 0 ? "book" : "home",
+                        "Product " + product, 1 + random.nextInt(3), 5 + random.nextInt(50), null);
+                item.setSellerId(SELLER_ID);
+                items.add(item);
+            }
+            Order order = new Order();
+            order.setUserId("user" + random.nextInt(2_000));
+            order.setItems(items);
+            orders.add(order);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public List<Map<String, Object>> boxedMapAndFullSort() {
+        BoxedProductMetrics sales = new BoxedProductMetrics();
+        for (Order order : orders) {
+            sales.add(order);
+        }
+        return sales.topProducts("revenue", 5);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public List<Map<String, Object>> typedTableAndTopKHeap() {
+        SellerSalesAccumulator sales = new SellerSalesAccumulator(SELLER_ID);
+        for (Order order : orders) {
+            sales.add(order);
+        }
+        return sales.topProducts("revenue", 5);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SellerSalesAccumulatorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    // The per-product accumulation as SellerSalesAccumulator did it before the typed table, kept as the baseline
+    static class BoxedProductMetrics {
+        private final Set<String> buyers = new HashSet<>();
+        private int totalPurchases;
+        private double totalRevenue;
+        private final Map<String, Map<String, Object>> productMetrics = new HashMap<>();
+        private final Map<String, Map<String, Object>> categories = new LinkedHashMap<>();
+
+        BoxedProductMetrics() {
+            categories.put("books", createCategoryMetrics("books"));
+            categories.put("home", createCategoryMetrics("home"));
+        }
+
+        void add(Order order) {
+            for (CartItem item : order.getItems()) {
+                if (SELLER_ID.equals(item.getSellerId())) {
+                    double lineRevenue = item.getQuantity() * item.getPrice();
+                    totalPurchases += item.getQuantity();
+                    totalRevenue += lineRevenue;
+                    buyers.add(order.getUserId());
+                    addProduct(item, lineRevenue);
+
+                    Map<String, Object> metrics = categories.get(SellerAnalyticsService.categoryName(item.getType()));
+                    if (metrics != null) {
+                        metrics.put("count", (int) metrics.get("count") + item.getQuantity());
+                        metrics.put("revenue", (double) metrics.get("revenue") + lineRevenue);
+                    }
+                }
+            }
+        }
+
+        private void addProduct(CartItem item, double revenue) {
+            if (!productMetrics.containsKey(item.getItemId())) {
+                Map<String, Object> metrics = new HashMap<>();
+                metrics.put("id", item.getItemId());
+                metrics.put("name", item.getName());
+                metrics.put("type", item.getType());
+                metrics.put("quantity", 0);
+                metrics.put("revenue", 0.0);
+                metrics.put("imageUrl", item.getImageUrl());
+                productMetrics.put(item.getItemId(), metrics);
+            }
+
+            Map<String, Object> metrics = productMetrics.get(item.getItemId());
+            metrics.put("quantity", (int) metrics.get("quantity") + item.getQuantity());
+            metrics.put("revenue", (double) metrics.get("revenue") + revenue);
+        }
+
+        List<Map<String, Object>> topProducts(String metric, int limit) {
+            List<Map<String, Object>> productList = new ArrayList<>(productMetrics.values());
+            Comparator<Map<String, Object>> byMetric = "revenue".equals(metric)
+                    ? (a, b) -> Double.compare((double) b.get("revenue"), (double) a.get("revenue"))
+                    : (a, b) -> Integer.compare((int) b.get("quantity"), (int) a.get("quantity"));
+            productList.sort(byMetric.thenComparing(product -> (String) product.get("id")));
+            return productList.stream().limit(limit).collect(Collectors.toList());
+        }
+
+        private static Map<String, Object> createCategoryMetrics(String category) {
+            Map<String, Object> metrics = new HashMap<>();
+            metrics.put("name", category);
+            metrics.put("count", 0);
+            metrics.put("revenue", 0.0);
+            return metrics;
+        }
+    }
+}
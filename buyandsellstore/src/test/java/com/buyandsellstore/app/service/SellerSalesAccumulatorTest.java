@@ -0,0 +1,94 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SellerSalesAccumulatorTest {
+
+    private static final String SELLER_ID = "seller1";
+
+    /**
+     * Top products come back best first, ties broken by item id, and only the seller's own lines count.
+     */
+    @Test
+    public void testTopProductsRanksByMetricAndBreaksTiesById() {
+        SellerSalesAccumulator sales = new SellerSalesAccumulator(SELLER_ID);
+        sales.add(order("user1", line("b", "book", 2, 10.0), line("a", "book", 2, 5.0), line("c", "home", 1, 50.0)));
+        sales.add(order("user2", line("c", "home", 1, 50.0), otherSellerLine("z", 100)));
+
+        List<Map<String, Object>> byQuantity = sales.topProducts("quantity", 10);
+        assertEquals(Arrays.asList("a", "b", "c"), ids(byQuantity));
+        assertEquals(2, byQuantity.get(0).get("quantity"));
+
+        List<Map<String, Object>> byRevenue = sales.topProducts("revenue", 2);
+        assertEquals(Arrays.asList("c", "b"), ids(byRevenue));
+        assertEquals(100.0, byRevenue.get(0).get("revenue"));
+
+        assertEquals(2, sales.getTotalBuyers());
+        assertEquals(6, sales.getTotalPurchases());
+    }
+
+    /**
+     * The product table keeps its totals correct while it grows past its initial capacity.
+     */
+    @Test
+    public void testTopProductsAcrossManyProducts() {
+        SellerSalesAccumulator sales = new SellerSalesAccumulator(SELLER_ID);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 500; i++) {
+                sales.add(order("user" + i, line("item" + i, "book", i, 1.0)));
+            }
+        }
+
+        List<Map<String, Object>> top = sales.topProducts(null, null);
+        assertEquals(Arrays.asList("item499", "item498", "item497", "item496", "item495"), ids(top));
+        assertEquals(3 * 499, top.get(0).get("quantity"));
+    }
+
+    @Test
+    public void testSalesByCategory() {
+        SellerSalesAccumulator sales = new SellerSalesAccumulator(SELLER_ID);
+        sales.add(order("user1", line("b1", "book", 2, 10.0), line("h1", "home", 1, 30.0)));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> categories = (List<Map<String, Object>>) sales.salesByCategory().get("categories");
+        assertEquals("books", categories.get(0).get("name"));
+        assertEquals(2, categories.get(0).get("count"));
+        assertEquals(20.0, categories.get(0).get("revenue"));
+        assertEquals("home", categories.get(1).get("name"));
+        assertEquals(30.0, categories.get(1).get("revenue"));
+    }
+
+    private static Order order(String userId, CartItem... items) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setItems(new ArrayList<>(Arrays.asList(items)));
+        return order;
+    }
+
+    private static CartItem line(String itemId, String type, int quantity, double price) {
+        CartItem item = new CartItem(itemId, type, "Item " + itemId, quantity, price, null);
+        item.setSellerId(SELLER_ID);
+        return item;
+    }
+
+    private static CartItem otherSellerLine(String itemId, int quantity) {
+        CartItem item = new CartItem(itemId, "book", "Item " + itemId, quantity, 1.0, null);
+        item.setSellerId("otherSeller");
+        return item;
+    }
+
+    private static List<Object> ids(List<Map<String, Object>> products) {
+        List<Object> ids = new ArrayList<>();
+        products.forEach(product -> ids.add(product.get("id")));
+        return ids;
+    }
+}
@@ -0,0 +1,116 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.dto.SellerSalesUpdate;
+import com.buyandsellstore.app.model.CartItem;
+import com.buyandsellstore.app.model.Order;
+import com.buyandsellstore.app.model.SellerRollup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.Disposable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SellerSalesUpdateServiceTest {
+
+    @Mock
+    private SellerRollupService sellerRollupService;
+
+    @InjectMocks
+    private SellerSalesUpdateService sellerSalesUpdateService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testSubscriberReceivesOnlyItsSellersLinesAndTotals() {
+        SellerRollup totals = new SellerRollup("seller1");
+        totals.setTotalBuyers(3);
+        totals.setTotalPurchases(7);
+        totals.setTotalRevenue(120.0);
+        when(sellerRollupService.getRollupTotals("seller1")).thenReturn(totals);
+
+        List<SellerSalesUpdate> received = new ArrayList<>();
+        Disposable subscription = sellerSalesUpdateService.subscribe("seller1").subscribe(received::add);
+
+        sellerSalesUpdateService.onOrderCreated(new OrderCreatedEvent(
+                order("o1", line("a", "seller1", 2, 10.0), line("b", "seller2", 1, 99.0))));
+
+        assertEquals(1, received.size());
+        SellerSalesUpdate update = received.get(0);
+        assertEquals("o1", update.getOrderId());
+        assertEquals(1, update.getItems().size());
+        assertEquals("a", update.getItems().get(0).getItemId());
+        assertEquals(2, update.getUnits());
+        assertEquals(20.0, update.getRevenue(), 1e-9);
+        assertEquals(7, update.getTotalPurchases());
+        assertEquals(120.0, update.getTotalRevenue(), 1e-9);
+
+        // Nobody watches seller2, so its totals are never read
+        verify(sellerRollupService, never()).getRollupTotals("seller2");
+        subscription.dispose();
+    }
+
+    /**
+     * A failed totals read for one seller is contained: the other seller still gets its update and the
+     * listener does not throw, so the listeners after it (e.g. the analytics cache eviction) still run.
+     */
+    @Test
+    public void testFailedPushDoesNotEscapeTheListener() {
+        when(sellerRollupService.getRollupTotals("seller1")).thenThrow(new IllegalStateException("rollup read failed"));
+        when(sellerRollupService.getRollupTotals("seller2")).thenReturn(new SellerRollup("seller2"));
+
+        List<SellerSalesUpdate> received = new ArrayList<>();
+        Disposable first = sellerSalesUpdateService.subscribe("seller1").subscribe(received::add);
+        Disposable second = sellerSalesUpdateService.subscribe("seller2").subscribe(received::add);
+
+        assertDoesNotThrow(() -> sellerSalesUpdateService.onOrderCreated(new OrderCreatedEvent(
+                order("o1", line("a", "seller1", 1, 10.0), line("b", "seller2", 1, 5.0)))));
+
+        assertEquals(1, received.size());
+        assertEquals("seller2", received.get(0).getSellerId());
+        first.dispose();
+        second.dispose();
+    }
+
+    @Test
+    public void testStreamIsDroppedWhenTheLastSubscriberLeaves() {
+        Disposable first = sellerSalesUpdateService.subscribe("seller1").subscribe();
+        Disposable second = sellerSalesUpdateService.subscribe("seller1").subscribe();
+        assertEquals(1, sellerSalesUpdateService.getStreamCount());
+
+        first.dispose();
+        assertEquals(1, sellerSalesUpdateService.getStreamCount());
+        second.dispose();
+        assertEquals(0, sellerSalesUpdateService.getStreamCount());
+
+        sellerSalesUpdateService.onOrderCreated(new OrderCreatedEvent(order("o2", line("a", "seller1", 1, 5.0))));
+        verifyNoInteractions(sellerRollupService);
+    }
+
+    private static CartItem line(String itemId, String sellerId, int quantity, double price) {
+        CartItem item = new CartItem(itemId, "book", "Item " + itemId, quantity, price, null);
+        item.setSellerId(sellerId);
+        return item;
+    }
+
+    private static Order order(String id, CartItem... items) {
+        List<CartItem> lines = Arrays.asList(items);
+        Order order = new Order();
+        order.setId(id);
+        order.setItems(lines);
+        order.setSellerIds(lines.stream().map(CartItem::getSellerId).distinct().toList());
+        order.setCreatedAt(new Date());
+        return order;
+    }
+}
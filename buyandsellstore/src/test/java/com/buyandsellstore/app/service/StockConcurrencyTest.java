@@ -0,0 +1,75 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.Book;
+import com.buyandsellstore.app.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hundreds of buyers racing for the last units of one item, as in a flash sale: exactly as many succeed
+ * as there were units, and the stock ends at zero rather than below it.
+ */
+@SpringBootTest
+public class StockConcurrencyTest {
+
+    private static final int BUYERS = 300;
+    private static final int UNITS = 7;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Book book;
+
+    @AfterEach
+    void deleteBookAfterTest() {
+        if (book != null) {
+            bookRepository.deleteById(book.getId());
+        }
+    }
+
+    @Test
+    void testConcurrentBuyersCannotOversell() throws Exception {
+        book = bookService.save(new Book("junitFlashSale", "test", 8.99, "test", "test", "junitTestSeller", UNITS));
+
+        ExecutorService buyers = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < BUYERS; i++) {
+                attempts.add(buyers.submit(() -> {
+                    start.await();
+                    return bookService.takeStock(book.getId()) != null;
+                }));
+            }
+            start.countDown();
+
+            int sold = 0;
+            for (Future<Boolean> attempt : attempts) {
+                if (attempt.get(30, TimeUnit.SECONDS)) {
+                    sold++;
+                }
+            }
+            assertEquals(UNITS, sold);
+        } finally {
+            buyers.shutdownNow();
+        }
+
+        assertEquals(0, bookService.getBookForUpdate(book.getId()).getTotalQuantity());
+        assertNull(bookService.takeStock(book.getId()));
+    }
+}
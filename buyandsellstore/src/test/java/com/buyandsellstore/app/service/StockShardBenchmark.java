@@ -0,0 +1,97 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.Book;
+import com.buyandsellstore.app.model.StockShard;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Flash-sale load on one hot book: 32 threads each take a unit and put it back, against 1, 4 and 16 stock
+ * shards. With 1 shard every write queues on the same document, as unsharded stock does; the ops/s column
+ * shows how throughput grows as the writes spread. Needs a MongoDB (a scratch database is created and dropped):
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -Dbenchmark.mongodb.uri=mongodb://localhost:27017 -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.buyandsellstore.app.service.StockShardBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(32)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StockShardBenchmark {
+
+    private static final String DATABASE = "buyAndSellStore_stockShardBenchmark";
+    private static final int STOCK = 1_000_000;
+
+    @Param({"1", "4", "16"})
+    public int shards;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private StockShardService stockShardService;
+    private String bookId;
+
+    @Setup
+    public void setup() {
+        client = MongoClients.create(System.getProperty("benchmark.mongodb.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.getDb().drop();
+        mongoTemplate.indexOps(StockShard.class).ensureIndex(new Index("type", Sort.Direction.ASC).on("itemId", Sort.Direction.ASC));
+
+        stockShardService = new StockShardService();
+        ReflectionTestUtils.setField(stockShardService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(stockShardService, "productCache", new ProductCache(100, 60));
+        // Sharded items are indexed with their shard stock, which the search service reads from Mongo
+        CatalogSearchService catalogSearchService = new CatalogSearchService();
+        ReflectionTestUtils.setField(catalogSearchService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(stockShardService, "catalogSearchService", catalogSearchService);
+
+        Book book = mongoTemplate.insert(new Book("Flash sale", "bench", 9.99, "bench", "bench", "bench", STOCK));
+        bookId = book.getId();
+        stockShardService.setShards(StockShardService.BOOK, bookId, shards);
+    }
+
+    @TearDown
+    public void tearDown() {
+        int left = stockShardService.available(StockShardService.BOOK, bookId)
+                + mongoTemplate.findOne(query(where("_id").is(bookId)), Book.class).getTotalQuantity();
+        System.out.println("Stock left after the run: " + left + " of " + STOCK);
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Benchmark
+    public boolean addAndRemoveFromCart() {
+        boolean taken = stockShardService.take(StockShardService.BOOK, bookId, shards, 1);
+        if (taken) {
+            stockShardService.release(StockShardService.BOOK, bookId, shards, 1);
+        }
+        return taken;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(StockShardBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,153 @@
+package com.buyandsellstore.app.service;
+
+import com.buyandsellstore.app.model.Book;
+import com.buyandsellstore.app.model.StockShard;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class StockShardServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private CatalogSearchService catalogSearchService;
+
+    @InjectMocks
+    private StockShardService stockShardService;
+
+    // Shard quantities by shard id, standing in for the stockShards collection
+    private final Map<String, Integer> shards = new TreeMap<>();
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        // Conditional $inc on one shard, applied only when the shard exists and holds at least the $gte bound
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(StockShard.class))).thenAnswer(invocation -> {
+            Document query = invocation.getArgument(0, Query.class).getQueryObject();
+            Document inc = (Document) invocation.getArgument(1, Update.class).getUpdateObject().get("$inc");
+            String id = query.getString("_id");
+            Document bound = (Document) query.get("quantity");
+            Integer quantity = shards.get(id);
+            if (quantity == null || (bound != null && quantity < bound.getInteger("$gte"))) {
+                return null;
+            }
+            shards.put(id, quantity + inc.getInteger("quantity"));
+            StockShard after = new StockShard();
+            after.setId(id);
+            after.setQuantity(shards.get(id));
+            return after;
+        });
+        when(mongoTemplate.find(any(Query.class), eq(StockShard.class))).thenAnswer(invocation -> {
+            List<StockShard> found = new ArrayList<>();
+            shards.forEach((id, quantity) -> {
+                StockShard shard = new StockShard();
+                shard.setId(id);
+                shard.setShard(Integer.parseInt(id.substring(id.lastIndexOf(':') + 1)));
+                shard.setQuantity(quantity);
+                found.add(shard);
+            });
+            found.sort((a, b) -> Integer.compare(b.getQuantity(), a.getQuantity()));
+            return found;
+        });
+    }
+
+    private int total() {
+        return shards.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Takes keep succeeding while any shard has stock, falling through to the stocked shard without moving
+     * stock onto the dry ones, and stop exactly when the stock runs out.
+     */
+    @Test
+    public void testTakeFallsThroughToStockedShardUntilSoldOut() {
+        for (int shard = 0; shard < 4; shard++) {
+            shards.put(StockShardService.shardId("book", "b1", shard), shard == 3 ? 9 : 0);
+        }
+
+        for (int sold = 0; sold < 9; sold++) {
+            assertTrue(stockShardService.take("book", "b1", 4, 1));
+            assertEquals(8 - sold, total());
+            assertEquals(8 - sold, shards.get(StockShardService.shardId("book", "b1", 3)));
+        }
+        assertFalse(stockShardService.take("book", "b1", 4, 1));
+        assertEquals(0, total());
+        // Reindexed once, when the last stocked shard ran dry
+        verify(catalogSearchService, times(1)).indexBook(any());
+    }
+
+    @Test
+    public void testMultiUnitTakeGathersFromSeveralShards() {
+        for (int shard = 0; shard < 4; shard++) {
+            shards.put(StockShardService.shardId("book", "b1", shard), 2);
+        }
+
+        assertTrue(stockShardService.take("book", "b1", 4, 5));
+        assertEquals(3, total());
+        assertFalse(stockShardService.take("book", "b1", 4, 4));
+        assertEquals(3, total());
+    }
+
+    /**
+     * Stock released onto a sold-out item's shard refreshes the search index, so the item shows as in stock again.
+     */
+    @Test
+    public void testReleaseOnSoldOutItemReindexes() {
+        shards.put(StockShardService.shardId("book", "b1", 0), 0);
+
+        stockShardService.release("book", "b1", 1, 2);
+
+        assertEquals(2, total());
+        verify(catalogSearchService).indexBook(any());
+    }
+
+    /**
+     * A unit released on a shard that a shrink removed goes to shard 0 rather than to the item's totalQuantity.
+     */
+    @Test
+    public void testReleaseOnRemovedShardGoesToShardZero() {
+        shards.put(StockShardService.shardId("book", "b1", 0), 1);
+
+        // Released against the stale count of 4 shards after a shrink to 1
+        stockShardService.release("book", "b1", 4, 2);
+
+        assertEquals(3, shards.get(StockShardService.shardId("book", "b1", 0)));
+        assertEquals(1, shards.size());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Book.class));
+    }
+
+    /**
+     * A unit released after the item was unsharded finds no shard and goes back to the item's totalQuantity.
+     */
+    @Test
+    public void testReleaseWithoutShardFallsBackToItem() {
+        stockShardService.release("book", "b1", 4, 2);
+
+        verify(mongoTemplate).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Book.class));
+        assertEquals(0, total());
+    }
+}
@@ -8,7 +8,7 @@ const API_BASE_URL = "http://localhost:8080";
 
 // GraphQL queries and mutations remain the same...
 const GET_BOOK_DETAILS = gql`
-  query GetBookDetails($id: ID!) {
+  query GetBookDetails($id: ID!, $reviewsAfter: String) {
     book(id: $id) {
       id
       title
@@ -16,10 +16,20 @@ const GET_BOOK_DETAILS = gql`
       price
       imageUrl
       ratings
-      reviews {
-        reviewer
-        comment
-        rating
+      reviewCount
+      reviews(first: 10, after: $reviewsAfter) {
+        edges {
+          node {
+            id
+            reviewer
+            comment
+            rating
+          }
+        }
+        pageInfo {
+          hasNextPage
+          endCursor
+        }
       }
     }
   }
@@ -87,11 +97,8 @@ const ADD_REVIEW = gql`
   mutation AddReview($bookId: ID!, $review: ReviewInput!) {
     addReview(bookId: $bookId, review: $review) {
       id
-      reviews {
-        reviewer
-        comment
-        rating
-      }
+      ratings
+      reviewCount
     }
   }
 `;
@@ -100,11 +107,8 @@ const UPDATE_REVIEW = gql`
   mutation UpdateReview($bookId: ID!, $reviewer: String!, $updatedReview: ReviewInput!) {
     updateReview(bookId: $bookId, reviewer: $reviewer, updatedReview: $updatedReview) {
       id
-      reviews {
-        reviewer
-        comment
-        rating
-      }
+      ratings
+      reviewCount
     }
   }
 `;
@@ -113,11 +117,8 @@ const DELETE_REVIEW = gql`
   mutation DeleteReview($bookId: ID!, $reviewer: String!) {
     deleteReview(bookId: $bookId, reviewer: $reviewer) {
       id
-      reviews {
-        reviewer
-        comment
-        rating
-      }
+      ratings
+      reviewCount
     }
   }
 `;
@@ -126,7 +127,7 @@ const Book = () => {
   const { id } = useParams();
   const { user } = useUserContext();
   
-  const { loading, error, data, refetch } = useQuery(GET_BOOK_DETAILS, {
+  const { loading, error, data, refetch, fetchMore } = useQuery(GET_BOOK_DETAILS, {
     variables: { id },
   });
 
@@ -186,7 +187,27 @@ const Book = () => {
   const [reviewMessage, setReviewMessage] = useState("");
   const [activeTab, setActiveTab] = useState("description");
   
-  const existingReview = book?.reviews.find((r) => r.reviewer === user?.username);
+  // Reviews are paged, newest first; "Show more reviews" appends the next page
+  const reviews = book?.reviews.edges.map((edge) => edge.node) ?? [];
+  const existingReview = reviews.find((r) => r.reviewer === user?.username);
+
+  const handleMoreReviews = () => {
+    fetchMore({
+      variables: { reviewsAfter: book.reviews.pageInfo.endCursor },
+      updateQuery: (previous, { fetchMoreResult }) => {
+        if (!fetchMoreResult) return previous;
+        return {
+          book: {
+            ...previous.book,
+            reviews: {
+              ...fetchMoreResult.book.reviews,
+              edges: [...previous.book.reviews.edges, ...fetchMoreResult.book.reviews.edges],
+            },
+          },
+        };
+      },
+    });
+  };
   
   useEffect(() => {
     if (cartData) {
@@ -367,7 +388,7 @@ const Book = () => {
               {renderStars(book.ratings)}
             </div>
             <span style={styles.ratingText}>
-              {book.ratings.toFixed(1)} ({book.reviews.length} {book.reviews.length === 1 ? 'review' : 'reviews'})
+              {book.ratings.toFixed(1)} ({book.reviewCount} {book.reviewCount === 1 ? 'review' : 'reviews'})
             </span>
           </div>
           
@@ -429,7 +450,7 @@ const Book = () => {
             style={activeTab === "reviews" ? styles.activeTab : styles.tab}
             onClick={() => setActiveTab("reviews")}
           >
-            Reviews ({book.reviews.length})
+            Reviews ({book.reviewCount})
           </button>
         </div>
         
@@ -445,9 +466,9 @@ const Book = () => {
           
           {activeTab === "reviews" && (
             <div style={styles.reviewsContainer}>
-              {book.reviews.length > 0 ? (
-                book.reviews.map((review, i) => (
-                  <div key={i} style={styles.reviewCard}>
+              {reviews.length > 0 ? (
+                reviews.map((review) => (
+                  <div key={review.id} style={styles.reviewCard}>
                     <div style={styles.reviewHeader}>
                       <span style={styles.reviewerName}>{review.reviewer}</span>
                       <div style={styles.reviewStars}>
@@ -460,6 +481,12 @@ const Book = () => {
               ) : (
                 <p style={styles.noReviews}>No reviews yet. Be the first to review this book!</p>
               )}
+
+              {book.reviews.pageInfo.hasNextPage && (
+                <button onClick={handleMoreReviews} style={styles.moreReviewsButton}>
+                  Show more reviews
+                </button>
+              )}
               
               {user && (
                 <div style={styles.reviewFormContainer}>
@@ -791,6 +818,16 @@ const styles = {
     color: "#666",
     fontStyle: "italic",
   },
+  moreReviewsButton: {
+    alignSelf: "center",
+    padding: "10px 24px",
+    backgroundColor: "#fff",
+    color: "#007BFF",
+    border: "1px solid #007BFF",
+    borderRadius: "6px",
+    fontSize: "15px",
+    cursor: "pointer",
+  },
   reviewCard: {
     padding: "20px",
     backgroundColor: "#f9f9f9",
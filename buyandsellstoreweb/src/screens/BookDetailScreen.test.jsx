@@ -49,7 +49,11 @@ const mocks = [
           price: 9.99,
           imageUrl: "/mock.jpg",
           ratings: 4.5,
-          reviews: [],
+          reviewCount: 0,
+          reviews: {
+            edges: [],
+            pageInfo: { hasNextPage: false, endCursor: null },
+          },
         },
       },
     },
@@ -4,31 +4,101 @@ import { useNavigate } from "react-router-dom";
 
 const API_BASE_URL = "http://localhost:8080";
 
+const PAGE_SIZE = 24;
+
+// Price and rating sorts of the catalog are done by the server; title sorts and sorts of search
+// results reorder what has been loaded
+const SERVER_SORT = {
+  "price-asc": "PRICE_ASC",
+  "price-desc": "PRICE_DESC",
+  "rating-desc": "RATINGS",
+};
+
 const GET_BOOKS = gql`
-  query GetBooks {
-    books {
-      id
-      title
-      author
-      price
-      imageUrl
-      ratings
+  query GetBooks($first: Int, $after: String, $sortBy: CatalogSort) {
+    booksConnection(first: $first, after: $after, sortBy: $sortBy) {
+      edges {
+        node {
+          id
+          title
+          author
+          price
+          imageUrl
+          ratings
+        }
+      }
+      pageInfo {
+        hasNextPage
+        endCursor
+      }
+    }
+  }
+`;
+
+const SEARCH_BOOKS = gql`
+  query SearchBooks($query: String!) {
+    searchCatalog(query: $query, type: "book", first: 48) {
+      edges {
+        node {
+          ... on Book {
+            id
+            title
+            author
+            price
+            imageUrl
+            ratings
+          }
+        }
+      }
     }
   }
 `;
 
 const Books = () => {
-  const { loading, error, data } = useQuery(GET_BOOKS);
-  const [books, setBooks] = useState([]);
   const [searchTerm, setSearchTerm] = useState("");
+  const [searchQuery, setSearchQuery] = useState("");
   const [selectedSort, setSelectedSort] = useState("default");
+  const { loading, error, data, fetchMore } = useQuery(GET_BOOKS, {
+    variables: { first: PAGE_SIZE, sortBy: SERVER_SORT[selectedSort] || "NEWEST" },
+    notifyOnNetworkStatusChange: true,
+  });
+  const [books, setBooks] = useState([]);
   const navigate = useNavigate();
 
   useEffect(() => {
-    if (data && data.books && !loading) {
-      setBooks(data.books);
+    if (data && data.booksConnection) {
+      setBooks(data.booksConnection.edges.map((edge) => edge.node));
     }
-  }, [data, loading]);
+  }, [data]);
+
+  const pageInfo = data?.booksConnection?.pageInfo;
+
+  // Searches run on the server once typing pauses; results come back best match first
+  useEffect(() => {
+    const timer = setTimeout(() => setSearchQuery(searchTerm.trim()), 250);
+    return () => clearTimeout(timer);
+  }, [searchTerm]);
+
+  const searchResult = useQuery(SEARCH_BOOKS, {
+    variables: { query: searchQuery },
+    skip: !searchQuery,
+  });
+  const searching = searchQuery !== "";
+
+  const loadMore = () => {
+    fetchMore({
+      variables: { after: pageInfo.endCursor },
+      updateQuery: (previous, { fetchMoreResult }) => {
+        if (!fetchMoreResult) return previous;
+        return {
+          booksConnection: {
+            ...fetchMoreResult.booksConnection,
+            edges: [...previous.booksConnection.edges, ...fetchMoreResult.booksConnection.edges],
+          },
+        };
+      },
+    });
+  };
 
   const handleSearchChange = (e) => {
     setSearchTerm(e.target.value);
@@ -38,10 +108,9 @@ const Books = () => {
     setSelectedSort(e.target.value);
   };
 
-  const filteredBooks = books.filter((book) => 
-    book.title.toLowerCase().includes(searchTerm.toLowerCase()) ||
-    book.author.toLowerCase().includes(searchTerm.toLowerCase())
-  );
+  const filteredBooks = searching
+    ? (searchResult.data?.searchCatalog.edges || []).map((edge) => edge.node)
+    : books;
 
   const sortedBooks = [...filteredBooks].sort((a, b) => {
     switch(selectedSort) {
@@ -78,7 +147,7 @@ const Books = () => {
     return stars;
   };
 
-  if (loading) return (
+  if (loading && !data) return (
     <div style={styles.loadingContainer}>
       <div style={styles.loadingSpinner}></div>
       <p>Loading books...</p>
@@ -92,7 +161,7 @@ const Books = () => {
     </div>
   );
 
-  if (data.books.length === 0) {
+  if (books.length === 0 && !loading) {
     return (
       <div style={styles.emptyStateContainer}>
         <h2>No Books Available</h2>
@@ -173,6 +242,14 @@ const Books = () => {
           ))}
         </div>
       )}
+
+      {!searching && pageInfo && pageInfo.hasNextPage && (
+        <div style={styles.loadMoreContainer}>
+          <button style={styles.loadMoreButton} onClick={loadMore} disabled={loading}>
+            {loading ? "Loading..." : "Load more"}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
@@ -379,6 +456,21 @@ const styles = {
     transition: "background-color 0.2s",
     width: "100%",
   },
+  loadMoreContainer: {
+    display: "flex",
+    justifyContent: "center",
+    marginTop: "30px",
+  },
+  loadMoreButton: {
+    padding: "12px 30px",
+    backgroundColor: "#fff",
+    color: "#007BFF",
+    border: "1px solid #007BFF",
+    borderRadius: "6px",
+    fontSize: "15px",
+    fontWeight: "600",
+    cursor: "pointer",
+  },
 };
 
 export default Books;
\ No newline at end of file
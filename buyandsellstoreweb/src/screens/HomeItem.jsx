@@ -6,7 +6,7 @@ import { useParams } from "react-router-dom";
 import { useUserContext } from "../context/UserContext";
 
 const GET_HOME_ITEM_DETAILS = gql`
-  query GetHomeItem($id: ID!) {
+  query GetHomeItem($id: ID!, $reviewsAfter: String) {
     homeItem(id: $id) {
       id
       title
@@ -16,10 +16,20 @@ const GET_HOME_ITEM_DETAILS = gql`
       imageUrl
       manufacturer
       ratings
-      reviews {
-        reviewer
-        comment
-        rating
+      reviewCount
+      reviews(first: 10, after: $reviewsAfter) {
+        edges {
+          node {
+            id
+            reviewer
+            comment
+            rating
+          }
+        }
+        pageInfo {
+          hasNextPage
+          endCursor
+        }
       }
       totalQuantity
     }
@@ -88,11 +98,8 @@ const ADD_REVIEW = gql`
   mutation AddHomeItemReview($homeItemId: ID!, $review: ReviewInput!) {
     addHomeItemReview(homeItemId: $homeItemId, review: $review) {
       id
-      reviews {
-        reviewer
-        comment
-        rating
-      }
+      ratings
+      reviewCount
     }
   }
 `;
@@ -101,11 +108,8 @@ const UPDATE_REVIEW = gql`
   mutation UpdateHomeItemReview($homeItemId: ID!, $reviewer: String!, $updatedReview: ReviewInput!) {
     updateHomeItemReview(homeItemId: $homeItemId, reviewer: $reviewer, updatedReview: $updatedReview) {
       id
-      reviews {
-        reviewer
-        comment
-        rating
-      }
+      ratings
+      reviewCount
     }
   }
 `;
@@ -114,11 +118,8 @@ const DELETE_REVIEW = gql`
   mutation DeleteHomeItemReview($homeItemId: ID!, $reviewer: String!) {
     deleteHomeItemReview(homeItemId: $homeItemId, reviewer: $reviewer) {
       id
-      reviews {
-        reviewer
-        comment
-        rating
-      }
+      ratings
+      reviewCount
     }
   }
 `;
@@ -130,7 +131,7 @@ const HomeItem = () => {
   const { id } = useParams();
   const { user } = useUserContext();
 
-  const { loading, error, data, refetch } = useQuery(GET_HOME_ITEM_DETAILS, {
+  const { loading, error, data, refetch, fetchMore } = useQuery(GET_HOME_ITEM_DETAILS, {
     variables: { id },
   });
 
@@ -196,8 +197,29 @@ const HomeItem = () => {
     }
   }, [cartData, id]);
 
+  // Reviews are paged, newest first; "Show more reviews" appends the next page
+  const reviews = data?.homeItem?.reviews.edges.map((edge) => edge.node) ?? [];
+
   // Check if user has already reviewed this item
-  const existingReview = data?.homeItem?.reviews?.find((r) => r.reviewer === user?.username);
+  const existingReview = reviews.find((r) => r.reviewer === user?.username);
+
+  const handleMoreReviews = () => {
+    fetchMore({
+      variables: { reviewsAfter: data.homeItem.reviews.pageInfo.endCursor },
+      updateQuery: (previous, { fetchMoreResult }) => {
+        if (!fetchMoreResult) return previous;
+        return {
+          homeItem: {
+            ...previous.homeItem,
+            reviews: {
+              ...fetchMoreResult.homeItem.reviews,
+              edges: [...previous.homeItem.reviews.edges, ...fetchMoreResult.homeItem.reviews.edges],
+            },
+          },
+        };
+      },
+    });
+  };
   
   useEffect(() => {
     if (existingReview) {
@@ -402,7 +424,7 @@ const HomeItem = () => {
               {renderStars(item.ratings)}
             </div>
             <span style={styles.ratingText}>
-              {item.ratings.toFixed(1)} ({item.reviews ? item.reviews.length : 0} {item.reviews && item.reviews.length === 1 ? 'review' : 'reviews'})
+              {item.ratings.toFixed(1)} ({item.reviewCount} {item.reviewCount === 1 ? 'review' : 'reviews'})
             </span>
           </div>
           
@@ -470,7 +492,7 @@ const HomeItem = () => {
             }}
             onClick={() => setActiveTab("reviews")}
           >
-            Reviews ({item.reviews ? item.reviews.length : 0})
+            Reviews ({item.reviewCount})
           </button>
         </div>
         
@@ -483,9 +505,9 @@ const HomeItem = () => {
           
           {activeTab === "reviews" && (
             <div style={styles.reviewsContainer}>
-              {item.reviews && item.reviews.length > 0 ? (
-                item.reviews.map((review, i) => (
-                  <div key={i} style={styles.reviewCard}>
+              {reviews.length > 0 ? (
+                reviews.map((review) => (
+                  <div key={review.id} style={styles.reviewCard}>
                     <div style={styles.reviewHeader}>
                       <span style={styles.reviewerName}>{review.reviewer}</span>
                       <div style={styles.reviewStars}>
@@ -498,6 +520,12 @@ const HomeItem = () => {
               ) : (
                 <p style={styles.noReviews}>No reviews yet. Be the first to review this item!</p>
               )}
+
+              {item.reviews.pageInfo.hasNextPage && (
+                <button onClick={handleMoreReviews} style={styles.moreReviewsButton}>
+                  Show more reviews
+                </button>
+              )}
               
               {/* Review Form Section */}
               <div style={styles.reviewFormContainer}>
@@ -822,6 +850,16 @@ const styles = {
     color: "#666",
     fontStyle: "italic",
   },
+  moreReviewsButton: {
+    alignSelf: "center",
+    padding: "10px 24px",
+    backgroundColor: "#fff",
+    color: "#007BFF",
+    border: "1px solid #007BFF",
+    borderRadius: "6px",
+    fontSize: "15px",
+    cursor: "pointer",
+  },
   reviewCard: {
     padding: "20px",
     backgroundColor: "#f9f9f9",
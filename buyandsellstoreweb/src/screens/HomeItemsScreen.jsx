@@ -3,31 +3,101 @@ import { gql, useQuery } from "@apollo/client";
 import { Link } from "react-router-dom";
 import "../styles/HomeItems.css";
 
+const PAGE_SIZE = 24;
+
+// Price and rating sorts of the catalog are done by the server; title sorts and sorts of search
+// results reorder what has been loaded
+const SERVER_SORT = {
+  "price-asc": "PRICE_ASC",
+  "price-desc": "PRICE_DESC",
+  "rating-desc": "RATINGS",
+};
+
 const GET_HOME_ITEMS = gql`
-  query GetHomeItems {
-    homeItems {
-      id
-      title
-      price
-      imageUrl
-      manufacturer
-      ratings
+  query GetHomeItems($first: Int, $after: String, $sortBy: CatalogSort) {
+    homeItemsConnection(first: $first, after: $after, sortBy: $sortBy) {
+      edges {
+        node {
+          id
+          title
+          price
+          imageUrl
+          manufacturer
+          ratings
+        }
+      }
+      pageInfo {
+        hasNextPage
+        endCursor
+      }
+    }
+  }
+`;
+
+const SEARCH_HOME_ITEMS = gql`
+  query SearchHomeItems($query: String!) {
+    searchCatalog(query: $query, type: "home", first: 48) {
+      edges {
+        node {
+          ... on HomeItem {
+            id
+            title
+            price
+            imageUrl
+            manufacturer
+            ratings
+          }
+        }
+      }
     }
   }
 `;
 
 const HomeItemsScreen = () => {
-  const { loading, error, data } = useQuery(GET_HOME_ITEMS);
-  const [homeItems, setHomeItems] = useState([]);
   const [searchTerm, setSearchTerm] = useState("");
+  const [searchQuery, setSearchQuery] = useState("");
   const [selectedSort, setSelectedSort] = useState("default");
+  const { loading, error, data, fetchMore } = useQuery(GET_HOME_ITEMS, {
+    variables: { first: PAGE_SIZE, sortBy: SERVER_SORT[selectedSort] || "NEWEST" },
+    notifyOnNetworkStatusChange: true,
+  });
+  const [homeItems, setHomeItems] = useState([]);
 
   useEffect(() => {
-    if (data && data.homeItems) {
-      setHomeItems(data.homeItems);
+    if (data && data.homeItemsConnection) {
+      setHomeItems(data.homeItemsConnection.edges.map((edge) => edge.node));
     }
   }, [data]);
 
+  const pageInfo = data?.homeItemsConnection?.pageInfo;
+
+  // Searches run on the server once typing pauses; results come back best match first
+  useEffect(() => {
+    const timer = setTimeout(() => setSearchQuery(searchTerm.trim()), 250);
+    return () => clearTimeout(timer);
+  }, [searchTerm]);
+
+  const searchResult = useQuery(SEARCH_HOME_ITEMS, {
+    variables: { query: searchQuery },
+    skip: !searchQuery,
+  });
+  const searching = searchQuery !== "";
+
+  const loadMore = () => {
+    fetchMore({
+      variables: { after: pageInfo.endCursor },
+      updateQuery: (previous, { fetchMoreResult }) => {
+        if (!fetchMoreResult) return previous;
+        return {
+          homeItemsConnection: {
+            ...fetchMoreResult.homeItemsConnection,
+            edges: [...previous.homeItemsConnection.edges, ...fetchMoreResult.homeItemsConnection.edges],
+          },
+        };
+      },
+    });
+  };
+
   const handleSearchChange = (e) => {
     setSearchTerm(e.target.value);
   };
@@ -36,10 +106,9 @@ const HomeItemsScreen = () => {
     setSelectedSort(e.target.value);
   };
 
-  const filteredItems = homeItems.filter((item) => 
-    item.title.toLowerCase().includes(searchTerm.toLowerCase()) ||
-    item.manufacturer.toLowerCase().includes(searchTerm.toLowerCase())
-  );
+  const filteredItems = searching
+    ? (searchResult.data?.searchCatalog.edges || []).map((edge) => edge.node)
+    : homeItems;
 
   const sortedItems = [...filteredItems].sort((a, b) => {
     switch(selectedSort) {
@@ -76,7 +145,7 @@ const HomeItemsScreen = () => {
     return stars;
   };
 
-  if (loading) return <div className="loading-container">Loading home items...</div>;
+  if (loading && !data) return <div className="loading-container">Loading home items...</div>;
   if (error) return <div className="error-container">Error loading items: {error.message}</div>;
 
   return (
@@ -140,6 +209,14 @@ const HomeItemsScreen = () => {
           ))}
         </div>
       )}
+
+      {!searching && pageInfo && pageInfo.hasNextPage && (
+        <div className="load-more-container">
+          <button className="load-more-button" onClick={loadMore} disabled={loading}>
+            {loading ? "Loading..." : "Load more"}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
@@ -17,11 +17,7 @@ const GET_BOOKS_BY_SELLER = gql`
       ratings
       sellerId
       totalQuantity
-      reviews {
-        reviewer
-        comment
-        rating
-      }
+      reviewCount
     }
   }
 `;
@@ -37,11 +33,7 @@ const GET_HOME_ITEMS_BY_SELLER = gql`
       imageUrl
       manufacturer
       ratings
-      reviews {
-        reviewer
-        comment
-        rating
-      }
+      reviewCount
       sellerId
       totalQuantity
     }
@@ -51,47 +51,34 @@ const GET_SELLER_STATS = gql`
 // Add these GraphQL queries to SalesAnalytics.jsx
 // Update the GraphQL queries in SalesAnalytics.jsx
 
-const GET_SELLER_ANALYTICS = gql`
-  query GetSellerSalesAnalytics($sellerId: ID!, $timeFrame: String) {
-    getSellerSalesAnalytics(sellerId: $sellerId, timeFrame: $timeFrame) {
-      totalBuyers
-      totalPurchases
-      totalRevenue
-      averageOrderValue
-    }
-  }
-`;
-
-const GET_TOP_PRODUCTS = gql`
-  query GetTopSellingProducts($sellerId: ID!, $timeFrame: String, $metric: String, $limit: Int) {
-    getTopSellingProducts(sellerId: $sellerId, timeFrame: $timeFrame, metric: $metric, limit: $limit) {
-      id
-      name
-      type
-      quantity
-      revenue
-      imageUrl
-    }
-  }
-`;
-
-const GET_CATEGORY_SALES = gql`
-  query GetSalesByCategory($sellerId: ID!, $timeFrame: String) {
-    getSalesByCategory(sellerId: $sellerId, timeFrame: $timeFrame) {
-      categories {
+const GET_SELLER_DASHBOARD = gql`
+  query SellerDashboard($sellerId: ID!, $timeFrame: String, $groupBy: String, $metric: String, $limit: Int) {
+    sellerDashboard(sellerId: $sellerId, timeFrame: $timeFrame, groupBy: $groupBy, metric: $metric, limit: $limit) {
+      salesAnalytics {
+        totalBuyers
+        totalPurchases
+        totalRevenue
+        averageOrderValue
+      }
+      topProducts {
+        id
         name
-        count
+        type
+        quantity
         revenue
+        imageUrl
+      }
+      salesByCategory {
+        categories {
+          name
+          count
+          revenue
+        }
+      }
+      revenueOverTime {
+        timeLabels
+        revenueValues
       }
-    }
-  }
-`;
-
-const GET_REVENUE_OVER_TIME = gql`
-  query GetRevenueOverTime($sellerId: ID!, $timeFrame: String, $groupBy: String) {
-    getRevenueOverTime(sellerId: $sellerId, timeFrame: $timeFrame, groupBy: $groupBy) {
-      timeLabels
-      revenueValues
     }
   }
 `;
@@ -134,49 +121,25 @@ const SalesAnalytics = () => {
     skip: !sellerId,
   });
 
-  // Inside your SalesAnalytics component:
-// Replace the existing queries with these:
-
-const { 
-    data: analyticsData, 
-    loading: analyticsLoading 
-  } = useQuery(GET_SELLER_ANALYTICS, {
-    variables: { sellerId, timeFrame: timeFilter },
-    skip: !sellerId,
-  });
-  
-  const { 
-    data: topProductsData, 
-    loading: productsLoading 
-  } = useQuery(GET_TOP_PRODUCTS, {
-    variables: { 
-      sellerId, 
-      timeFrame: timeFilter, 
+  // All four dashboard panels come from one sellerDashboard query (one order scan on the server)
+  const {
+    data: dashboardData,
+    loading: dashboardLoading
+  } = useQuery(GET_SELLER_DASHBOARD, {
+    variables: {
+      sellerId,
+      timeFrame: timeFilter,
+      groupBy: timeFilter === 'week' ? 'daily' : 'monthly',
       metric: selectedMetric,
       limit: 5
     },
     skip: !sellerId,
   });
-  
-  const { 
-    data: categorySalesData, 
-    loading: categoriesLoading 
-  } = useQuery(GET_CATEGORY_SALES, {
-    variables: { sellerId, timeFrame: timeFilter },
-    skip: !sellerId,
-  });
-  
-  const { 
-    data: revenueTimeData, 
-    loading: revenueLoading 
-  } = useQuery(GET_REVENUE_OVER_TIME, {
-    variables: { 
-      sellerId, 
-      timeFrame: timeFilter,
-      groupBy: timeFilter === 'week' ? 'daily' : 'monthly'
-    },
-    skip: !sellerId,
-  });
+  const dashboard = dashboardData?.sellerDashboard;
+  const analyticsData = dashboard && { getSellerSalesAnalytics: dashboard.salesAnalytics };
+  const topProductsData = dashboard && { getTopSellingProducts: dashboard.topProducts };
+  const categorySalesData = dashboard && { getSalesByCategory: dashboard.salesByCategory };
+  const revenueTimeData = dashboard && { getRevenueOverTime: dashboard.revenueOverTime };
 
   const [salesData, setSalesData] = useState({
     dailyRevenue: [],